@@ -28,8 +28,10 @@ package org.schemaspy;
 import org.schemaspy.cli.CommandLineArgumentParser;
 import org.schemaspy.cli.CommandLineArguments;
 import org.schemaspy.input.dbms.config.PropertiesResolver;
+import org.schemaspy.input.dbms.service.RowCountMode;
 import org.schemaspy.model.InvalidConfigurationException;
 import org.schemaspy.util.DbSpecificConfig;
+import org.schemaspy.validator.ExactNames;
 import org.schemaspy.view.HtmlConfig;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -97,9 +99,23 @@ public final class Config implements HtmlConfig {
     private String templateDirectory;
     private Pattern tableInclusions;
     private Pattern tableExclusions;
+    private ExactNames tableInclusionNames;
+    private ExactNames tableExclusionNames;
+    private Boolean nameFilesCaseInsensitive;
     private Pattern columnExclusions;
     private Pattern indirectColumnExclusions;
     private Integer maxDbThreads;
+    private Integer maxSchemaThreads;
+    private Boolean adaptiveDbThreads;
+    private Boolean virtualThreads;
+    private Integer fetchSize;
+    private Integer queryTimeout;
+    private Integer timeBudget;
+    private RowCountMode rowCountMode;
+    private Double rowCountSamplePercent;
+    private Integer rowCountTimeout;
+    private Integer rowCountThreads;
+    private Map<String, Integer> fetchSizes;
     private Integer maxDetailedTables;
     private String driverPath;
     private String css;
@@ -110,6 +126,8 @@ public final class Config implements HtmlConfig {
     private Properties dbProperties;
     private Boolean rankDirBugEnabled;
     private Boolean numRowsEnabled;
+    private Boolean snapshotEnabled;
+    private Boolean jdbcStatsEnabled;
     private Boolean viewsEnabled;
     private Boolean railsEnabled;
     private Boolean evaluateAll;
@@ -124,8 +142,10 @@ public final class Config implements HtmlConfig {
     private static final String ESCAPED_EQUALS = "\\=";
     private static final String DEFAULT_TABLE_INCLUSION = ".*"; // match everything
     private static final String DEFAULT_TABLE_EXCLUSION = ".*\\$.*";
+    private static final String NO_TABLE_INCLUSION = "(?!)"; // match nothing
     private static final String DEFAULT_COLUMN_EXCLUSION = "[^.]";  // match nothing
     private static final String DEFAULT_PROPERTIES_FILE = "schemaspy.properties";
+    private static final String FETCH_SIZE = "fetchSize";
     private Properties schemaspyProperties = new Properties();
     private static final Logger LOGGER = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
 
@@ -150,6 +170,69 @@ public final class Config implements HtmlConfig {
         options = fixupArgs(Arrays.asList(argv));
     }
 
+    /**
+     * Construct a copy of <code>config</code>, used when analyzing several schemas
+     * concurrently so that each schema can have its own settings (e.g. -db).
+     * The copy doesn't replace the global instance.
+     *
+     * @param config configuration to copy
+     */
+    public Config(Config config) {
+        this.options = new ArrayList<>(config.options);
+        this.dbSpecificOptions = config.dbSpecificOptions;
+        this.dbType = config.dbType;
+        this.schemas = config.schemas;
+        this.oneOfMultipleSchemas = config.oneOfMultipleSchemas;
+        this.user = config.user;
+        this.singleSignOn = config.singleSignOn;
+        this.password = config.password;
+        this.promptForPassword = config.promptForPassword;
+        this.db = config.db;
+        this.host = config.host;
+        this.port = config.port;
+        this.exportedKeysEnabled = config.exportedKeysEnabled;
+        this.templateDirectory = config.templateDirectory;
+        this.tableInclusions = config.tableInclusions;
+        this.tableExclusions = config.tableExclusions;
+        this.tableInclusionNames = config.tableInclusionNames;
+        this.tableExclusionNames = config.tableExclusionNames;
+        this.nameFilesCaseInsensitive = config.nameFilesCaseInsensitive;
+        this.columnExclusions = config.columnExclusions;
+        this.indirectColumnExclusions = config.indirectColumnExclusions;
+        this.maxDbThreads = config.maxDbThreads;
+        this.maxSchemaThreads = config.maxSchemaThreads;
+        this.adaptiveDbThreads = config.adaptiveDbThreads;
+        this.virtualThreads = config.virtualThreads;
+        this.fetchSize = config.fetchSize;
+        this.queryTimeout = config.queryTimeout;
+        this.timeBudget = config.timeBudget;
+        this.rowCountMode = config.rowCountMode;
+        this.rowCountSamplePercent = config.rowCountSamplePercent;
+        this.rowCountTimeout = config.rowCountTimeout;
+        this.rowCountThreads = config.rowCountThreads;
+        this.fetchSizes = config.fetchSizes;
+        this.maxDetailedTables = config.maxDetailedTables;
+        this.driverPath = config.driverPath;
+        this.css = config.css;
+        this.font = config.font;
+        this.fontSize = config.fontSize;
+        this.description = config.description;
+        this.propertiesResolver = config.propertiesResolver;
+        this.dbProperties = config.dbProperties;
+        this.rankDirBugEnabled = config.rankDirBugEnabled;
+        this.numRowsEnabled = config.numRowsEnabled;
+        this.snapshotEnabled = config.snapshotEnabled;
+        this.jdbcStatsEnabled = config.jdbcStatsEnabled;
+        this.viewsEnabled = config.viewsEnabled;
+        this.railsEnabled = config.railsEnabled;
+        this.evaluateAll = config.evaluateAll;
+        this.paginationEnabled = config.paginationEnabled;
+        this.loadJDBCJarsEnabled = config.loadJDBCJarsEnabled;
+        this.schemaSpec = config.schemaSpec;
+        this.populating = config.populating;
+        this.schemaspyProperties = config.schemaspyProperties;
+    }
+
     public static Config getInstance() {
         if (instance == null)
             instance = new Config();
@@ -489,6 +572,24 @@ public final class Config implements HtmlConfig {
         this.maxDbThreads = maxDbThreads;
     }
 
+    public void setMaxSchemaThreads(int maxSchemaThreads) {
+        this.maxSchemaThreads = maxSchemaThreads;
+    }
+
+    /**
+     * @return number of schemas to analyze concurrently when analyzing multiple schemas, defaults to 1
+     */
+    public int getMaxSchemaThreads() {
+        if (maxSchemaThreads == null) {
+            String threads = pullParam("-schemaThreads");
+            if (threads == null)
+                threads = pullParam("-schemathreads");
+            int max = threads == null ? 1 : Integer.parseInt(threads);
+            maxSchemaThreads = Math.max(1, max);
+        }
+        return maxSchemaThreads;
+    }
+
     /**
      * @throws InvalidConfigurationException if unable to load properties
      * @see #setMaxDbThreads(int)
@@ -520,6 +621,237 @@ public final class Config implements HtmlConfig {
         return maxDbThreads;
     }
 
+    /**
+     * If enabled tables are gathered by as many threads as the database keeps up with,
+     * between one and {@link #getMaxDbThreads()}, instead of always using all of them.<p/>
+     * The number of threads grows while the time it takes to gather a table stays flat
+     * and shrinks when it rises or gathering fails.
+     * <p>
+     * Defaults to <code>false</code> (disabled).
+     *
+     * @param enabled should the number of threads adapt to the database
+     */
+    public void setAdaptiveDbThreads(boolean enabled) {
+        adaptiveDbThreads = enabled;
+    }
+
+    /**
+     * @return if the number of threads should adapt to the database
+     * @see #setAdaptiveDbThreads(boolean)
+     */
+    public boolean isAdaptiveDbThreads() {
+        if (adaptiveDbThreads == null)
+            adaptiveDbThreads = options.remove("-adaptiveDbThreads");
+
+        return adaptiveDbThreads;
+    }
+
+    /**
+     * If enabled every table, query and count runs on a virtual thread of its own, with at most
+     * {@link #getMaxDbThreads()} of them talking to the database at the same time,
+     * instead of on a pool of that many platform threads. Requires Java 21 or later,
+     * older versions use platform threads regardless.
+     * <p>
+     * Defaults to <code>false</code> (disabled).
+     *
+     * @param enabled should virtual threads be used
+     */
+    public void setVirtualThreads(boolean enabled) {
+        virtualThreads = enabled;
+    }
+
+    /**
+     * @return if virtual threads should be used
+     * @see #setVirtualThreads(boolean)
+     */
+    public boolean isVirtualThreads() {
+        if (virtualThreads == null)
+            virtualThreads = options.remove("-virtualThreads");
+
+        return virtualThreads;
+    }
+
+    /**
+     * Number of rows the driver should fetch per round trip for queries
+     * without a fetch size of their own, see {@link #getFetchSizes()}.
+     * Defaults to <code>fetchSize</code> of the database type,
+     * <code>0</code> (the default of the driver) if that isn't specified either.
+     *
+     * @throws InvalidConfigurationException if unable to load properties
+     */
+    public int getFetchSize() {
+        if (fetchSize == null) {
+            String size = getDbProperties().getProperty(FETCH_SIZE);
+            String sizeParam = pullParam("-" + FETCH_SIZE);
+            if (sizeParam != null)
+                size = sizeParam;
+            fetchSize = parseNonNegative(FETCH_SIZE, size);
+        }
+        return fetchSize;
+    }
+
+    /**
+     * Fetch sizes of individual queries, by the name of the query, e.g. <code>selectColumnCommentsSql</code>
+     * or the name of a <code>DatabaseMetaData</code> method like <code>getColumns</code>.
+     * Taken from <code>fetchSize.[name]</code> of the database type, overridden by
+     * <code>-fetchSize.[name]</code> on the command line.
+     *
+     * @throws InvalidConfigurationException if unable to load properties
+     */
+    public Map<String, Integer> getFetchSizes() {
+        if (fetchSizes == null) {
+            String prefix = FETCH_SIZE + ".";
+            Map<String, Integer> sizes = new HashMap<>();
+            Properties properties = getDbProperties();
+            for (String key : properties.stringPropertyNames()) {
+                if (key.startsWith(prefix)) {
+                    sizes.put(key.substring(prefix.length()), parseNonNegative(key, properties.getProperty(key)));
+                }
+            }
+            List<String> params = options.stream()
+                    .filter(option -> option.startsWith("-" + prefix))
+                    .collect(Collectors.toList());
+            for (String param : params) {
+                String size = pullParam(param);
+                sizes.put(param.substring(prefix.length() + 1), parseNonNegative(param, size));
+            }
+            fetchSizes = Collections.unmodifiableMap(sizes);
+        }
+        return fetchSizes;
+    }
+
+    /**
+     * Number of seconds a query may run before it's cancelled, see <code>Statement.setQueryTimeout</code>.
+     * Defaults to <code>queryTimeout</code> of the database type,
+     * <code>0</code> (no timeout) if that isn't specified either.
+     *
+     * @throws InvalidConfigurationException if unable to load properties
+     */
+    public int getQueryTimeout() {
+        if (queryTimeout == null) {
+            String seconds = getDbProperties().getProperty("queryTimeout");
+            String secondsParam = pullParam("-queryTimeout");
+            if (secondsParam != null)
+                seconds = secondsParam;
+            queryTimeout = parseNonNegative("queryTimeout", seconds);
+        }
+        return queryTimeout;
+    }
+
+    /**
+     * Number of seconds gathering the details of a schema may take before optional details,
+     * like row counts and exported keys, are skipped for the remaining tables.
+     * Defaults to <code>0</code> (no limit).
+     */
+    public int getTimeBudget() {
+        if (timeBudget == null)
+            timeBudget = parseNonNegative("timeBudget", pullParam("-timeBudget"));
+        return timeBudget;
+    }
+
+    /**
+     * How the rows of tables are counted, one of <code>auto</code>, <code>exact</code>, <code>stats</code>,
+     * <code>sampled</code> or <code>timed</code>, see {@link RowCountMode}.
+     * Defaults to <code>rowCountMode</code> of the database type, <code>auto</code> if that isn't specified either.
+     *
+     * @throws InvalidConfigurationException if unable to load properties or the mode is unknown
+     */
+    public RowCountMode getRowCountMode() {
+        if (rowCountMode == null) {
+            String mode = getDbProperties().getProperty("rowCountMode");
+            String modeParam = pullParam("-rowCountMode");
+            if (modeParam != null)
+                mode = modeParam;
+            try {
+                rowCountMode = mode == null ? RowCountMode.AUTO : RowCountMode.of(mode);
+            } catch (IllegalArgumentException unknownMode) {
+                throw new InvalidConfigurationException(unknownMode, "rowCountMode", mode);
+            }
+        }
+        return rowCountMode;
+    }
+
+    /**
+     * Percentage of a table that's counted with <code>-rowCountMode sampled</code>, defaults to <code>1</code>
+     *
+     * @throws InvalidConfigurationException if it isn't a number above 0 and up to 100
+     */
+    public double getRowCountSamplePercent() {
+        if (rowCountSamplePercent == null) {
+            String percent = pullParam("-rowCountSample");
+            double sample = 1;
+            if (percent != null) {
+                try {
+                    sample = Double.parseDouble(percent.trim());
+                } catch (NumberFormatException notANumber) {
+                    throw new InvalidConfigurationException(notANumber, "rowCountSample", percent);
+                }
+                if (!(sample > 0 && sample <= 100))
+                    throw new InvalidConfigurationException("rowCountSample has to be above 0 and up to 100, not " + percent);
+            }
+            rowCountSamplePercent = sample;
+        }
+        return rowCountSamplePercent;
+    }
+
+    /**
+     * Number of seconds a count may take with <code>-rowCountMode timed</code>, defaults to <code>10</code>
+     */
+    public int getRowCountTimeout() {
+        if (rowCountTimeout == null) {
+            String seconds = pullParam("-rowCountTimeout");
+            rowCountTimeout = seconds == null ? 10 : parseNonNegative("rowCountTimeout", seconds);
+        }
+        return rowCountTimeout;
+    }
+
+    /**
+     * Number of threads counting rows, separately from those gathering the other details of tables.
+     * Defaults to {@link #getMaxDbThreads()}.
+     */
+    public int getRowCountThreads() {
+        if (rowCountThreads == null) {
+            String threads = pullParam("-rowCountThreads");
+            rowCountThreads = threads == null ? getMaxDbThreads() : Math.max(1, parseNonNegative("rowCountThreads", threads));
+        }
+        return rowCountThreads;
+    }
+
+    /**
+     * Connections a schema needs at most: one per thread gathering details and,
+     * as rows are counted alongside those, one per thread counting rows.
+     */
+    public int getMaxDbConnections() {
+        int dbThreads = getMaxDbThreads();
+        if (dbThreads <= 1 || !isNumRowsEnabled())
+            return dbThreads;
+
+        return dbThreads + getRowCountThreads();
+    }
+
+    /**
+     * Size of the pool of connections when analyzing multiple schemas. Schemas analyzed at the same time
+     * each borrow the connection they hold from the pool, and with more than one thread lease the others from it too.
+     */
+    public int getMaxPooledConnections() {
+        int schemaThreads = getMaxSchemaThreads();
+        if (schemaThreads <= 1)
+            return getMaxDbConnections();
+
+        int leased = getMaxDbThreads() > 1 ? getMaxDbConnections() : 0;
+        return schemaThreads * (1 + leased);
+    }
+
+    private static int parseNonNegative(String name, String value) {
+        if (value == null)
+            return 0;
+        try {
+            return Math.max(0, Integer.parseInt(value.trim()));
+        } catch (NumberFormatException notANumber) {
+            throw new InvalidConfigurationException(notANumber, name, value);
+        }
+    }
+
     /**
      * Don't use this unless absolutely necessary as it screws up the layout
      *
@@ -588,6 +920,54 @@ public final class Config implements HtmlConfig {
         return numRowsEnabled;
     }
 
+    /**
+     * If enabled the tables gathered from the database are kept in a snapshot file
+     * in the output directory, and tables that haven't changed since the previous
+     * snapshot aren't gathered again. Views, routines and sequences are always gathered.<p/>
+     * <p>
+     * Defaults to <code>false</code> (disabled).
+     *
+     * @param enabled should we use a snapshot of the previous run
+     */
+    public void setSnapshotEnabled(boolean enabled) {
+        snapshotEnabled = enabled;
+    }
+
+    /**
+     * @return if we should use a snapshot of the previous run
+     * @see #setSnapshotEnabled(boolean)
+     */
+    public boolean isSnapshotEnabled() {
+        if (snapshotEnabled == null)
+            snapshotEnabled = options.remove("-snapshot");
+
+        return snapshotEnabled;
+    }
+
+    /**
+     * If enabled every metadata call and query made while gathering a schema is counted and timed,
+     * per table, and written to <code>jdbc-calls.json</code> and <code>jdbc-calls.csv</code>
+     * in the output directory.<p/>
+     * <p>
+     * Defaults to <code>false</code> (disabled).
+     *
+     * @param enabled should the jdbc calls be recorded
+     */
+    public void setJdbcStatsEnabled(boolean enabled) {
+        jdbcStatsEnabled = enabled;
+    }
+
+    /**
+     * @return if the jdbc calls should be recorded
+     * @see #setJdbcStatsEnabled(boolean)
+     */
+    public boolean isJdbcStatsEnabled() {
+        if (jdbcStatsEnabled == null)
+            jdbcStatsEnabled = options.remove("-jdbcStats");
+
+        return jdbcStatsEnabled;
+    }
+
     /**
      * If enabled we'll include views in the analysis.<p/>
      * <p>
@@ -688,7 +1068,7 @@ public final class Config implements HtmlConfig {
             if (strInclusions == null)
                 strInclusions = System.getenv("schemaspy.tableInclusions");
             if (strInclusions == null)
-                strInclusions = DEFAULT_TABLE_INCLUSION;
+                strInclusions = getTableInclusionNames().isEmpty() ? DEFAULT_TABLE_INCLUSION : NO_TABLE_INCLUSION;
 
             try {
                 tableInclusions = Pattern.compile(strInclusions);
@@ -732,6 +1112,85 @@ public final class Config implements HtmlConfig {
         return tableExclusions;
     }
 
+    /**
+     * Set the names of tables to include as they are, in addition to those matching {@link #getTableInclusions()}
+     *
+     * @param names tables to include
+     */
+    public void setTableInclusionNames(ExactNames names) {
+        this.tableInclusionNames = names;
+    }
+
+    /**
+     * Get the names of tables to include, read from the file given by <code>-includeFile</code>,
+     * one per line. Unlike a long list of alternatives in <code>-i</code> these are looked up
+     * in a hash set, which stays fast with tens of thousands of names.
+     * If given without <code>-i</code> only the listed tables are included.
+     *
+     * @return tables to include
+     */
+    public ExactNames getTableInclusionNames() {
+        if (tableInclusionNames == null)
+            tableInclusionNames = readNames("-includeFile");
+
+        return tableInclusionNames;
+    }
+
+    /**
+     * Set the names of tables to exclude as they are, in addition to those matching {@link #getTableExclusions()}
+     *
+     * @param names tables to exclude
+     */
+    public void setTableExclusionNames(ExactNames names) {
+        this.tableExclusionNames = names;
+    }
+
+    /**
+     * Get the names of tables to exclude, read from the file given by <code>-excludeFile</code>, one per line.
+     *
+     * @return tables to exclude
+     */
+    public ExactNames getTableExclusionNames() {
+        if (tableExclusionNames == null)
+            tableExclusionNames = readNames("-excludeFile");
+
+        return tableExclusionNames;
+    }
+
+    /**
+     * If enabled the names in <code>-includeFile</code> and <code>-excludeFile</code> match tables regardless of case.
+     * <p>
+     * Defaults to <code>false</code> (disabled).
+     *
+     * @param enabled should the names be matched regardless of case
+     */
+    public void setNameFilesCaseInsensitive(boolean enabled) {
+        nameFilesCaseInsensitive = enabled;
+    }
+
+    /**
+     * @return if the names in name files match regardless of case
+     * @see #setNameFilesCaseInsensitive(boolean)
+     */
+    public boolean isNameFilesCaseInsensitive() {
+        if (nameFilesCaseInsensitive == null)
+            nameFilesCaseInsensitive = options.remove("-nameFilesCaseInsensitive");
+
+        return nameFilesCaseInsensitive;
+    }
+
+    private ExactNames readNames(String param) {
+        String file = pullParam(param);
+        if (file == null)
+            return ExactNames.none();
+
+        try {
+            return ExactNames.read(Paths.get(file), isNameFilesCaseInsensitive());
+        } catch (IOException exc) {
+            throw new InvalidConfigurationException(exc, param, file);
+        }
+    }
+
     public void setSchemas(List<String> schemas) {
         this.schemas = schemas;
     }
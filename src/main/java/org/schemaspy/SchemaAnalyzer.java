@@ -30,13 +30,16 @@ import org.apache.commons.io.filefilter.FileFilterUtils;
 import org.apache.commons.io.filefilter.IOFileFilter;
 import org.schemaspy.analyzer.ImpliedConstraintsFinder;
 import org.schemaspy.cli.CommandLineArguments;
+import org.schemaspy.input.dbms.CallStatistics;
 import org.schemaspy.input.dbms.CatalogResolver;
-import org.schemaspy.input.dbms.DbDriverLoader;
 import org.schemaspy.input.dbms.SchemaResolver;
 import org.schemaspy.input.dbms.service.DatabaseService;
 import org.schemaspy.input.dbms.service.DatabaseServiceFactory;
 import org.schemaspy.input.dbms.service.SqlService;
+import org.schemaspy.input.dbms.snapshot.Snapshot;
+import org.schemaspy.input.dbms.snapshot.SnapshotStore;
 import org.schemaspy.input.dbms.xml.SchemaMeta;
+import org.schemaspy.input.xml.XmlModelReader;
 import org.schemaspy.model.*;
 import org.schemaspy.model.Console;
 import org.schemaspy.output.OutputException;
@@ -66,12 +69,15 @@ import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.StandardOpenOption;
-import java.sql.Connection;
 import java.sql.DatabaseMetaData;
 import java.sql.SQLException;
 import java.time.ZonedDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.stream.Collectors;
 
 /**
@@ -113,32 +119,45 @@ public class SchemaAnalyzer {
     }
 
     public Database analyze(Config config) throws SQLException, IOException {
+        ProgressListener progressListener = newProgressListener();
+
+        // the connection is shared by all schemas of the run, close it once they're done
+        try {
+            if (Objects.nonNull(commandLineArguments.getModel())) {
+                return analyzeModel(config, commandLineArguments.getModel(), progressListener);
+            }
+            if (config.isEvaluateAllEnabled() || config.getSchemas() != null) {
+                config.setOneOfMultipleSchemas(true); // used later for generation rootPathtoHome link.
+                return this.analyzeMultipleSchemas(
+                        config,
+                        databaseServiceFactory.simple(config),
+                        progressListener
+                );
+            } else {
+                File outputDirectory = commandLineArguments.getOutputDirectory();
+                Objects.requireNonNull(outputDirectory);
+                String schema = commandLineArguments.getSchema();
+                return analyze(
+                        schema,
+                        config,
+                        outputDirectory,
+                        databaseServiceFactory.simple(config),
+                        progressListener
+                );
+            }
+        } finally {
+            sqlService.close();
+        }
+    }
+
+    private ProgressListener newProgressListener() {
         ProgressListener progressListener = new Tracked();
         // don't render console-based detail unless we're generating HTML (those probably don't have a user watching)
         // and not already logging fine details (to keep from obfuscating those)
         if (commandLineArguments.isHtmlEnabled()) {
             progressListener = new Console(commandLineArguments, progressListener);
         }
-
-        if (config.isEvaluateAllEnabled() || config.getSchemas() != null) {
-            config.setOneOfMultipleSchemas(true); // used later for generation rootPathtoHome link.
-            return this.analyzeMultipleSchemas(
-                    config,
-                    databaseServiceFactory.simple(config),
-                    progressListener
-            );
-        } else {
-            File outputDirectory = commandLineArguments.getOutputDirectory();
-            Objects.requireNonNull(outputDirectory);
-            String schema = commandLineArguments.getSchema();
-            return analyze(
-                    schema,
-                    config,
-                    outputDirectory,
-                    databaseServiceFactory.simple(config),
-                    progressListener
-            );
-        }
+        return progressListener;
     }
 
     public Database analyzeMultipleSchemas(
@@ -150,8 +169,9 @@ public class SchemaAnalyzer {
             List<String> schemas = config.getSchemas();
             Database db = null;
             String schemaSpec = config.getSchemaSpec();
-            Connection connection = new DbDriverLoader().getConnection(config);
-            DatabaseMetaData meta = connection.getMetaData();
+            // schemas analyzed at the same time share one pool, each holding a connection and leasing others
+            sqlService.connect(config, config.getMaxPooledConnections());
+            DatabaseMetaData meta = sqlService.getDatabaseMetaData();
             //-all(evaluteAll) given then get list of the database schemas
             if (schemas == null || config.isEvaluateAllEnabled()) {
                 if (schemaSpec == null)
@@ -176,20 +196,30 @@ public class SchemaAnalyzer {
 
             List<MustacheSchema> mustacheSchemas = new ArrayList<>();
             MustacheCatalog mustacheCatalog = null;
-            for (String schema : schemas) {
-                // reset -all(evaluteAll) and -schemas parameter to avoid infinite loop! now we are analyzing single schema
-                config.setSchemas(null);
-                config.setEvaluateAllEnabled(false);
-                if (dbName == null)
-                    config.setDb(schema);
-
-                LOGGER.info("Analyzing '{}'", schema);
-                File outputDirForSchema = new File(outputDir, new FileNameGenerator(schema).value());
-                db = this.analyze(schema, config, outputDirForSchema, databaseService, progressListener);
-                if (db == null) //if any of analysed schema returns null
-                    return null;
-                mustacheSchemas.add(new MustacheSchema(db.getSchema(), ""));
-                mustacheCatalog = new MustacheCatalog(db.getCatalog(), "");
+            if (config.getMaxSchemaThreads() > 1 && schemas.size() > 1) {
+                for (Database analyzed : analyzeConcurrently(schemas, config, dbName, outputDir)) {
+                    if (analyzed == null) //if any of analysed schema returns null
+                        return null;
+                    db = analyzed;
+                    mustacheSchemas.add(new MustacheSchema(db.getSchema(), ""));
+                    mustacheCatalog = new MustacheCatalog(db.getCatalog(), "");
+                }
+            } else {
+                for (String schema : schemas) {
+                    // reset -all(evaluteAll) and -schemas parameter to avoid infinite loop! now we are analyzing single schema
+                    config.setSchemas(null);
+                    config.setEvaluateAllEnabled(false);
+                    if (dbName == null)
+                        config.setDb(schema);
+
+                    LOGGER.info("Analyzing '{}'", schema);
+                    File outputDirForSchema = new File(outputDir, new FileNameGenerator(schema).value());
+                    db = this.analyze(schema, config, outputDirForSchema, databaseService, progressListener);
+                    if (db == null) //if any of analysed schema returns null
+                        return null;
+                    mustacheSchemas.add(new MustacheSchema(db.getSchema(), ""));
+                    mustacheCatalog = new MustacheCatalog(db.getCatalog(), "");
+                }
             }
 
             new Jar(layoutFolder.url(), outputDir, notHtml()).copyJarResourceToPath();
@@ -207,6 +237,93 @@ public class SchemaAnalyzer {
         }
     }
 
+    /**
+     * Analyze <code>schemas</code> with up to <code>-schemaThreads</code> of them at the same time.
+     * Each schema gets its own copy of <code>config</code> and its own connection(s) from the shared pool,
+     * the databases are returned in the same order as <code>schemas</code>.
+     * Database types whose url names the schema can't use the shared pool, each of those schemas
+     * connects on its own with up to {@link Config#getMaxDbConnections()} connections instead.
+     */
+    private List<Database> analyzeConcurrently(List<String> schemas, Config config, String dbName, File outputDir) throws SQLException, IOException {
+        int schemaThreads = Math.min(config.getMaxSchemaThreads(), schemas.size());
+        LOGGER.info("Analyzing {} schemas at a time", schemaThreads);
+        ExecutorService executorService = Executors.newFixedThreadPool(schemaThreads);
+        try {
+            List<Future<Database>> futures = new ArrayList<>(schemas.size());
+            boolean connectingPerSchema = false;
+            for (String schema : schemas) {
+                // a copy per schema since -db etc. differs between them
+                Config schemaConfig = new Config(config);
+                schemaConfig.setSchemas(null);
+                schemaConfig.setEvaluateAllEnabled(false);
+                if (dbName == null)
+                    schemaConfig.setDb(schema);
+                File outputDirForSchema = new File(outputDir, new FileNameGenerator(schema).value());
+
+                boolean shared = sqlService.isConnectedTo(schemaConfig);
+                if (!shared && !connectingPerSchema) {
+                    LOGGER.info("Connections can't be shared between schemas of this database type, connecting per schema");
+                    connectingPerSchema = true;
+                }
+
+                futures.add(executorService.submit(() -> {
+                    LOGGER.info("Analyzing '{}'", schema);
+                    SqlService schemaSqlService = shared ? sqlService.share(schemaConfig.getMaxDbThreads() > 1) : connect(schemaConfig);
+                    try {
+                        return analyze(
+                                schema,
+                                schemaConfig,
+                                outputDirForSchema,
+                                new DatabaseServiceFactory(schemaSqlService).simple(schemaConfig),
+                                newProgressListener(),
+                                schemaSqlService
+                        );
+                    } finally {
+                        schemaSqlService.close();
+                    }
+                }));
+            }
+
+            List<Database> databases = new ArrayList<>(futures.size());
+            for (Future<Database> future : futures) {
+                databases.add(future.get());
+            }
+            return databases;
+        } catch (InterruptedException interrupted) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while analyzing schemas", interrupted);
+        } catch (ExecutionException executionException) {
+            Throwable cause = executionException.getCause();
+            if (cause instanceof SQLException) {
+                throw (SQLException) cause;
+            }
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new IllegalStateException("Failed to analyze schema", cause);
+        } finally {
+            executorService.shutdownNow();
+        }
+    }
+
+    /**
+     * A connection of its own for a schema that can't use the shared pool,
+     * with a pool of its own for the threads that lease connections like when sharing
+     */
+    private static SqlService connect(Config schemaConfig) throws IOException, SQLException {
+        SqlService schemaSqlService = new SqlService();
+        try {
+            schemaSqlService.connect(schemaConfig);
+        } catch (IOException | SQLException | RuntimeException failure) {
+            schemaSqlService.close();
+            throw failure;
+        }
+        return schemaSqlService;
+    }
+
     /**
      * Copy / paste from Database, but we can't use Database here...
      *
@@ -227,6 +344,17 @@ public class SchemaAnalyzer {
             File outputDir,
             DatabaseService databaseService,
             ProgressListener progressListener
+    ) throws SQLException, IOException {
+        return analyze(schema, config, outputDir, databaseService, progressListener, sqlService);
+    }
+
+    private Database analyze(
+            String schema,
+            Config config,
+            File outputDir,
+            DatabaseService databaseService,
+            ProgressListener progressListener,
+            SqlService sqlService
     ) throws SQLException, IOException {
         try {
             LOGGER.info("Starting schema analysis");
@@ -263,8 +391,15 @@ public class SchemaAnalyzer {
             // create our representation of the database
             //
             Database db = new Database(dbmsMeta, dbName, catalog, schema);
-            databaseService.gatherSchemaDetails(db, schemaMeta, progressListener);
-
+            if (config.isSnapshotEnabled()) {
+                SnapshotStore snapshotStore = new SnapshotStore(new File(outputDir, SnapshotStore.FILE_NAME));
+                Snapshot snapshot = snapshotStore.read(db);
+                databaseService.gatherSchemaDetails(db, schemaMeta, snapshot, progressListener);
+                snapshotStore.write(db, snapshot);
+            } else {
+                databaseService.gatherSchemaDetails(db, schemaMeta, progressListener);
+            }
+            writeCallStatistics(sqlService, outputDir);
 
             Collection<Table> tables = new ArrayList<>(db.getTables());
             tables.addAll(db.getViews());
@@ -275,55 +410,103 @@ public class SchemaAnalyzer {
                     throw new EmptySchemaException();
             }
 
-            long duration = progressListener.startedGraphingSummaries();
-            if (commandLineArguments.isHtmlEnabled()) {
-                generateHtmlDoc(
-                        config,
-                        commandLineArguments.useVizJS(),
-                        progressListener,
-                        outputDir,
-                        db,
-                        duration,
-                        tables
-                );
-            }
+            return produceOutput(config, outputDir, db, tables, progressListener);
+        } catch (Config.MissingRequiredParameterException missingParam) {
+            config.dumpUsage(missingParam.getMessage(), missingParam.isDbTypeSpecific());
+            return null;
+        }
+    }
 
-            try {
-                outputProducer.generate(db, outputDir);
-            } catch (OutputException oe) {
-                if (config.isOneOfMultipleSchemas()) {
-                    LOGGER.warn("Failed to produce output", oe);
-                } else {
-                    throw oe;
-                }
-            }
+    /**
+     * Write what <code>-jdbcStats</code> recorded while gathering the schema next to <code>info-html.txt</code>
+     */
+    private static void writeCallStatistics(SqlService sqlService, File outputDir) throws IOException {
+        Optional<CallStatistics> callStatistics = sqlService.getCallStatistics();
+        if (callStatistics.isPresent()) {
+            callStatistics.get().write(outputDir);
+            LOGGER.info("Wrote statistics of jdbc calls to {}", new File(outputDir, CallStatistics.JSON_FILE_NAME));
+        }
+    }
+
+    /**
+     * Analyze the model exported to xml by a previous run, without connecting to the database
+     */
+    private Database analyzeModel(Config config, File modelFile, ProgressListener progressListener) throws IOException {
+        LOGGER.info("Starting analysis of model {}", modelFile);
 
-            List<ForeignKeyConstraint> recursiveConstraints = new ArrayList<>();
+        File outputDir = commandLineArguments.getOutputDirectory();
+        Objects.requireNonNull(outputDir);
+        FileUtils.forceMkdir(outputDir);
+        if (commandLineArguments.isHtmlEnabled()) {
+            FileUtils.forceMkdir(new File(outputDir, "tables"));
+            FileUtils.forceMkdir(new File(outputDir, "diagrams/summary"));
+        }
 
-            // create an orderer to be able to determine insertion and deletion ordering of tables
-            TableOrderer orderer = new TableOrderer();
+        Database db = new XmlModelReader(config.getColumnExclusions(), config.getIndirectColumnExclusions()).read(modelFile);
 
-            // side effect is that the RI relationships get trashed
-            // also populates the recursiveConstraints collection
-            List<Table> orderedTables = orderer.getTablesOrderedByRI(db.getTables(), recursiveConstraints);
+        Collection<Table> tables = new ArrayList<>(db.getTables());
+        tables.addAll(db.getViews());
 
-            new OrderingReport(outputDir, orderedTables).write();
+        if (tables.isEmpty()) {
+            LOGGER.warn("No tables or views were found in model {}", modelFile);
+            throw new EmptySchemaException();
+        }
 
-            duration = progressListener.finishedGatheringDetails();
-            long overallDuration = progressListener.finished(tables);
+        return produceOutput(config, outputDir, db, tables, progressListener);
+    }
 
-            if (commandLineArguments.isHtmlEnabled()) {
-                LOGGER.info("Wrote table details in {} seconds", duration / SECONDS_IN_MS);
+    private Database produceOutput(
+            Config config,
+            File outputDir,
+            Database db,
+            Collection<Table> tables,
+            ProgressListener progressListener
+    ) throws IOException {
+        long duration = progressListener.startedGraphingSummaries();
+        if (commandLineArguments.isHtmlEnabled()) {
+            generateHtmlDoc(
+                    config,
+                    commandLineArguments.useVizJS(),
+                    progressListener,
+                    outputDir,
+                    db,
+                    duration,
+                    tables
+            );
+        }
 
-                LOGGER.info("Wrote relationship details of {} tables/views to directory '{}' in {} seconds.", tables.size(), outputDir, overallDuration / SECONDS_IN_MS);
-                LOGGER.info("View the results by opening {}", new File(outputDir, INDEX_DOT_HTML));
+        try {
+            outputProducer.generate(db, outputDir);
+        } catch (OutputException oe) {
+            if (config.isOneOfMultipleSchemas()) {
+                LOGGER.warn("Failed to produce output", oe);
+            } else {
+                throw oe;
             }
+        }
 
-            return db;
-        } catch (Config.MissingRequiredParameterException missingParam) {
-            config.dumpUsage(missingParam.getMessage(), missingParam.isDbTypeSpecific());
-            return null;
+        List<ForeignKeyConstraint> recursiveConstraints = new ArrayList<>();
+
+        // create an orderer to be able to determine insertion and deletion ordering of tables
+        TableOrderer orderer = new TableOrderer();
+
+        // side effect is that the RI relationships get trashed
+        // also populates the recursiveConstraints collection
+        List<Table> orderedTables = orderer.getTablesOrderedByRI(db.getTables(), recursiveConstraints);
+
+        new OrderingReport(outputDir, orderedTables).write();
+
+        duration = progressListener.finishedGatheringDetails();
+        long overallDuration = progressListener.finished(tables);
+
+        if (commandLineArguments.isHtmlEnabled()) {
+            LOGGER.info("Wrote table details in {} seconds", duration / SECONDS_IN_MS);
+
+            LOGGER.info("Wrote relationship details of {} tables/views to directory '{}' in {} seconds.", tables.size(), outputDir, overallDuration / SECONDS_IN_MS);
+            LOGGER.info("View the results by opening {}", new File(outputDir, INDEX_DOT_HTML));
         }
+
+        return db;
     }
 
     private void generateHtmlDoc(
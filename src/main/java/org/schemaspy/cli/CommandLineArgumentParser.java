@@ -116,7 +116,7 @@ public class CommandLineArgumentParser {
 
     private static List<String> computeRequiredFields(CommandLineArguments arguments) {
         List<String> computedRequiredFields = new ArrayList<>(Arrays.asList(requiredFields));
-        if (!arguments.isSingleSignOn()) {
+        if (!arguments.isSingleSignOn() && Objects.isNull(arguments.getModel())) {
             computedRequiredFields.add("user");
         }
         return computedRequiredFields;
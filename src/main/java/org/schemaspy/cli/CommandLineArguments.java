@@ -134,6 +134,15 @@ public class CommandLineArguments {
     )
     private String schemaMeta;
 
+    @Parameter(
+            names = {
+                    "-model", "--model",
+                    "schemaspy.model"
+            },
+            descriptionKey = "model"
+    )
+    private File model;
+
     @Parameter(
             names = {
                     "-sso","--single-sign-on",
@@ -466,6 +475,10 @@ public class CommandLineArguments {
         return schemaMeta;
     }
 
+    public File getModel() {
+        return model;
+    }
+
     public Integer getPort() {
         return port;
     }
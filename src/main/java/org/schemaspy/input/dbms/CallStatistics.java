@@ -0,0 +1,187 @@
+package org.schemaspy.input.dbms;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.*;
+import java.util.stream.Collectors;
+
+/**
+ * Count, time and rows of the JDBC calls made while gathering a schema,
+ * per call (<code>DatabaseMetaData</code> method or sql property like <code>selectColumnsSql</code>) and table.
+ * <p>
+ * Written as <code>jdbc-calls.json</code>, summed per call with the tables that took longest,
+ * and as <code>jdbc-calls.csv</code> with a line per call and table.
+ */
+public class CallStatistics {
+
+    public static final String JSON_FILE_NAME = "jdbc-calls.json";
+    public static final String CSV_FILE_NAME = "jdbc-calls.csv";
+
+    private static final double NANOS_IN_MS = 1_000_000d;
+    private static final int TABLES_PER_CALL = 10;
+
+    private final Map<Key, Totals> calls = new HashMap<>();
+
+    /**
+     * @param call  name of the call, e.g. <code>getColumns</code> or <code>selectIndexesSql</code>
+     * @param table table the call was made for, <code>null</code> if for the whole schema or unknown
+     * @param nanos time spent in the driver executing the call and fetching its rows
+     * @param rows  number of rows fetched
+     * @param failed if the call threw
+     */
+    public synchronized void record(String call, String table, long nanos, long rows, boolean failed) {
+        calls.computeIfAbsent(new Key(call, table), key -> new Totals()).add(nanos, rows, failed);
+    }
+
+    public synchronized boolean isEmpty() {
+        return calls.isEmpty();
+    }
+
+    /**
+     * Write <code>jdbc-calls.json</code> and <code>jdbc-calls.csv</code> into <code>outputDir</code>
+     */
+    public void write(File outputDir) throws IOException {
+        Map<Key, Totals> recorded;
+        synchronized (this) {
+            recorded = new HashMap<>();
+            calls.forEach((key, totals) -> recorded.put(key, totals.copy()));
+        }
+        writeJson(recorded, new File(outputDir, JSON_FILE_NAME));
+        writeCsv(recorded, new File(outputDir, CSV_FILE_NAME));
+    }
+
+    private static void writeJson(Map<Key, Totals> recorded, File file) throws IOException {
+        Map<String, List<Map.Entry<Key, Totals>>> byCall = recorded.entrySet().stream()
+                .collect(Collectors.groupingBy(entry -> entry.getKey().call));
+
+        List<Map.Entry<String, Totals>> callTotals = new ArrayList<>();
+        byCall.forEach((call, entries) -> {
+            Totals sum = new Totals();
+            entries.forEach(entry -> sum.add(entry.getValue()));
+            callTotals.add(new AbstractMap.SimpleEntry<>(call, sum));
+        });
+        callTotals.sort(Comparator.comparing((Map.Entry<String, Totals> entry) -> entry.getValue().totalNanos).reversed());
+
+        JSONArray callsJson = new JSONArray();
+        for (Map.Entry<String, Totals> callTotal : callTotals) {
+            JSONObject callJson = callTotal.getValue().toJson();
+            callJson.put("call", callTotal.getKey());
+            JSONArray tablesJson = new JSONArray();
+            byCall.get(callTotal.getKey()).stream()
+                    .filter(entry -> Objects.nonNull(entry.getKey().table))
+                    .sorted(Comparator.comparing((Map.Entry<Key, Totals> entry) -> entry.getValue().totalNanos).reversed())
+                    .limit(TABLES_PER_CALL)
+                    .forEach(entry -> tablesJson.put(entry.getValue().toJson().put("table", entry.getKey().table)));
+            callJson.put("slowestTables", tablesJson);
+            callsJson.put(callJson);
+        }
+
+        try (Writer writer = Files.newBufferedWriter(file.toPath(), StandardCharsets.UTF_8)) {
+            writer.write(new JSONObject().put("calls", callsJson).toString(2));
+        }
+    }
+
+    private static void writeCsv(Map<Key, Totals> recorded, File file) throws IOException {
+        List<Map.Entry<Key, Totals>> entries = new ArrayList<>(recorded.entrySet());
+        entries.sort(Comparator.comparing((Map.Entry<Key, Totals> entry) -> entry.getKey().call)
+                .thenComparing(entry -> Objects.toString(entry.getKey().table, "")));
+
+        try (PrintWriter writer = new PrintWriter(Files.newBufferedWriter(file.toPath(), StandardCharsets.UTF_8))) {
+            writer.println("call,table,count,totalMs,maxMs,rows,errors");
+            for (Map.Entry<Key, Totals> entry : entries) {
+                Totals totals = entry.getValue();
+                writer.println(String.join(",",
+                        csv(entry.getKey().call),
+                        csv(Objects.toString(entry.getKey().table, "")),
+                        String.valueOf(totals.count),
+                        millis(totals.totalNanos),
+                        millis(totals.maxNanos),
+                        String.valueOf(totals.rows),
+                        String.valueOf(totals.errors)));
+            }
+        }
+    }
+
+    private static String csv(String value) {
+        if (value.contains(",") || value.contains("\"") || value.contains("\n")) {
+            return '"' + value.replace("\"", "\"\"") + '"';
+        }
+        return value;
+    }
+
+    private static String millis(long nanos) {
+        return String.format(Locale.ROOT, "%.3f", nanos / NANOS_IN_MS);
+    }
+
+    private static final class Key {
+        private final String call;
+        private final String table;
+
+        private Key(String call, String table) {
+            this.call = call;
+            this.table = table;
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            if (this == other)
+                return true;
+            if (!(other instanceof Key))
+                return false;
+            Key key = (Key) other;
+            return call.equals(key.call) && Objects.equals(table, key.table);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(call, table);
+        }
+    }
+
+    private static final class Totals {
+        private long count;
+        private long totalNanos;
+        private long maxNanos;
+        private long rows;
+        private long errors;
+
+        private void add(long nanos, long fetched, boolean failed) {
+            ++count;
+            totalNanos += nanos;
+            maxNanos = Math.max(maxNanos, nanos);
+            rows += fetched;
+            if (failed)
+                ++errors;
+        }
+
+        private void add(Totals other) {
+            count += other.count;
+            totalNanos += other.totalNanos;
+            maxNanos = Math.max(maxNanos, other.maxNanos);
+            rows += other.rows;
+            errors += other.errors;
+        }
+
+        private Totals copy() {
+            Totals copy = new Totals();
+            copy.add(this);
+            return copy;
+        }
+
+        private JSONObject toJson() {
+            return new JSONObject()
+                    .put("count", count)
+                    .put("totalMs", Double.parseDouble(millis(totalNanos)))
+                    .put("maxMs", Double.parseDouble(millis(maxNanos)))
+                    .put("rows", rows)
+                    .put("errors", errors);
+        }
+    }
+}
@@ -0,0 +1,130 @@
+package org.schemaspy.input.dbms;
+
+import org.schemaspy.input.dbms.exceptions.ConnectionFailure;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * Bounded pool of connections, used so that each thread gathering metadata
+ * can work on a connection of its own instead of sharing a single one.
+ * <p>
+ * Connections are created lazily up to <code>maxConnections</code>.
+ * If the database refuses to hand out more connections the pool settles
+ * for the ones it already has.
+ */
+public class ConnectionPool implements AutoCloseable {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
+
+    private final ConnectionSupplier connectionSupplier;
+    private final Deque<Connection> idle = new ArrayDeque<>();
+    private final List<Connection> created = new ArrayList<>();
+    private int maxConnections;
+    private int pending = 0;
+    private boolean closed = false;
+
+    public ConnectionPool(ConnectionSupplier connectionSupplier, int maxConnections) {
+        this.connectionSupplier = connectionSupplier;
+        this.maxConnections = Math.max(1, maxConnections);
+    }
+
+    /**
+     * Borrow a connection, waiting for one to be released if the pool is exhausted.
+     * Connections must be handed back using {@link #release(Connection)}.
+     */
+    public Connection borrow() throws SQLException {
+        synchronized (this) {
+            while (true) {
+                if (closed) {
+                    throw new SQLException("Connection pool has been closed");
+                }
+                if (!idle.isEmpty()) {
+                    return idle.pop();
+                }
+                if (created.size() + pending < maxConnections) {
+                    pending++;
+                    break;
+                }
+                try {
+                    wait();
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    throw new SQLException("Interrupted while waiting for a connection", interrupted);
+                }
+            }
+        }
+        return createConnection();
+    }
+
+    private Connection createConnection() throws SQLException {
+        Connection connection;
+        try {
+            connection = connectionSupplier.get();
+        } catch (IOException | ConnectionFailure failure) {
+            synchronized (this) {
+                pending--;
+                notifyAll();
+                if (created.isEmpty()) {
+                    throw new SQLException("Failed to create pooled connection", failure);
+                }
+                LOGGER.warn("Failed to open more than {} connections, continuing with those", created.size(), failure);
+                maxConnections = created.size();
+            }
+            return borrow();
+        }
+        synchronized (this) {
+            pending--;
+            created.add(connection);
+        }
+        return connection;
+    }
+
+    /**
+     * Hand a borrowed connection back to the pool.
+     */
+    public synchronized void release(Connection connection) {
+        if (closed) {
+            closeQuietly(connection);
+        } else {
+            idle.push(connection);
+        }
+        notifyAll();
+    }
+
+    public synchronized int size() {
+        return created.size();
+    }
+
+    @Override
+    public synchronized void close() {
+        closed = true;
+        idle.clear();
+        created.forEach(ConnectionPool::closeQuietly);
+        created.clear();
+        notifyAll();
+    }
+
+    private static void closeQuietly(Connection connection) {
+        try {
+            if (!connection.isClosed()) {
+                connection.close();
+            }
+        } catch (SQLException sqlException) {
+            LOGGER.debug("Failed to close pooled connection", sqlException);
+        }
+    }
+
+    @FunctionalInterface
+    public interface ConnectionSupplier {
+        Connection get() throws IOException;
+    }
+}
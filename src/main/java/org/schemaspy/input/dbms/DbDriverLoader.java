@@ -40,6 +40,7 @@ import java.nio.file.Paths;
 import java.sql.Connection;
 import java.sql.Driver;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -53,11 +54,18 @@ import java.util.stream.Stream;
 public class DbDriverLoader {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
-    private static Map<String, Driver> driverCache = new HashMap<>();
+    private static final Map<String, Driver> driverCache = new ConcurrentHashMap<>();
 
     private boolean loadJDBCJars = false;
 
 
+    /**
+     * @return the url that {@link #getConnection(Config)} connects to for <code>config</code>
+     */
+    public String getConnectionURL(Config config) {
+        return new ConnectionURLBuilder(config, config.getDbProperties()).build();
+    }
+
     public Connection getConnection(Config config) throws IOException {
         Properties properties = config.getDbProperties();
 
@@ -0,0 +1,254 @@
+package org.schemaspy.input.dbms;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.*;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Wraps connections, <code>DatabaseMetaData</code> and statements in proxies that record
+ * every query and metadata call in {@link CallStatistics}: how often it was made, how long
+ * the driver took executing it and fetching its rows, and how many rows it returned.
+ * <p>
+ * Metadata calls are named after their method and attributed to their table argument,
+ * statements are named after the sql property they were prepared from.
+ */
+public class JdbcInstrumentation {
+
+    private static final String UNNAMED_SQL = "sql";
+
+    private final CallStatistics statistics;
+    private final Map<String, String> callNames;
+    private final Map<Connection, Connection> connections = new IdentityHashMap<>();
+    private final Map<DatabaseMetaData, DatabaseMetaData> metaData = new IdentityHashMap<>();
+
+    /**
+     * @param callNames name of the sql property, like <code>selectColumnsSql</code>, by its sql
+     */
+    public JdbcInstrumentation(CallStatistics statistics, Map<String, String> callNames) {
+        this.statistics = Objects.requireNonNull(statistics);
+        this.callNames = Objects.requireNonNull(callNames);
+    }
+
+    public CallStatistics getStatistics() {
+        return statistics;
+    }
+
+    /**
+     * The instrumented counterpart of <code>connection</code>, the same one every time
+     */
+    public synchronized Connection connection(Connection connection) {
+        if (Objects.isNull(connection) || Proxy.isProxyClass(connection.getClass()) && Proxy.getInvocationHandler(connection) instanceof ConnectionHandler) {
+            return connection;
+        }
+        return connections.computeIfAbsent(connection, raw -> proxy(Connection.class, new ConnectionHandler(raw)));
+    }
+
+    /**
+     * The instrumented counterpart of <code>databaseMetaData</code>, the same one every time
+     */
+    public synchronized DatabaseMetaData metaData(DatabaseMetaData databaseMetaData) {
+        if (Objects.isNull(databaseMetaData) || Proxy.isProxyClass(databaseMetaData.getClass()) && Proxy.getInvocationHandler(databaseMetaData) instanceof MetaDataHandler) {
+            return databaseMetaData;
+        }
+        return metaData.computeIfAbsent(databaseMetaData, raw -> proxy(DatabaseMetaData.class, new MetaDataHandler(raw)));
+    }
+
+    /**
+     * Record the queries of <code>statement</code>, prepared from <code>sql</code>, for <code>table</code>
+     */
+    public PreparedStatement statement(PreparedStatement statement, String sql, String table) {
+        return proxy(PreparedStatement.class, new StatementHandler(statement, callName(sql), table));
+    }
+
+    /**
+     * Forget the connections, called when they're closed
+     */
+    public synchronized void clear() {
+        connections.clear();
+        metaData.clear();
+    }
+
+    private String callName(String sql) {
+        return Objects.isNull(sql) ? UNNAMED_SQL : callNames.getOrDefault(sql, UNNAMED_SQL);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T proxy(Class<T> type, InvocationHandler handler) {
+        return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, handler);
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException invocationTargetException) {
+            throw invocationTargetException.getCause();
+        }
+    }
+
+    private final class ConnectionHandler implements InvocationHandler {
+        private final Connection connection;
+
+        private ConnectionHandler(Connection connection) {
+            this.connection = connection;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            Object result = JdbcInstrumentation.invoke(connection, method, args);
+            if (result instanceof CallableStatement) {
+                return result;
+            }
+            if (result instanceof PreparedStatement) {
+                return statement((PreparedStatement) result, (String) args[0], null);
+            }
+            if (result instanceof Statement) {
+                return proxy(Statement.class, new StatementHandler((Statement) result, UNNAMED_SQL, null));
+            }
+            if (result instanceof DatabaseMetaData) {
+                return metaData((DatabaseMetaData) result);
+            }
+            return result;
+        }
+    }
+
+    private final class MetaDataHandler implements InvocationHandler {
+        private final DatabaseMetaData databaseMetaData;
+
+        private MetaDataHandler(DatabaseMetaData databaseMetaData) {
+            this.databaseMetaData = databaseMetaData;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            if (!ResultSet.class.equals(method.getReturnType())) {
+                Object result = JdbcInstrumentation.invoke(databaseMetaData, method, args);
+                return result instanceof Connection ? connection((Connection) result) : result;
+            }
+            // the table is the third argument of getColumns, getImportedKeys, getIndexInfo etc.
+            String table = Objects.nonNull(args) && args.length > 2 && args[2] instanceof String ? (String) args[2] : null;
+            return execute(databaseMetaData, method, args, method.getName(), table);
+        }
+    }
+
+    private final class StatementHandler implements InvocationHandler {
+        private final Statement statement;
+        private final String call;
+        private final String table;
+
+        private StatementHandler(Statement statement, String call, String table) {
+            this.statement = statement;
+            this.call = call;
+            this.table = table;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "executeQuery":
+                    String name = Objects.nonNull(args) && args.length > 0 ? callName((String) args[0]) : call;
+                    return execute(statement, method, args, name, table);
+                case "getResultSet":
+                    return execute(statement, method, args, call, table);
+                case "execute":
+                case "executeUpdate":
+                case "executeLargeUpdate":
+                case "executeBatch":
+                    long started = System.nanoTime();
+                    boolean failed = true;
+                    try {
+                        Object result = JdbcInstrumentation.invoke(statement, method, args);
+                        failed = false;
+                        return result;
+                    } finally {
+                        statistics.record(call, table, System.nanoTime() - started, 0, failed);
+                    }
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                default:
+                    return JdbcInstrumentation.invoke(statement, method, args);
+            }
+        }
+    }
+
+    /**
+     * Invoke <code>method</code> that returns a <code>ResultSet</code>, which records the call once it's read or closed
+     */
+    private Object execute(Object target, Method method, Object[] args, String call, String table) throws Throwable {
+        long started = System.nanoTime();
+        ResultSet resultSet;
+        try {
+            resultSet = (ResultSet) JdbcInstrumentation.invoke(target, method, args);
+        } catch (Throwable failure) {
+            statistics.record(call, table, System.nanoTime() - started, 0, true);
+            throw failure;
+        }
+        if (Objects.isNull(resultSet)) {
+            statistics.record(call, table, System.nanoTime() - started, 0, false);
+            return null;
+        }
+        return proxy(ResultSet.class, new ResultSetHandler(resultSet, call, table, System.nanoTime() - started));
+    }
+
+    private final class ResultSetHandler implements InvocationHandler {
+        private final ResultSet resultSet;
+        private final String call;
+        private final String table;
+        private long nanos;
+        private long rows = 0;
+        private boolean failed = false;
+        private boolean recorded = false;
+
+        private ResultSetHandler(ResultSet resultSet, String call, String table, long nanos) {
+            this.resultSet = resultSet;
+            this.call = call;
+            this.table = table;
+            this.nanos = nanos;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "next":
+                    long started = System.nanoTime();
+                    boolean hasNext;
+                    try {
+                        hasNext = (Boolean) JdbcInstrumentation.invoke(resultSet, method, args);
+                    } catch (Throwable failure) {
+                        failed = true;
+                        throw failure;
+                    } finally {
+                        nanos += System.nanoTime() - started;
+                    }
+                    if (hasNext) {
+                        ++rows;
+                    } else {
+                        record();
+                    }
+                    return hasNext;
+                case "close":
+                    record();
+                    return JdbcInstrumentation.invoke(resultSet, method, args);
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                default:
+                    return JdbcInstrumentation.invoke(resultSet, method, args);
+            }
+        }
+
+        private void record() {
+            if (!recorded) {
+                recorded = true;
+                statistics.record(call, table, nanos, rows, failed);
+            }
+        }
+    }
+}
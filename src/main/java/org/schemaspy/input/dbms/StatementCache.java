@@ -0,0 +1,177 @@
+package org.schemaspy.input.dbms;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.*;
+
+/**
+ * Keeps prepared statements open per connection so that sql executed once per table
+ * is only prepared, and parsed by the database, once per connection.
+ * <p>
+ * Statements handed out are wrappers whose {@link PreparedStatement#close()} returns the statement
+ * to the cache instead of closing it, so callers keep using try-with-resources as usual.
+ * A statement is only handed out to one caller at a time, and one that failed is closed instead of reused.
+ */
+public class StatementCache implements AutoCloseable {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
+
+    private final int maxStatementsPerConnection;
+    private final Map<Connection, Map<String, PreparedStatement>> idle = new IdentityHashMap<>();
+    private boolean closed = false;
+
+    public StatementCache(int maxStatementsPerConnection) {
+        this.maxStatementsPerConnection = maxStatementsPerConnection;
+    }
+
+    /**
+     * Prepare <code>sql</code> on <code>connection</code>, reusing an idle statement if there is one
+     */
+    public PreparedStatement prepareStatement(Connection connection, String sql) throws SQLException {
+        PreparedStatement statement = take(connection, sql);
+        if (Objects.isNull(statement)) {
+            statement = connection.prepareStatement(sql);
+        }
+        return (PreparedStatement) Proxy.newProxyInstance(
+                PreparedStatement.class.getClassLoader(),
+                new Class<?>[]{PreparedStatement.class},
+                new Reusable(connection, sql, statement)
+        );
+    }
+
+    private synchronized PreparedStatement take(Connection connection, String sql) throws SQLException {
+        Map<String, PreparedStatement> statements = idle.get(connection);
+        if (Objects.isNull(statements)) {
+            return null;
+        }
+        PreparedStatement statement = statements.remove(sql);
+        if (Objects.nonNull(statement) && statement.isClosed()) {
+            return null;
+        }
+        return statement;
+    }
+
+    private void release(Connection connection, String sql, PreparedStatement statement) {
+        PreparedStatement evicted = statement;
+        synchronized (this) {
+            if (!closed) {
+                Map<String, PreparedStatement> statements = idle.computeIfAbsent(connection, c -> new LinkedHashMap<>(16, 0.75f, true));
+                if (!statements.containsKey(sql)) {
+                    statements.put(sql, statement);
+                    evicted = null;
+                    if (statements.size() > maxStatementsPerConnection) {
+                        Iterator<PreparedStatement> eldest = statements.values().iterator();
+                        evicted = eldest.next();
+                        eldest.remove();
+                    }
+                }
+            }
+        }
+        if (Objects.nonNull(evicted)) {
+            closeQuietly(evicted);
+        }
+    }
+
+    /**
+     * Close the idle statements of <code>connection</code>, should be called before it's closed
+     */
+    public void closeStatements(Connection connection) {
+        Map<String, PreparedStatement> statements;
+        synchronized (this) {
+            statements = idle.remove(connection);
+        }
+        if (Objects.nonNull(statements)) {
+            statements.values().forEach(StatementCache::closeQuietly);
+        }
+    }
+
+    /**
+     * Close all idle statements, statements in use are closed when they're handed back
+     */
+    @Override
+    public void close() {
+        List<Map<String, PreparedStatement>> statements;
+        synchronized (this) {
+            closed = true;
+            statements = new ArrayList<>(idle.values());
+            idle.clear();
+        }
+        statements.forEach(perConnection -> perConnection.values().forEach(StatementCache::closeQuietly));
+    }
+
+    private static void closeQuietly(PreparedStatement statement) {
+        try {
+            statement.close();
+        } catch (SQLException sqlException) {
+            LOGGER.debug("Failed to close cached statement", sqlException);
+        }
+    }
+
+    private final class Reusable implements InvocationHandler {
+        private final Connection connection;
+        private final String sql;
+        private final PreparedStatement statement;
+        private boolean handedBack = false;
+        private boolean failed = false;
+
+        private Reusable(Connection connection, String sql, PreparedStatement statement) {
+            this.connection = connection;
+            this.sql = sql;
+            this.statement = statement;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close":
+                    handBack();
+                    return null;
+                case "isClosed":
+                    return handedBack || statement.isClosed();
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return statement.toString();
+                default:
+                    if (handedBack) {
+                        throw new SQLException("Statement is closed");
+                    }
+                    try {
+                        return method.invoke(statement, args);
+                    } catch (InvocationTargetException invocationTargetException) {
+                        failed = true;
+                        throw invocationTargetException.getCause();
+                    }
+            }
+        }
+
+        private void handBack() {
+            if (handedBack) {
+                return;
+            }
+            handedBack = true;
+            if (failed) {
+                closeQuietly(statement);
+                return;
+            }
+            try {
+                statement.clearParameters();
+                release(connection, sql, statement);
+            } catch (SQLException sqlException) {
+                LOGGER.debug("Failed to reset statement, closing it instead", sqlException);
+                closeQuietly(statement);
+            }
+        }
+    }
+}
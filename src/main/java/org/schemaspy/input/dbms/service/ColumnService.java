@@ -18,14 +18,17 @@
  */
 package org.schemaspy.input.dbms.service;
 
+import org.schemaspy.input.dbms.snapshot.TableSnapshot;
+import org.schemaspy.model.Database;
 import org.schemaspy.model.Table;
 import org.schemaspy.model.TableColumn;
+import org.schemaspy.util.CaseInsensitiveMap;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.lang.invoke.MethodHandles;
 import java.sql.*;
-import java.util.Objects;
+import java.util.*;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 
@@ -33,36 +36,182 @@ public class ColumnService {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
 
+    private static final String SELECT_AUTO_INCREMENT_COLUMNS_SQL = "selectAutoIncrementColumnsSql";
+
     private final SqlService sqlService;
     private final Pattern excludeIndirectColumns;
     private final Pattern excludeColumns;
+    private final Properties dbProperties;
+    // quoted first, it works for names of any case
+    private final StrategyOrder<Boolean> autoUpdateQuoting = new StrategyOrder<>(Arrays.asList(true, false));
 
-    public ColumnService(SqlService sqlService, Pattern excludeIndirectColumns, Pattern excludeColumns) {
+    public ColumnService(SqlService sqlService, Pattern excludeIndirectColumns, Pattern excludeColumns, Properties dbProperties) {
         this.sqlService = sqlService;
         this.excludeIndirectColumns = excludeIndirectColumns;
         this.excludeColumns = excludeColumns;
+        this.dbProperties = dbProperties;
     }
 
     public void gatherColumns(Table table) throws SQLException {
         initColumns(table);
-        if (!(table.isView() || table.isRemote())) {
-            initColumnAutoUpdate(table, true);
+        gatherColumnDetails(table);
+    }
+
+    /**
+     * Gathers the column details that aren't part of the columns themselves,
+     * used when the columns have been gathered with {@link #gatherColumns(Database, Collection)}.
+     */
+    public void gatherColumnDetails(Table table) {
+        if (!(table.isView() || table.isRemote() || dbProperties.containsKey(SELECT_AUTO_INCREMENT_COLUMNS_SQL))) {
+            initColumnAutoUpdate(table);
         }
     }
 
     /**
-     * @throws SQLException
+     * Counterpart of {@link #gatherColumns(Table)} for a table that hasn't changed since
+     * <code>tableSnapshot</code>, creates the columns from the snapshot instead of the database.
      */
-    private void initColumns(Table table) throws SQLException {
-        synchronized (Table.class) {
-            try (ResultSet rs = sqlService.getDatabaseMetaData().getColumns(table.getCatalog(), table.getSchema(), table.getName(), "%")) {
-                while (rs.next())
-                    addColumn(table, rs);
-            } catch (SQLException exc) {
-                if (!table.isLogical()) {
-                    throw new ColumnInitializationFailure(table, exc);
+    public void restoreColumns(Table table, TableSnapshot tableSnapshot) {
+        for (TableSnapshot.ColumnSnapshot columnSnapshot : tableSnapshot.getColumns()) {
+            TableColumn column = new TableColumn(table);
+            column.setName(columnSnapshot.getName());
+            column.setId(columnSnapshot.getId());
+            column.setTypeName(columnSnapshot.getTypeName());
+            column.setType(columnSnapshot.getType());
+            column.setLength(columnSnapshot.getLength());
+            column.setDecimalDigits(columnSnapshot.getDecimalDigits());
+            column.setDetailedSize(columnSnapshot.getDetailedSize());
+            column.setNullable(columnSnapshot.isNullable());
+            column.setIsAutoUpdated(columnSnapshot.isAutoUpdated());
+            column.setDefaultValue(columnSnapshot.getDefaultValue());
+            column.setComments(columnSnapshot.getComments());
+
+            column.setAllExcluded(column.matches(excludeColumns));
+            column.setExcluded(column.isAllExcluded() || column.matches(excludeIndirectColumns));
+            table.getColumnsMap().put(column.getName(), column);
+        }
+    }
+
+    /**
+     * Counterpart of {@link #gatherColumnDetails(Table)} for a table that hasn't changed since
+     * <code>tableSnapshot</code>, takes the details from the snapshot instead of the database.
+     */
+    public void restoreColumnDetails(Table table, TableSnapshot tableSnapshot) {
+        if (dbProperties.containsKey(SELECT_AUTO_INCREMENT_COLUMNS_SQL)) {
+            // determined schema wide anyway
+            return;
+        }
+        for (TableSnapshot.ColumnSnapshot columnSnapshot : tableSnapshot.getColumns()) {
+            TableColumn column = table.getColumn(columnSnapshot.getName());
+            if (Objects.nonNull(column)) {
+                column.setIsAutoUpdated(columnSnapshot.isAutoUpdated());
+            }
+        }
+    }
+
+    /**
+     * Determines which columns are auto updated for all tables in one go using
+     * <code>selectAutoIncrementColumnsSql</code>, instead of probing each table with
+     * a <code>select * from table where 0 = 1</code>.
+     * Falls back to probing each table if the query fails.
+     */
+    public void initColumnAutoUpdate(Database db) {
+        String sql = dbProperties.getProperty(SELECT_AUTO_INCREMENT_COLUMNS_SQL);
+        if (Objects.isNull(sql)) {
+            return;
+        }
+        List<TableColumn> autoUpdated = new ArrayList<>();
+        try (PreparedStatement stmt = sqlService.prepareStatement(sql, db, null);
+             ResultSet rs = stmt.executeQuery()) {
+            while (rs.next()) {
+                Table table = db.getTablesMap().get(rs.getString("table_name"));
+                if (Objects.nonNull(table)) {
+                    TableColumn column = table.getColumn(rs.getString("column_name"));
+                    if (Objects.nonNull(column)) {
+                        autoUpdated.add(column);
+                    }
                 }
             }
+        } catch (SQLException sqlException) {
+            LOGGER.warn("Failed to determine auto increment columns using SQL '{}', will probe each table", sql, sqlException);
+            db.getTables().forEach(table -> initColumnAutoUpdate(table));
+            return;
+        }
+        autoUpdated.forEach(column -> column.setIsAutoUpdated(true));
+    }
+
+    /**
+     * Gathers the columns of all <code>tables</code> in one go instead of calling
+     * {@link DatabaseMetaData#getColumns(String, String, String, String)} once per table.
+     * Uses <code>selectColumnsSql</code> if specified, otherwise a single schema wide
+     * getColumns if <code>bulkColumns</code> is enabled.
+     *
+     * @return <code>true</code> if the columns were gathered, <code>false</code> if they still need to be gathered per table
+     */
+    public boolean gatherColumns(Database db, Collection<? extends Table> tables) {
+        if (tables.isEmpty()) {
+            return false;
+        }
+        Map<String, Table> tablesByName = new CaseInsensitiveMap<>();
+        tables.forEach(table -> tablesByName.put(table.getName(), table));
+
+        String sql = dbProperties.getProperty("selectColumnsSql");
+        if (Objects.nonNull(sql)) {
+            try (PreparedStatement stmt = sqlService.prepareStatement(sql, db, null);
+                 ResultSet rs = stmt.executeQuery()) {
+                addColumns(tablesByName, rs);
+                return true;
+            } catch (SQLException sqlException) {
+                LOGGER.warn("Failed to retrieve columns using SQL '{}', will retrieve them per table", sql, sqlException);
+                tables.forEach(table -> table.getColumnsMap().clear());
+            }
+        }
+
+        if (!Boolean.parseBoolean(dbProperties.getProperty("bulkColumns", "false"))) {
+            return false;
+        }
+
+        // tables in one schema normally share catalog and schema, but be safe and ask once per pair
+        Set<List<String>> containers = new LinkedHashSet<>();
+        tables.forEach(table -> containers.add(Arrays.asList(table.getCatalog(), table.getSchema())));
+        try {
+            for (List<String> container : containers) {
+                try (ResultSet rs = sqlService.getDatabaseMetaData().getColumns(container.get(0), container.get(1), "%", "%")) {
+                    sqlService.applyFetchSize(rs, "getColumns");
+                    addColumns(tablesByName, rs);
+                }
+            }
+            return true;
+        } catch (SQLException sqlException) {
+            LOGGER.warn("Failed to retrieve columns in bulk, will retrieve them per table", sqlException);
+            tables.forEach(table -> table.getColumnsMap().clear());
+            return false;
+        }
+    }
+
+    private void addColumns(Map<String, Table> tables, ResultSet rs) throws SQLException {
+        while (rs.next()) {
+            Table table = tables.get(rs.getString("TABLE_NAME"));
+            if (Objects.nonNull(table)) {
+                addColumn(table, rs);
+            }
+        }
+    }
+
+    /**
+     * Gathers the columns of <code>table</code> but none of their details, see {@link #gatherColumnDetails(Table)}
+     *
+     * @throws SQLException
+     */
+    void initColumns(Table table) throws SQLException {
+        try (ResultSet rs = sqlService.getDatabaseMetaData().getColumns(table.getCatalog(), table.getSchema(), table.getName(), "%")) {
+            sqlService.applyFetchSize(rs, "getColumns");
+            while (rs.next())
+                addColumn(table, rs);
+        } catch (SQLException exc) {
+            if (!table.isLogical()) {
+                throw new ColumnInitializationFailure(table, exc);
+            }
         }
     }
 
@@ -120,24 +269,49 @@ public class ColumnService {
         return column;
     }
 
+    /**
+     * Probes <code>table</code> with and without quoting its name, starting with the way that has worked
+     * for the previous tables.
+     */
+    private void initColumnAutoUpdate(Table table) {
+        Map<Boolean, SQLException> failures = new LinkedHashMap<>();
+        for (Boolean forceQuotes : autoUpdateQuoting.inOrder()) {
+            try {
+                initColumnAutoUpdate(table, forceQuotes);
+                autoUpdateQuoting.succeeded(forceQuotes);
+                return;
+            } catch (SQLException exc) {
+                autoUpdateQuoting.failed(forceQuotes);
+                failures.put(forceQuotes, exc);
+            }
+        }
+        if (!table.isLogical()) {
+            // don't completely choke just because we couldn't do this....
+            failures.forEach((forceQuotes, exc) -> {
+                LOGGER.warn("Failed to determine auto increment status: {}", exc.getMessage(), exc);
+                LOGGER.warn("SQL: {}", autoUpdateSql(table, forceQuotes));
+            });
+        }
+    }
+
+    private String autoUpdateSql(Table table, boolean forceQuotes) {
+        return "select * from " + sqlService.getQualifiedTableName(
+                table.getCatalog(),
+                table.getSchema(),
+                table.getName(),
+                forceQuotes) + " where 0 = 1";
+    }
+
     /**
      * @param forceQuotes
      * @throws SQLException
      */
-    private void initColumnAutoUpdate(Table table, boolean forceQuotes) {
+    private void initColumnAutoUpdate(Table table, boolean forceQuotes) throws SQLException {
         // we've got to get a result set with all the columns in it
         // so we can ask if the columns are auto updated
         // Ugh!!!  Should have been in DatabaseMetaData instead!!!
-        StringBuilder sql = new StringBuilder("select * from ");
-        String tableName=sqlService.getQualifiedTableName(
-            table.getCatalog(),
-            table.getSchema(),
-            table.getName(),
-            forceQuotes);
-        sql.append(tableName);
-
-        sql.append(" where 0 = 1");
-        try (PreparedStatement stmt = sqlService.getDatabaseMetaData().getConnection().prepareStatement(sql.toString());
+        String sql = autoUpdateSql(table, forceQuotes);
+        try (PreparedStatement stmt = sqlService.getDatabaseMetaData().getConnection().prepareStatement(sql);
              ResultSet rs = stmt.executeQuery()) {
 
             ResultSetMetaData rsMeta = rs.getMetaData();
@@ -145,20 +319,10 @@ public class ColumnService {
                 String columnName = rsMeta.getColumnName(i);
                 TableColumn column = getColumn(table, columnName);
                 if (Objects.isNull(column)) {
-                    throw new InconsistencyException("Column information from DatabaseMetaData differs from ResultSetMetaData, expected to find column named: '"+ columnName + "' in columns" + listColumns(table) +" of table: "+tableName);
+                    throw new InconsistencyException("Column information from DatabaseMetaData differs from ResultSetMetaData, expected to find column named: '"+ columnName + "' in columns" + listColumns(table) +" of table: "+table.getFullName());
                 }
                 column.setIsAutoUpdated(rsMeta.isAutoIncrement(i));
             }
-        } catch (SQLException exc) {
-            if (forceQuotes) {
-                if (!table.isLogical()) {
-                    // don't completely choke just because we couldn't do this....
-                    LOGGER.warn("Failed to determine auto increment status: {}", exc.getMessage(), exc);
-                    LOGGER.warn("SQL: {}", sql);
-                }
-            } else {
-                initColumnAutoUpdate(table, true);
-            }
         }
     }
 
@@ -0,0 +1,146 @@
+package org.schemaspy.input.dbms.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.invoke.MethodHandles;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * Limits how many tables are gathered at the same time.
+ * <p>
+ * A fixed limit always allows the same number of threads. An adaptive limit starts at one thread and
+ * works like TCP congestion control: it doubles while the average time per table of a round
+ * stays close to the best seen so far, then grows by one per round (additive increase),
+ * and shrinks when the time rises or gathering fails (multiplicative decrease).
+ * A round ends when as many tables as the limit allows have finished.
+ */
+final class ConcurrencyLimit {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
+
+    /**
+     * How much slower than the best round a round may be before the limit shrinks
+     */
+    private static final double LATENCY_TOLERANCE = 1.5;
+
+    private final int maxThreads;
+    private final boolean adaptive;
+    private final LongSupplier nanoTime;
+
+    private int limit;
+    private int inFlight = 0;
+    private int peak;
+    private boolean slowStart = true;
+    private int generation = 0;
+
+    private int completed = 0;
+    private long latencyNanos = 0;
+    private double bestLatencyNanos = Double.NaN;
+
+    private ConcurrencyLimit(int limit, int maxThreads, boolean adaptive, LongSupplier nanoTime) {
+        this.limit = limit;
+        this.peak = limit;
+        this.maxThreads = maxThreads;
+        this.adaptive = adaptive;
+        this.nanoTime = nanoTime;
+    }
+
+    static ConcurrencyLimit fixed(int threads) {
+        int max = Math.max(1, threads);
+        return new ConcurrencyLimit(max, max, false, System::nanoTime);
+    }
+
+    static ConcurrencyLimit adaptive(int maxThreads) {
+        return adaptive(maxThreads, System::nanoTime);
+    }
+
+    static ConcurrencyLimit adaptive(int maxThreads, LongSupplier nanoTime) {
+        return new ConcurrencyLimit(1, Math.max(1, maxThreads), true, nanoTime);
+    }
+
+    boolean isAdaptive() {
+        return adaptive;
+    }
+
+    /**
+     * Wait until another thread is allowed, the returned permit has to be released when it's done
+     */
+    synchronized Permit acquire() throws InterruptedException {
+        while (inFlight >= limit) {
+            wait();
+        }
+        ++inFlight;
+        return new Permit(generation, nanoTime.getAsLong());
+    }
+
+    synchronized int getLimit() {
+        return limit;
+    }
+
+    synchronized int getPeak() {
+        return peak;
+    }
+
+    private synchronized void release(Permit permit, long nanos, boolean failed) {
+        --inFlight;
+        // samples of work started before the last change say nothing about the current limit
+        if (adaptive && permit.generation == generation) {
+            record(nanos, failed);
+        }
+        notifyAll();
+    }
+
+    private void record(long nanos, boolean failed) {
+        ++completed;
+        latencyNanos += nanos;
+        if (!failed && completed < limit) {
+            return;
+        }
+
+        double average = latencyNanos / (double) completed;
+        int previous = limit;
+        if (failed) {
+            limit = Math.max(1, limit / 2);
+            slowStart = false;
+        } else if (Double.isNaN(bestLatencyNanos) || average <= bestLatencyNanos * LATENCY_TOLERANCE) {
+            bestLatencyNanos = Double.isNaN(bestLatencyNanos) ? average : Math.min(bestLatencyNanos, average);
+            limit = Math.min(maxThreads, slowStart ? limit * 2 : limit + 1);
+        } else {
+            limit = Math.max(1, limit - Math.max(1, limit / 4));
+            slowStart = false;
+        }
+        peak = Math.max(peak, limit);
+
+        completed = 0;
+        latencyNanos = 0;
+        if (limit != previous) {
+            ++generation;
+            LOGGER.debug("dbThreads {} -> {} (average {} ms per table{})", previous, limit,
+                    TimeUnit.NANOSECONDS.toMillis((long) average), failed ? ", failed" : "");
+        }
+    }
+
+    /**
+     * Permission to run one task, released with how it went
+     */
+    final class Permit {
+        private final int generation;
+        private final long started;
+        private boolean released = false;
+
+        private Permit(int generation, long started) {
+            this.generation = generation;
+            this.started = started;
+        }
+
+        void release(boolean failed) {
+            if (released) {
+                return;
+            }
+            released = true;
+            ConcurrencyLimit.this.release(this, nanoTime.getAsLong() - started, failed);
+        }
+    }
+}
@@ -25,9 +25,14 @@ package org.schemaspy.input.dbms.service;
 
 import org.schemaspy.input.dbms.service.helper.BasicTableMeta;
 import org.schemaspy.input.dbms.service.helper.RemoteTableIdentifier;
+import org.schemaspy.input.dbms.snapshot.Snapshot;
+import org.schemaspy.input.dbms.snapshot.TableSnapshot;
 import org.schemaspy.input.dbms.xml.SchemaMeta;
 import org.schemaspy.input.dbms.xml.TableMeta;
 import org.schemaspy.model.*;
+import org.schemaspy.util.CaseInsensitiveMap;
+import org.schemaspy.validator.ExactNames;
+import org.schemaspy.validator.LikePatterns;
 import org.schemaspy.validator.NameValidator;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -41,6 +46,14 @@ import java.time.Clock;
 import java.time.Duration;
 import java.time.Instant;
 import java.util.*;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.regex.Pattern;
 
 import static org.schemaspy.input.dbms.service.ColumnLabel.COLUMN_NAME;
@@ -65,14 +78,20 @@ public class DatabaseService {
     private final boolean viewsEnabled;
     private final Pattern include;
     private final Pattern exclude;
+    private final ExactNames includeNames;
+    private final ExactNames excludeNames;
     private final int maxThreads;
+    private final boolean adaptiveThreads;
+    private final TaskExecutors taskExecutors;
     private final boolean exportedKeys;
     private final boolean numberOfRows;
+    private final int rowCountThreads;
     private final Properties dbProperties;
     private final TableService tableService;
     private final ViewService viewService;
     private final RoutineService routineService;
     private final SequenceService sequenceService;
+    private final TimeBudget timeBudget;
 
 
     private static final Logger LOGGER = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
@@ -83,60 +102,193 @@ public class DatabaseService {
             boolean viewsEnabled,
             Pattern tableInclusion,
             Pattern tableExclusion,
+            ExactNames tableInclusionNames,
+            ExactNames tableExclusionNames,
             int maxThreads,
+            boolean adaptiveThreads,
+            TaskExecutors taskExecutors,
             boolean exportedKeys,
             boolean numberOfRows,
+            int rowCountThreads,
             Properties dbProperties,
             TableService tableService,
             ViewService viewService,
             RoutineService routineService,
-            SequenceService sequenceService
+            SequenceService sequenceService,
+            TimeBudget timeBudget
     ) {
         this.clock = Objects.requireNonNull(clock);
         this.sqlService = Objects.requireNonNull(sqlService);
         this.viewsEnabled = viewsEnabled;
         this.include = tableInclusion;
         this.exclude = tableExclusion;
+        this.includeNames = Objects.requireNonNull(tableInclusionNames);
+        this.excludeNames = Objects.requireNonNull(tableExclusionNames);
         this.maxThreads = maxThreads;
+        this.adaptiveThreads = adaptiveThreads;
+        this.taskExecutors = Objects.requireNonNull(taskExecutors);
         this.exportedKeys = exportedKeys;
         this.numberOfRows = numberOfRows;
+        this.rowCountThreads = rowCountThreads;
         this.dbProperties = dbProperties;
         this.tableService = Objects.requireNonNull(tableService);
         this.viewService = Objects.requireNonNull(viewService);
         this.routineService = Objects.requireNonNull(routineService);
         this.sequenceService = Objects.requireNonNull(sequenceService);
+        this.timeBudget = Objects.requireNonNull(timeBudget);
     }
 
     public void gatherSchemaDetails(Database db, SchemaMeta schemaMeta, ProgressListener listener) throws SQLException {
+        gatherSchemaDetails(db, schemaMeta, Snapshot.disabled(), listener);
+    }
+
+    /**
+     * Gathers the details of <code>db</code>, reusing what <code>snapshot</code> has of tables that haven't changed
+     * since it was captured. Afterwards <code>snapshot</code> has captured the tables of <code>db</code>.
+     */
+    public void gatherSchemaDetails(Database db, SchemaMeta schemaMeta, Snapshot snapshot, ProgressListener listener) throws SQLException {
         LOGGER.info("Gathering schema details");
 
+        timeBudget.start();
         listener.startedGatheringDetails();
 
         DatabaseMetaData meta = sqlService.getDatabaseMetaData();
 
-        initTables(db, listener, meta);
-        if (viewsEnabled)
-            initViews(db, listener, meta);
-        
-        initCatalogs(db);
-        initSchemas(db);
-
-        initCheckConstraints(db);
-        tableService.gatherTableIds(db);
-        initIndexIds(db);
-        tableService.gatherTableComments(db);
-        tableService.gatherTableColumnComments(db);
-        viewService.gatherViewComments(db);
-        viewService.gatherViewColumnComments(db);
-        initColumnTypes(db);
-        routineService.gatherRoutines(db);
-        sequenceService.gatherSequences(db);
-
-        listener.startedConnectingTables();
-
-        connectTables(db, listener);
+        // the remaining phases are mostly independent schema wide queries,
+        // so with more than one thread they run concurrently once their prerequisites are done
+        ExecutorService executorService = maxThreads == 1 ? null : taskExecutors.newExecutor(maxThreads);
+        Executor executor = Objects.isNull(executorService) ? Runnable::run : executorService;
+        // counting rows can take longer than everything else together, so it gets a pool of its own
+        ExecutorService rowCountService = maxThreads == 1 || !numberOfRows ? null : taskExecutors.newExecutor(Math.max(1, rowCountThreads));
+        Executor rowCountExecutor = Objects.isNull(rowCountService) ? Runnable::run : rowCountService;
+        try {
+            // these only touch the catalog, schema, routines and sequences
+            CompletableFuture<Void> independent = CompletableFuture.allOf(
+                    runPhase(() -> initCatalogs(db), executor),
+                    runPhase(() -> initSchemas(db), executor),
+                    runPhase(() -> routineService.gatherRoutines(db), executor),
+                    runPhase(() -> sequenceService.gatherSequences(db), executor)
+            );
+
+            initTables(db, listener, meta, snapshot);
+            // the row counts change the estimates while tables are sorted by them, so those are taken first
+            Map<Table, Long> rowEstimates = estimateRows(db.getTables());
+            CompletableFuture<Void> rowCounts = countRows(db, rowCountExecutor);
+            if (viewsEnabled)
+                initViews(db, listener, meta);
+
+            // these look up both tables and views, but don't touch relationships
+            CompletableFuture<Void> details = CompletableFuture.allOf(
+                    runPhase(() -> initCheckConstraints(db), executor),
+                    runPhase(() -> tableService.gatherTableIds(db), executor),
+                    runPhase(() -> initIndexIds(db), executor),
+                    runPhase(() -> tableService.gatherTableComments(db), executor),
+                    runPhase(() -> tableService.gatherTableColumnComments(db), executor),
+                    runPhase(() -> viewService.gatherViewComments(db), executor),
+                    runPhase(() -> viewService.gatherViewColumnComments(db), executor),
+                    runPhase(() -> initColumnTypes(db), executor)
+            );
+
+            listener.startedConnectingTables();
+
+            connectTables(db, listener, snapshot, rowEstimates);
+
+            await(CompletableFuture.allOf(independent, details, rowCounts));
+        } finally {
+            if (Objects.nonNull(executorService)) {
+                executorService.shutdownNow();
+            }
+            if (Objects.nonNull(rowCountService)) {
+                rowCountService.shutdownNow();
+            }
+        }
+
+        // let the output say what was left out to finish in time
+        timeBudget.getSkipped().forEach(db::addOmittedDetail);
+
+        // capture what came from the database only, foreign keys that were skipped or failed are left out
+        // so that the next run retrieves them again instead of taking them for none
+        snapshot.capture(db);
+
+        // xml metadata overrides what has been found in the database, so it goes last
         updateFromXmlMetadata(db, schemaMeta);
     }
+
+    /**
+     * A limit of its own for each phase, since tables, views and foreign keys each take their own time
+     * and the time of one mustn't become the baseline of another
+     */
+    private ConcurrencyLimit newThreadLimit() {
+        return adaptiveThreads ? ConcurrencyLimit.adaptive(maxThreads) : ConcurrencyLimit.fixed(maxThreads);
+    }
+
+    private static void logThreadLimit(String phase, ConcurrencyLimit threadLimit) {
+        if (threadLimit.isAdaptive()) {
+            LOGGER.info("Adaptive dbThreads for {} ended at {} threads (at most {}), use -dbThreads {} to pin it",
+                    phase, threadLimit.getLimit(), threadLimit.getPeak(), threadLimit.getLimit());
+        }
+    }
+
+    /**
+     * A phase of gathering schema details
+     */
+    @FunctionalInterface
+    private interface Phase {
+        void run() throws SQLException;
+    }
+
+    /**
+     * Run <code>phase</code> using <code>executor</code> on a connection of its own
+     */
+    private CompletableFuture<Void> runPhase(Phase phase, Executor executor) {
+        return CompletableFuture.runAsync(() -> {
+            try (SqlService.ConnectionLease ignored = sqlService.leaseConnection()) {
+                phase.run();
+            } catch (SQLException sqlException) {
+                throw new CompletionException(sqlException);
+            }
+        }, executor);
+    }
+
+    /**
+     * Count the rows of the tables that didn't get their number of rows along with their name,
+     * each on a connection of its own using <code>executor</code>
+     */
+    private CompletableFuture<Void> countRows(Database db, Executor executor) {
+        List<Table> uncounted = new ArrayList<>();
+        for (Table table : db.getTables()) {
+            if (table.getNumRows() == 0) {
+                if (numberOfRows) {
+                    uncounted.add(table);
+                } else {
+                    table.setNumRows(-1);
+                }
+            }
+        }
+        if (uncounted.isEmpty()) {
+            return CompletableFuture.completedFuture(null);
+        }
+
+        LOGGER.info("Counting rows of {} tables", uncounted.size());
+        return CompletableFuture.allOf(uncounted.stream()
+                .map(table -> runPhase(() -> table.setNumRows(tableService.fetchNumRows(db, table)), executor))
+                .toArray(CompletableFuture[]::new));
+    }
+
+    private static void await(CompletableFuture<Void> phases) throws SQLException {
+        try {
+            phases.join();
+        } catch (CompletionException completionException) {
+            Throwable cause = completionException.getCause();
+            if (cause instanceof SQLException) {
+                throw (SQLException) cause;
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw completionException;
+        }
+    }
     
     private void initCatalogs(Database db) throws SQLException {
 
@@ -176,42 +328,77 @@ public class DatabaseService {
      * @param metadata
      * @throws SQLException
      */
-    private void initTables(Database db, ProgressListener listener, final DatabaseMetaData metadata) throws SQLException {
+    private void initTables(Database db, ProgressListener listener, final DatabaseMetaData metadata, Snapshot snapshot) throws SQLException {
         String[] types = getTypes("tableTypes", "TABLE");
-        NameValidator validator = new NameValidator("table", include, exclude, types);
+        NameValidator validator = new NameValidator("table", include, exclude, includeNames, excludeNames, types);
         List<BasicTableMeta> entries = getBasicTableMeta(db, metadata, true, types);
+        entries.removeIf(entry -> !validator.isValid(entry.getName(), entry.getType()));
+
+        Map<BasicTableMeta, Table> tables = new IdentityHashMap<>();
+        for (BasicTableMeta entry : entries) {
+            Table table = new Table(db, entry.getCatalog(), entry.getSchema(), entry.getName(), entry.getRemarks());
+            // the rest is counted by countRows once all tables are there
+            if (entry.getNumRows() != -1) {
+                table.setNumRows(entry.getNumRows());
+            }
+            tables.put(entry, table);
+        }
+
+        // tables that according to their last DDL haven't changed since the snapshot are taken from it as a whole
+        initDdlTimestamps(db, snapshot);
+        Set<Table> restored = Collections.newSetFromMap(new IdentityHashMap<>());
+        List<Table> changed = new ArrayList<>();
+        for (BasicTableMeta entry : entries) {
+            Table table = tables.get(entry);
+            Optional<TableSnapshot> unchanged = snapshot.hasDdlTimestamp(table) ? snapshot.unchanged(table) : Optional.empty();
+            if (unchanged.isPresent()) {
+                tableService.restoreTable(db, table, unchanged.get());
+                restored.add(table);
+            } else {
+                changed.add(table);
+            }
+        }
+        if (!restored.isEmpty()) {
+            LOGGER.info("{} of {} tables haven't changed since the snapshot", restored.size(), entries.size());
+        }
+
+        // fetch the columns of all tables in one go instead of one table at a time
+        boolean columnsGathered = tableService.gatherColumns(db, changed);
 
         TableCreator creator;
         if (maxThreads == 1) {
-            creator = new TableCreator();
+            creator = new TableCreator(columnsGathered, snapshot, restored);
         } else {
             // creating tables takes a LONG time (based on JProbe analysis),
             // so attempt to speed it up by doing several in parallel.
             // note that it's actually DatabaseMetaData.getIndexInfo() that's expensive
 
-            creator = new ThreadedTableCreator(maxThreads);
+            creator = new ThreadedTableCreator("tables", columnsGathered, snapshot, restored);
 
-            // "prime the pump" so if there's a database problem we'll probably see it now
-            // and not in a secondary thread
-            while (!entries.isEmpty()) {
-                BasicTableMeta entry = entries.remove(0);
+            // start with the largest tables so that the threads aren't left waiting on one that started last
+            entries.sort(Comparator.comparing(tables::get, largestFirst(restored, estimateRows(tables.values()))));
+        }
 
-                if (validator.isValid(entry.getName(), entry.getType())) {
-                    new TableCreator().create(db, entry, listener);
-                    break;
-                }
+        try {
+            if (maxThreads != 1 && !entries.isEmpty()) {
+                // "prime the pump" so if there's a database problem we'll probably see it now
+                // and not in a secondary thread, using the smallest table so the others don't wait long
+                BasicTableMeta entry = entries.remove(entries.size() - 1);
+                new TableCreator(columnsGathered, snapshot, restored).create(db, entry, tables.get(entry), listener);
             }
-        }
 
-        // kick off the secondary threads to do the creation in parallel
-        for (BasicTableMeta entry : entries) {
-            if (validator.isValid(entry.getName(), entry.getType())) {
-                creator.create(db, entry, listener);
+            // kick off the secondary threads to do the creation in parallel
+            for (BasicTableMeta entry : entries) {
+                creator.create(db, entry, tables.get(entry), listener);
             }
+        } finally {
+            // wait for everyone to finish, also when a table failed so that no thread is left behind
+            creator.join();
         }
 
-        // wait for everyone to finish
-        creator.join();
+        // details that are gathered schema wide rather than per table
+        tableService.gatherIndexes(db);
+        tableService.gatherAutoUpdateColumns(db);
     }
 
     /**
@@ -222,17 +409,98 @@ public class DatabaseService {
      */
     private void initViews(Database db, ProgressListener listener, DatabaseMetaData metadata) throws SQLException {
         String[] types = getTypes("viewTypes", "VIEW");
-        NameValidator validator = new NameValidator("view", include, exclude, types);
+        NameValidator validator = new NameValidator("view", include, exclude, includeNames, excludeNames, types);
 
+        List<View> views = new ArrayList<>();
         for (BasicTableMeta entry : getBasicTableMeta(db, metadata, false, types)) {
             if (validator.isValid(entry.getName(), entry.getType())) {
-                View view = new View(db, entry.getCatalog(), entry.getSchema(), entry.getName(),
-                        entry.getRemarks(), entry.getViewDefinition());
-                viewService.gatherViewsDetails(db, view);
-                listener.gatheringDetailsProgressed(view);
-                LOGGER.debug("Found details of view {}", view.getName());
+                views.add(new View(db, entry.getCatalog(), entry.getSchema(), entry.getName(),
+                        entry.getRemarks(), entry.getViewDefinition()));
+            }
+        }
+
+        boolean columnsGathered = viewService.gatherColumns(db, views);
+        boolean definitionsGathered = viewService.gatherViewDefinitions(db, views);
+
+        // views are gathered the same way as tables, several in parallel if allowed, largest first
+        TableCreator creator = maxThreads == 1
+                ? new TableCreator(columnsGathered, Snapshot.disabled(), Collections.emptySet())
+                : new ThreadedTableCreator("views", columnsGathered, Snapshot.disabled(), Collections.emptySet());
+        List<View> scheduled = new ArrayList<>(views);
+        if (maxThreads > 1) {
+            scheduled.sort(largestFirst(Collections.emptySet(), estimateRows(views)));
+        }
+        try {
+            for (View view : scheduled) {
+                creator.run(() -> creator.createView(db, view, definitionsGathered, listener));
             }
+        } finally {
+            creator.join();
+        }
+        // a view that failed stops the run, whether it was gathered on this thread or another
+        creator.rethrowFailure();
+
+        // add them in the order they were listed so the result doesn't depend on which thread finished first
+        for (View view : views) {
+            db.getViewsMap().put(view.getName(), view);
+        }
+    }
+
+    /**
+     * Orders tables by how long gathering them is expected to take, longest first:
+     * by their number of rows if the listing of tables had them, otherwise by their number of columns
+     * if those have been gathered already. Tables taken from the snapshot have nothing left to gather
+     * and go last, tables without an estimate keep their order.
+     *
+     * @param numRows the number of rows of each table, see {@link #estimateRows(Collection)}
+     */
+    static Comparator<Table> largestFirst(Set<Table> restored, Map<Table, Long> numRows) {
+        return Comparator.<Table>comparingInt(table -> restored.contains(table) ? 0 : 1)
+                .thenComparingLong(table -> numRows.getOrDefault(table, -1L))
+                .thenComparingInt(table -> table.getColumnsMap().size())
+                .reversed();
+    }
+
+    /**
+     * The number of rows <code>tables</code> have now, so that sorting them isn't thrown off by counts that come in meanwhile
+     */
+    static Map<Table, Long> estimateRows(Collection<? extends Table> tables) {
+        Map<Table, Long> numRows = new IdentityHashMap<>();
+        for (Table table : tables) {
+            numRows.put(table, table.getNumRows());
         }
+        return numRows;
+    }
+
+    /**
+     * Ask the database when the tables were last changed using <code>selectChangedTablesSql</code>,
+     * so that tables that haven't changed since the snapshot don't have to be gathered at all
+     */
+    private void initDdlTimestamps(Database db, Snapshot snapshot) {
+        if (!snapshot.isEnabled()) {
+            return;
+        }
+        String sql = dbProperties.getProperty("selectChangedTablesSql");
+        if (sql == null) {
+            LOGGER.warn("This database type has no selectChangedTablesSql to tell which tables changed since the snapshot, " +
+                    "so only the details of unchanged columns are taken from it");
+            return;
+        }
+        Map<String, String> ddlTimestamps = new CaseInsensitiveMap<>();
+        try (PreparedStatement stmt = sqlService.prepareStatement(sql, db, null);
+             ResultSet rs = stmt.executeQuery()) {
+            while (rs.next()) {
+                String lastDdl = rs.getString("last_ddl");
+                if (lastDdl != null) {
+                    ddlTimestamps.put(rs.getString(TABLE_NAME), lastDdl);
+                }
+            }
+        } catch (SQLException sqlException) {
+            // don't die just because this failed, tables are fingerprinted by their columns instead
+            LOGGER.warn("Failed to retrieve when tables were last changed using SQL '{}'", sql, sqlException);
+            return;
+        }
+        snapshot.setDdlTimestamps(ddlTimestamps);
     }
 
     /**
@@ -308,13 +576,28 @@ public class DatabaseService {
         }
     }
 
-    private void connectTables(Database db, ProgressListener listener) throws SQLException {
+    /**
+     * @param rowEstimates the number of rows of the tables from before they were counted, to fetch the largest first
+     */
+    private void connectTables(Database db, ProgressListener listener, Snapshot snapshot, Map<Table, Long> rowEstimates) throws SQLException {
+        // a single query for all foreign keys in the schema if the database type supports it
+        if (tableService.connectForeignKeys(db, db.getLocals())) {
+            db.getTables().forEach(listener::connectingTablesProgressed);
+            db.getViews().forEach(listener::connectingTablesProgressed);
+            return;
+        }
+
+        if (maxThreads > 1) {
+            connectTablesConcurrently(db, listener, snapshot, rowEstimates);
+            return;
+        }
+
         Instant startTables = clock.instant();
         Duration durationOneTable = null;
         for (Table table : db.getTables()) {
             listener.connectingTablesProgressed(table);
 
-            tableService.connectForeignKeys(db, table, db.getLocals());
+            tableService.connectForeignKeys(db, table, db.getLocals(), snapshot);
             if (Objects.isNull(durationOneTable)) {
                 durationOneTable = Duration.between(startTables, clock.instant());
                 long timeLeft = durationOneTable.toMillis()*(db.getTables().size()-1);
@@ -329,7 +612,7 @@ public class DatabaseService {
         for (Table view : db.getViews()) {
             listener.connectingTablesProgressed(view);
 
-            tableService.connectForeignKeys(db, view, db.getLocals());
+            tableService.connectForeignKeys(db, view, db.getLocals(), snapshot);
             if (Objects.isNull(durationOneView)) {
                 durationOneView = Duration.between(startViews, clock.instant());
                 long timeLeft = durationOneView.toMillis()*(db.getViews().size()-1);
@@ -342,27 +625,110 @@ public class DatabaseService {
     }
 
     /**
-     * Single-threaded implementation of a class that creates tables
+     * Foreign keys are fetched by up to <code>maxThreads</code> workers, as many as a limit of their own allows,
+     * each on a connection of its own,
+     * while the calling thread applies them to the model one table at a time in the original order.
+     * That way the relationships are built the same way as when connecting on a single thread.
+     */
+    private void connectTablesConcurrently(Database db, ProgressListener listener, Snapshot snapshot, Map<Table, Long> rowEstimates) throws SQLException {
+        List<Table> tables = new ArrayList<>(db.getTables());
+        tables.addAll(db.getViews());
+
+        ExecutorService executorService = taskExecutors.newExecutor(maxThreads);
+        ConcurrencyLimit threadLimit = newThreadLimit();
+        try {
+            // fetched largest first, applied in the original order
+            List<Table> scheduled = new ArrayList<>(tables);
+            scheduled.sort(largestFirst(Collections.emptySet(), rowEstimates));
+            Map<Table, Future<TableService.FetchedForeignKeys>> fetched = new IdentityHashMap<>();
+            for (Table table : scheduled) {
+                fetched.put(table, executorService.submit(() -> {
+                    ConcurrencyLimit.Permit permit = threadLimit.acquire();
+                    boolean failed = true;
+                    try (SqlService.ConnectionLease ignored = sqlService.leaseConnection()) {
+                        TableService.FetchedForeignKeys foreignKeys = tableService.fetchForeignKeys(table, snapshot);
+                        // the keys that could be retrieved are applied, a failure only slows down the others
+                        failed = foreignKeys.hasFailed();
+                        return foreignKeys;
+                    } finally {
+                        permit.release(failed);
+                    }
+                }));
+            }
+
+            for (Table table : tables) {
+                listener.connectingTablesProgressed(table);
+                tableService.applyForeignKeys(db, table, fetched.get(table).get(), db.getLocals());
+            }
+            logThreadLimit("foreign keys", threadLimit);
+        } catch (InterruptedException interrupted) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while connecting tables", interrupted);
+        } catch (ExecutionException executionException) {
+            Throwable cause = executionException.getCause();
+            if (cause instanceof SQLException) {
+                throw (SQLException) cause;
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new SQLException("Failed to fetch foreign keys", cause);
+        } finally {
+            executorService.shutdownNow();
+        }
+    }
+
+    /**
+     * Single-threaded implementation of a class that creates tables (and views)
      */
     private class TableCreator {
+        private final boolean columnsGathered;
+        private final Snapshot snapshot;
+        private final Set<Table> restored;
+
         /**
-         * Create a table and put it into <code>tables</code>
+         * @param restored tables that have been restored from <code>snapshot</code> and have nothing left to gather
          */
-        void create(Database db, BasicTableMeta tableMeta, ProgressListener listener) throws SQLException {
-            createImpl(db, tableMeta, listener);
+        TableCreator(boolean columnsGathered, Snapshot snapshot, Set<Table> restored) {
+            this.columnsGathered = columnsGathered;
+            this.snapshot = snapshot;
+            this.restored = restored;
         }
 
-        protected void createImpl(Database db, BasicTableMeta tableMeta, ProgressListener listener) throws SQLException {
-            Table table = new Table(db, tableMeta.getCatalog(), tableMeta.getSchema(), tableMeta.getName(), tableMeta.getRemarks());
-            tableService.gatheringTableDetails(db, table);
+        /**
+         * Gather the details of a table and put it into <code>tables</code>
+         */
+        void create(Database db, BasicTableMeta tableMeta, Table table, ProgressListener listener) throws SQLException {
+            run(() -> createImpl(db, tableMeta, table, listener));
+        }
+
+        /**
+         * Run <code>task</code>, by default on the calling thread
+         */
+        void run(Phase task) throws SQLException {
+            task.run();
+        }
 
-            if (tableMeta.getNumRows() != -1) {
-                table.setNumRows(tableMeta.getNumRows());
+        /**
+         * Gather the details of a view, it's up to the caller to put it into <code>views</code>
+         */
+        protected void createView(Database db, View view, boolean definitionsGathered, ProgressListener listener) throws SQLException {
+            try (SqlService.ConnectionLease ignored = sqlService.leaseConnection()) {
+                viewService.gatherViewDetails(db, view, columnsGathered, definitionsGathered);
             }
 
-            if (table.getNumRows() == 0) {
-                long numRows = numberOfRows ? tableService.fetchNumRows(db, table) : -1;
-                table.setNumRows(numRows);
+            listener.gatheringDetailsProgressed(view);
+
+            LOGGER.debug("Found details of view {}", view.getName());
+        }
+
+        protected void createImpl(Database db, BasicTableMeta tableMeta, Table table, ProgressListener listener) throws SQLException {
+            // each table is gathered on a connection of its own so that threads don't queue on a shared one
+            try (SqlService.ConnectionLease ignored = sqlService.leaseConnection()) {
+                if (!restored.contains(table)) {
+                    tableService.gatheringTableDetails(db, table, columnsGathered, snapshot);
+                }
+
             }
 
             synchronized (db.getTablesMap()) {
@@ -380,74 +746,88 @@ public class DatabaseService {
              * By default this does nothing since this implementation isn't threaded.
              */
         }
+
+        /**
+         * Throw what the first task that failed threw, after {@link #join()}.
+         * By default this does nothing since tasks throw on the calling thread right away.
+         */
+        void rethrowFailure() throws SQLException {
+        }
     }
 
     /**
-     * Multi-threaded implementation of a class that creates tables
+     * Multi-threaded implementation of a class that creates tables (and views),
+     * running as many at the same time as a limit of its own allows
      */
     private class ThreadedTableCreator extends TableCreator {
-        private final Set<Thread> threads = new HashSet<>();
-        private final int maxThreads;
+        private final ExecutorService executorService = taskExecutors.newExecutor(maxThreads);
+        private final ConcurrencyLimit threadLimit = newThreadLimit();
+        private final List<Future<?>> tasks = new ArrayList<>();
+        private final AtomicReference<SQLException> failure = new AtomicReference<>();
+        private final String phase;
 
-        ThreadedTableCreator(int maxThreads) {
-            this.maxThreads = maxThreads;
+        /**
+         * @param phase what is created, for logging
+         */
+        ThreadedTableCreator(String phase, boolean columnsGathered, Snapshot snapshot, Set<Table> restored) {
+            super(columnsGathered, snapshot, restored);
+            this.phase = phase;
         }
 
         @Override
-        void create(Database db, BasicTableMeta tableMeta, ProgressListener listener) {
-            Thread runner = new Thread() {
-                @Override
-                public void run() {
-                    try {
-                        createImpl(db, tableMeta, listener);
-                    } catch (SQLException exc) {
-                        LOGGER.error("SQL exception",exc);
-                    } finally {
-                        synchronized (threads) {
-                            threads.remove(this);
-                            threads.notifyAll();
-                        }
-                    }
-                }
-            };
-
-            synchronized (threads) {
-                // wait for enough 'room'
-                while (threads.size() >= maxThreads) {
-                    try {
-                        threads.wait();
-                    } catch (InterruptedException interrupted) {
-                        Thread.currentThread().interrupt();
-                    }
-                }
-
-                threads.add(runner);
+        void run(Phase task) throws SQLException {
+            // wait for enough 'room'
+            ConcurrencyLimit.Permit permit;
+            try {
+                permit = threadLimit.acquire();
+            } catch (InterruptedException interrupted) {
+                Thread.currentThread().interrupt();
+                throw new SQLException("Interrupted while waiting for a thread", interrupted);
             }
 
-            runner.start();
+            tasks.add(executorService.submit(() -> {
+                boolean failed = true;
+                try {
+                    task.run();
+                    failed = false;
+                } catch (SQLException exc) {
+                    failure.compareAndSet(null, exc);
+                    LOGGER.error("SQL exception",exc);
+                } finally {
+                    permit.release(failed);
+                }
+            }));
         }
 
         /**
-         * Wait for all of the started threads to complete
+         * Wait for all of the started tasks to complete
          */
         @Override
         public void join() {
-            while (true) {
-                Thread thread;
-
-                synchronized (threads) {
-                    Iterator<Thread> iter = threads.iterator();
-                    if (!iter.hasNext())
-                        break;
-
-                    thread = iter.next();
+            try {
+                for (Future<?> task : tasks) {
+                    try {
+                        task.get();
+                    } catch (ExecutionException exc) {
+                        // like an uncaught exception of a thread of its own, the other tasks carry on
+                        LOGGER.error("Failed to gather details", exc.getCause());
+                    } catch (CancellationException cancelled) {
+                        LOGGER.debug("Gathering details was cancelled", cancelled);
+                    }
                 }
+                logThreadLimit(phase, threadLimit);
+            } catch (InterruptedException exc) {
+                Thread.currentThread().interrupt();
+            } finally {
+                executorService.shutdownNow();
+            }
+        }
 
-                try {
-                    thread.join();
-                } catch (InterruptedException exc) {
-                    Thread.currentThread().interrupt();
-                }
+        @Override
+        void rethrowFailure() throws SQLException {
+            SQLException first = failure.get();
+            if (Objects.nonNull(first)) {
+                throw first;
             }
         }
     }
@@ -466,22 +846,56 @@ public class DatabaseService {
             boolean forTables,
             String... types
     ) throws SQLException {
+        // only ask for names that might be included, the inclusion pattern still has the final say,
+        // unless names are listed to include as well as they don't need to match it
+        List<String> namePatterns = includeNames.isEmpty()
+                ? LikePatterns.of(include)
+                : Collections.singletonList(LikePatterns.ANY);
+        if (namePatterns.size() > 1 || !LikePatterns.ANY.equals(namePatterns.get(0))) {
+            LOGGER.debug("Listing {} named like {}", forTables ? "tables" : "views", namePatterns);
+        }
+
         List<BasicTableMeta> basics = new ArrayList<>();
-        if (!getBasicTableMetaFromSql(basics, db, forTables)) {
-            getBasicTableMetaFromDatabaseMetaData(basics, metadata, db, forTables, types);
+        if (!getBasicTableMetaFromSql(basics, db, forTables, namePatterns)) {
+            getBasicTableMetaFromDatabaseMetaData(basics, metadata, db, forTables, namePatterns, types);
+        }
+        return withoutDuplicates(basics);
+    }
+
+    /**
+     * Names that match more than one pattern are listed more than once
+     */
+    private static List<BasicTableMeta> withoutDuplicates(List<BasicTableMeta> basics) {
+        Set<List<String>> seen = new HashSet<>();
+        List<BasicTableMeta> unique = new ArrayList<>(basics.size());
+        for (BasicTableMeta basic : basics) {
+            if (seen.add(Arrays.asList(basic.getCatalog(), basic.getSchema(), basic.getName()))) {
+                unique.add(basic);
+            }
         }
-        return basics;
+        return unique;
     }
-    private boolean getBasicTableMetaFromSql(List<BasicTableMeta> basics, Database database, boolean forTables) {
+
+    /**
+     * If the query has a <code>:table</code> (or <code>:view</code>) parameter it's run once per name pattern
+     * with the pattern as its value, e.g. <code>and table_name like :table</code>, otherwise it's run once.
+     */
+    private boolean getBasicTableMetaFromSql(List<BasicTableMeta> basics, Database database, boolean forTables, List<String> namePatterns) {
         String queryName = forTables ? "selectTablesSql" : "selectViewsSql";
         String sql = dbProperties.getProperty(queryName);
 
         if (sql != null) {
             String clazz = forTables ? "table" : "view";
-            try (PreparedStatement stmt = sqlService.prepareStatement(sql, database, null);
-                 ResultSet rs = stmt.executeQuery()) {
-                while (rs.next()) {
-                    basics.add(basicTableMetaFromResultSetRow(rs, forTables, clazz, database.getSchema().getName()));
+            boolean filtered = sql.contains(":table") || sql.contains(":view");
+            List<String> patterns = filtered ? namePatterns : Collections.singletonList(null);
+            try {
+                for (String pattern : patterns) {
+                    try (PreparedStatement stmt = sqlService.prepareStatement(sql, database, pattern);
+                         ResultSet rs = stmt.executeQuery()) {
+                        while (rs.next()) {
+                            basics.add(basicTableMetaFromResultSetRow(rs, forTables, clazz, database.getSchema().getName()));
+                        }
+                    }
                 }
                 return true;
             } catch (SQLException sqlException) {
@@ -505,18 +919,23 @@ public class DatabaseService {
         return new BasicTableMeta(cat, sch, name, clazz, remarks, viewDefinition, numRows);
     }
 
-    private static void getBasicTableMetaFromDatabaseMetaData(List<BasicTableMeta> basics, DatabaseMetaData databaseMetaData, Database database, boolean forTables, String... types) throws SQLException {
+    private void getBasicTableMetaFromDatabaseMetaData(List<BasicTableMeta> basics, DatabaseMetaData databaseMetaData, Database database, boolean forTables, List<String> namePatterns, String... types) throws SQLException {
         String lastTableName = null;
-        try (ResultSet rs = databaseMetaData.getTables(null, database.getSchema().getName(), "%", types)){
-            while (rs.next()) {
-                String name = rs.getString("TABLE_NAME");
-                lastTableName = name;
-                String type = rs.getString("TABLE_TYPE");
-                String cat = rs.getString("TABLE_CAT");
-                String schem = rs.getString("TABLE_SCHEM");
-                String remarks = getOptionalString(rs, "REMARKS");
-
-                basics.add(new BasicTableMeta(cat, schem, name, type, remarks, null, -1));
+        try {
+            for (String namePattern : namePatterns) {
+                try (ResultSet rs = databaseMetaData.getTables(null, database.getSchema().getName(), namePattern, types)) {
+                    sqlService.applyFetchSize(rs, "getTables");
+                    while (rs.next()) {
+                        String name = rs.getString("TABLE_NAME");
+                        lastTableName = name;
+                        String type = rs.getString("TABLE_TYPE");
+                        String cat = rs.getString("TABLE_CAT");
+                        String schem = rs.getString("TABLE_SCHEM");
+                        String remarks = getOptionalString(rs, "REMARKS");
+
+                        basics.add(new BasicTableMeta(cat, schem, name, type, remarks, null, -1));
+                    }
+                }
             }
         } catch (SQLException exc) {
             if (forTables)
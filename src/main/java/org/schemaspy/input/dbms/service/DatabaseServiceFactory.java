@@ -3,6 +3,7 @@ package org.schemaspy.input.dbms.service;
 import org.schemaspy.Config;
 
 import java.time.Clock;
+import java.time.Duration;
 
 public class DatabaseServiceFactory {
 
@@ -14,15 +15,21 @@ public class DatabaseServiceFactory {
     }
 
     public DatabaseService simple(Config config) {
+        TimeBudget timeBudget = new TimeBudget(clock, Duration.ofSeconds(config.getTimeBudget()));
         return new DatabaseService(
                 clock,
                 sqlService,
                 config.isViewsEnabled(),
                 config.getTableInclusions(),
                 config.getTableExclusions(),
+                config.getTableInclusionNames(),
+                config.getTableExclusionNames(),
                 config.getMaxDbThreads(),
+                config.isAdaptiveDbThreads(),
+                config.isVirtualThreads() ? TaskExecutors.virtual() : TaskExecutors.platform(),
                 config.isExportedKeysEnabled(),
                 config.isNumRowsEnabled(),
+                config.getRowCountThreads(),
                 config.getDbProperties(),
                 new TableService(
                         sqlService,
@@ -34,9 +41,18 @@ public class DatabaseServiceFactory {
                         new ColumnService(
                                 sqlService,
                                 config.getIndirectColumnExclusions(),
-                                config.getColumnExclusions()
+                                config.getColumnExclusions(),
+                                config.getDbProperties()
                         ),
-                        new IndexService(sqlService, config.getDbProperties())
+                        new IndexService(sqlService, config.getDbProperties()),
+                        timeBudget,
+                        new RowCounting(
+                                config.getRowCountMode(),
+                                config.getRowCountSamplePercent(),
+                                config.getRowCountTimeout()
+                        ),
+                        config.getTableInclusionNames(),
+                        config.getTableExclusionNames()
                 ),
                 new ViewService(
                         sqlService,
@@ -44,11 +60,14 @@ public class DatabaseServiceFactory {
                         new ColumnService(
                                 sqlService,
                                 config.getIndirectColumnExclusions(),
-                                config.getColumnExclusions()
-                        )
+                                config.getColumnExclusions(),
+                                config.getDbProperties()
+                        ),
+                        timeBudget
                 ),
-                new RoutineService(sqlService, config.getDbProperties()),
-                new SequenceService(sqlService, config.getDbProperties())
+                new RoutineService(sqlService, config.getDbProperties(), timeBudget),
+                new SequenceService(sqlService, config.getDbProperties()),
+                timeBudget
         );
     }
 }
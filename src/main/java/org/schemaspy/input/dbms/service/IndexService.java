@@ -18,6 +18,7 @@
  */
 package org.schemaspy.input.dbms.service;
 
+import org.schemaspy.input.dbms.snapshot.TableSnapshot;
 import org.schemaspy.model.Database;
 import org.schemaspy.model.Table;
 import org.schemaspy.model.TableColumn;
@@ -38,6 +39,9 @@ public class IndexService {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
 
+    private static final String SELECT_ALL_INDEXES_SQL = "selectAllIndexesSql";
+    private static final String SELECT_ALL_PRIMARY_KEYS_SQL = "selectAllPrimaryKeysSql";
+
     private final SqlService sqlService;
     private final Properties dbProperties;
 
@@ -46,9 +50,102 @@ public class IndexService {
         this.dbProperties = dbProperties;
     }
 
+    /**
+     * Gathers indexes and primary keys of <code>table</code>,
+     * skipping those that will be gathered schema wide by {@link #gatherIndexes(Database)}
+     */
     public void gatherIndexes(Database database, Table table) throws SQLException {
-        initIndexes(database, table);
-        initPrimaryKeys(database, table);
+        if (!dbProperties.containsKey(SELECT_ALL_INDEXES_SQL)) {
+            initIndexes(database, table);
+        }
+        if (!dbProperties.containsKey(SELECT_ALL_PRIMARY_KEYS_SQL)) {
+            initPrimaryKeys(database, table);
+        }
+    }
+
+    /**
+     * Counterpart of {@link #gatherIndexes(Database, Table)} for a table that hasn't changed since
+     * <code>tableSnapshot</code>, takes the indexes and primary key from the snapshot instead of the database.
+     * If they're gathered schema wide they're gathered as usual.
+     */
+    public void restoreIndexes(Database database, Table table, TableSnapshot tableSnapshot) throws SQLException {
+        if (dbProperties.containsKey(SELECT_ALL_INDEXES_SQL) || dbProperties.containsKey(SELECT_ALL_PRIMARY_KEYS_SQL)) {
+            gatherIndexes(database, table);
+            return;
+        }
+        for (TableSnapshot.IndexSnapshot indexSnapshot : tableSnapshot.getIndexes()) {
+            TableIndex index = new TableIndex(indexSnapshot.getName(), indexSnapshot.isUnique());
+            for (int i = 0; i < indexSnapshot.getColumns().size(); ++i) {
+                index.addColumn(table.getColumn(indexSnapshot.getColumns().get(i)), indexSnapshot.getAscending().get(i) ? "A" : "D");
+            }
+            index.setIsPrimaryKey(indexSnapshot.isPrimaryKey());
+            table.getIndexesMap().put(index.getName(), index);
+        }
+        for (String columnName : tableSnapshot.getPrimaryKey()) {
+            TableColumn column = table.getColumn(columnName);
+            if (Objects.nonNull(column)) {
+                table.setPrimaryColumn(column);
+            }
+        }
+    }
+
+    /**
+     * Gathers indexes and primary keys of all tables in one go using
+     * <code>selectAllIndexesSql</code> and <code>selectAllPrimaryKeysSql</code>.
+     * Rows are distributed to the tables through {@link Database#getLocals()}.
+     * If a query fails it falls back to gathering per table.
+     */
+    public void gatherIndexes(Database database) throws SQLException {
+        String selectAllIndexesSql = dbProperties.getProperty(SELECT_ALL_INDEXES_SQL);
+        if (Objects.nonNull(selectAllIndexesSql) && !initAllIndexes(database, selectAllIndexesSql)) {
+            for (Table table : database.getTables()) {
+                table.getIndexesMap().clear();
+                initIndexes(database, table);
+            }
+        }
+        String selectAllPrimaryKeysSql = dbProperties.getProperty(SELECT_ALL_PRIMARY_KEYS_SQL);
+        if (Objects.nonNull(selectAllPrimaryKeysSql) && !initAllPrimaryKeys(database, selectAllPrimaryKeysSql)) {
+            for (Table table : database.getTables()) {
+                initPrimaryKeys(database, table);
+            }
+        }
+    }
+
+    private boolean initAllIndexes(Database db, String selectAllIndexesSql) {
+        try (PreparedStatement preparedStatement = sqlService.prepareStatement(selectAllIndexesSql, db, null);
+             ResultSet rs = preparedStatement.executeQuery()) {
+            while (rs.next()) {
+                Table table = db.getLocals().get(rs.getString("TABLE_NAME"));
+                if (Objects.nonNull(table) && !table.isView() && rs.getShort("TYPE") != DatabaseMetaData.tableIndexStatistic) {
+                    addIndex(table, rs);
+                }
+            }
+        } catch (SQLException sqlException) {
+            LOGGER.warn("Failed to query index information with SQL: {}, falling back to per table", selectAllIndexesSql, sqlException);
+            return false;
+        }
+        return true;
+    }
+
+    private boolean initAllPrimaryKeys(Database db, String selectAllPrimaryKeysSql) {
+        Map<String, List<PrimaryKeyColumn>> primaryKeyColumns = new LinkedHashMap<>();
+        try (PreparedStatement preparedStatement = sqlService.prepareStatement(selectAllPrimaryKeysSql, db, null);
+             ResultSet resultSet = preparedStatement.executeQuery()) {
+            while (resultSet.next()) {
+                PrimaryKeyColumn primaryKeyColumn = new PrimaryKeyColumn(resultSet);
+                primaryKeyColumns.computeIfAbsent(primaryKeyColumn.table, name -> new ArrayList<>()).add(primaryKeyColumn);
+            }
+        } catch (SQLException sqlException) {
+            LOGGER.warn("Failed to query primary keys with SQL: {}, falling back to per table", selectAllPrimaryKeysSql, sqlException);
+            return false;
+        }
+        primaryKeyColumns.forEach((tableName, columns) -> {
+            Table table = db.getLocals().get(tableName);
+            if (Objects.nonNull(table) && !table.isView()) {
+                processPrimaryKeyColumns(table, columns);
+            }
+        });
+        return true;
     }
 
     /**
@@ -70,6 +167,7 @@ public class IndexService {
 
         // couldn't, so try the old fashioned approach
         try (ResultSet rs = sqlService.getDatabaseMetaData().getIndexInfo(table.getCatalog(), table.getSchema(), table.getName(), false, true)) {
+            sqlService.applyFetchSize(rs, "getIndexInfo");
             while (rs.next()) {
                 if (isIndexRow(rs)) {
                     addIndex(table, rs);
@@ -150,6 +248,7 @@ public class IndexService {
                 try (ResultSet resultSet = sqlService
                         .getDatabaseMetaData()
                         .getPrimaryKeys(table.getCatalog(), table.getSchema(), table.getName())) {
+                    sqlService.applyFetchSize(resultSet, "getPrimaryKeys");
                     processPrimaryKeyResultSet(table, resultSet);
                 }
             }
@@ -161,10 +260,16 @@ public class IndexService {
     }
 
     private void processPrimaryKeyResultSet(final Table table, final ResultSet resultSet) throws SQLException {
-        Set<PrimaryKeyColumn> primaryKeyColumns = new TreeSet<>(Comparator.comparingInt(p -> p.seqno));
+        List<PrimaryKeyColumn> primaryKeyColumns = new ArrayList<>();
         while (resultSet.next()) {
             primaryKeyColumns.add(new PrimaryKeyColumn(resultSet));
         }
+        processPrimaryKeyColumns(table, primaryKeyColumns);
+    }
+
+    private void processPrimaryKeyColumns(final Table table, final Collection<PrimaryKeyColumn> columns) {
+        Set<PrimaryKeyColumn> primaryKeyColumns = new TreeSet<>(Comparator.comparingInt(p -> p.seqno));
+        primaryKeyColumns.addAll(columns);
         primaryKeyColumns.forEach(primaryKeyColumn -> {
             TableColumn tableColumn = table.getColumn(primaryKeyColumn.column);
             if (Objects.nonNull(tableColumn)) {
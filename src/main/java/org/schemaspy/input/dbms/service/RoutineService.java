@@ -36,14 +36,30 @@ public class RoutineService {
 
     private final SqlService sqlService;
     private final Properties dbProperties;
+    private final TimeBudget timeBudget;
 
     public RoutineService(SqlService sqlService, Properties dbProperties) {
+        this(sqlService, dbProperties, TimeBudget.unlimited());
+    }
+
+    /**
+     * @param timeBudget decides whether routines are still gathered
+     */
+    public RoutineService(SqlService sqlService, Properties dbProperties, TimeBudget timeBudget) {
         this.sqlService = sqlService;
         this.dbProperties = dbProperties;
+        this.timeBudget = timeBudget;
     }
 
     public void gatherRoutines(Database database) {
+        if (!timeBudget.allows(TimeBudget.Detail.ROUTINES)) {
+            return;
+        }
         initRoutines(database);
+        // parameters only go with routines that have been found
+        if (database.getRoutinesMap().isEmpty()) {
+            return;
+        }
         initRoutineParameters(database);
         database.getRoutinesMap().replaceAll((routineName, routine) -> {
             Routine newRoutine = new Routine(
@@ -96,6 +112,10 @@ public class RoutineService {
                     }
                 }
             } catch (SQLException sqlException) {
+                if (timeBudget.timedOut(TimeBudget.Detail.ROUTINES, sqlException)) {
+                    db.getRoutinesMap().clear();
+                    return;
+                }
                 // don't die just because this failed
                 LOGGER.warn("Failed to retrieve stored procedure/function details using sql '{}'", sql, sqlException);
             }
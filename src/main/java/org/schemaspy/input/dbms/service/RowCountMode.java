@@ -0,0 +1,37 @@
+package org.schemaspy.input.dbms.service;
+
+import java.util.Locale;
+
+/**
+ * How the number of rows of a table is determined
+ */
+public enum RowCountMode {
+    /**
+     * <code>selectRowCountSql</code> of the database type if it has one, otherwise <code>count(*)</code>
+     */
+    AUTO,
+    /**
+     * <code>count(*)</code>, regardless of how long it takes
+     */
+    EXACT,
+    /**
+     * Only what the statistics of the database say, using <code>selectRowCountStatsSql</code>
+     * or <code>selectRowCountSql</code> of the database type
+     */
+    STATS,
+    /**
+     * <code>count(*)</code> of a sample of the table, scaled up, falling back to statistics
+     */
+    SAMPLED,
+    /**
+     * <code>count(*)</code> that is cancelled when it takes too long, leaving the number of rows unknown
+     */
+    TIMED;
+
+    /**
+     * @throws IllegalArgumentException if <code>name</code> isn't one of the modes, ignoring case
+     */
+    public static RowCountMode of(String name) {
+        return valueOf(name.trim().toUpperCase(Locale.ROOT));
+    }
+}
@@ -0,0 +1,39 @@
+package org.schemaspy.input.dbms.service;
+
+import java.util.Objects;
+
+/**
+ * How {@link TableService#fetchNumRows} counts the rows of a table
+ */
+public final class RowCounting {
+
+    private final RowCountMode mode;
+    private final double samplePercent;
+    private final int timeout;
+
+    /**
+     * @param samplePercent percentage of a table that's counted in {@link RowCountMode#SAMPLED} mode
+     * @param timeout       seconds after which a count is cancelled in {@link RowCountMode#TIMED} mode
+     */
+    public RowCounting(RowCountMode mode, double samplePercent, int timeout) {
+        this.mode = Objects.requireNonNull(mode);
+        this.samplePercent = samplePercent;
+        this.timeout = timeout;
+    }
+
+    public static RowCounting auto() {
+        return new RowCounting(RowCountMode.AUTO, 1, 0);
+    }
+
+    public RowCountMode getMode() {
+        return mode;
+    }
+
+    public double getSamplePercent() {
+        return samplePercent;
+    }
+
+    public int getTimeout() {
+        return timeout;
+    }
+}
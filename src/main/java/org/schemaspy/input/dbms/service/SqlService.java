@@ -24,7 +24,11 @@
 package org.schemaspy.input.dbms.service;
 
 import org.schemaspy.Config;
+import org.schemaspy.input.dbms.CallStatistics;
+import org.schemaspy.input.dbms.ConnectionPool;
 import org.schemaspy.input.dbms.DbDriverLoader;
+import org.schemaspy.input.dbms.JdbcInstrumentation;
+import org.schemaspy.input.dbms.StatementCache;
 import org.schemaspy.model.Database;
 import org.schemaspy.model.DbmsMeta;
 import org.schemaspy.model.InvalidConfigurationException;
@@ -36,8 +40,10 @@ import java.lang.invoke.MethodHandles;
 import java.sql.Connection;
 import java.sql.DatabaseMetaData;
 import java.sql.PreparedStatement;
+import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -57,30 +63,167 @@ public class SqlService {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
 
+    private static final int MAX_STATEMENTS_PER_CONNECTION = 64;
+
     private DbmsService dbmsService = new DbmsService();
 
     private Connection connection;
+    private String connectionUrl;
     private DatabaseMetaData databaseMetaData;
     private DbmsMeta dbmsMeta;
     private Pattern invalidIdentifierPattern;
     private Set<String> allKeywords;
+    private ConnectionPool connectionPool;
+    private ConnectionPool sharedPool;
+    private final ThreadLocal<Lease> currentLease = new ThreadLocal<>();
+    private Map<String, ParsedSql> parsedSql = new ConcurrentHashMap<>();
+    private StatementCache statementCache = new StatementCache(MAX_STATEMENTS_PER_CONNECTION);
+    private int defaultFetchSize = 0;
+    private Map<String, Integer> fetchSizesByName = Collections.emptyMap();
+    private Map<String, Integer> fetchSizesBySql = Collections.emptyMap();
+    private JdbcInstrumentation instrumentation;
+    private int queryTimeout = 0;
 
     public DatabaseMetaData connect(Config config) throws IOException, SQLException {
+        return connect(config, config.getMaxDbConnections());
+    }
+
+    /**
+     * Connect to the database described by <code>config</code>.
+     * <p>
+     * The connection, its {@link DbmsMeta} and identifier pattern are kept for the whole run:
+     * connecting again to the same url (as done for every schema of a multi-schema run)
+     * reuses them instead of opening another connection.
+     *
+     * @param maxConnections size of the pool used by {@link #leaseConnection()}, no pool if <code>1</code> or less
+     */
+    public DatabaseMetaData connect(Config config, int maxConnections) throws IOException, SQLException {
         DbDriverLoader driverLoader = new DbDriverLoader();
-        connection = driverLoader.getConnection(config);
+        String url = driverLoader.getConnectionURL(config);
+        if (Objects.nonNull(connection) && url.equals(connectionUrl) && !connection.isClosed()) {
+            LOGGER.debug("Reusing connection");
+        } else {
+            if (Objects.nonNull(sharedPool)) {
+                // the pool, statement cache etc. belong to the service that shared them
+                throw new IllegalStateException("A shared connection to " + connectionUrl + " can't connect to " + url);
+            }
+            close();
+            connection = driverLoader.getConnection(config);
+            connectionUrl = url;
+
+            if (maxConnections > 1) {
+                connectionPool = new ConnectionPool(() -> driverLoader.getConnection(config), maxConnections);
+            }
 
-        databaseMetaData = connection.getMetaData();
-        dbmsMeta = dbmsService.fetchDbmsMeta(databaseMetaData);
-        invalidIdentifierPattern = createInvalidIdentifierPattern(databaseMetaData);
-        allKeywords = dbmsMeta.getAllKeywords();
+            databaseMetaData = connection.getMetaData();
+            dbmsMeta = dbmsService.fetchDbmsMeta(databaseMetaData);
+            invalidIdentifierPattern = createInvalidIdentifierPattern(databaseMetaData);
+            allKeywords = dbmsMeta.getAllKeywords();
+        }
+        initFetchSizes(config);
+        initInstrumentation(config);
+        queryTimeout = config.getQueryTimeout();
 
         if (config.isEvaluateAllEnabled()) {
             return null;    // no database to return
         }
 
-        return databaseMetaData;
+        return getDatabaseMetaData();
+    }
+
+    /**
+     * @return <code>true</code> if {@link #connect(Config)} would reuse the current connection for <code>config</code>,
+     * which isn't the case for database types whose url names the schema
+     */
+    public boolean isConnectedTo(Config config) {
+        return Objects.nonNull(connectionUrl) && connectionUrl.equals(new DbDriverLoader().getConnectionURL(config));
+    }
+
+    /**
+     * Fetch sizes are configured by the name of the query, e.g. <code>fetchSize.selectColumnCommentsSql</code>,
+     * while {@link #prepareStatement(String, Database, String)} only gets to see the sql of the query.
+     */
+    private void initFetchSizes(Config config) {
+        defaultFetchSize = config.getFetchSize();
+        fetchSizesByName = config.getFetchSizes();
+        Map<String, Integer> bySql = new HashMap<>();
+        fetchSizesByName.forEach((name, size) -> {
+            String sql = config.getDbProperties().getProperty(name);
+            if (Objects.nonNull(sql)) {
+                bySql.put(sql, size);
+            }
+        });
+        fetchSizesBySql = bySql;
+    }
+
+    /**
+     * With <code>-jdbcStats</code> the calls made through this service are recorded, named after
+     * the sql property they were prepared from. Connecting starts over, so the statistics are per schema.
+     */
+    private void initInstrumentation(Config config) {
+        if (!config.isJdbcStatsEnabled()) {
+            instrumentation = null;
+            return;
+        }
+        Map<String, String> callNames = new HashMap<>();
+        Properties dbProperties = config.getDbProperties();
+        for (String name : dbProperties.stringPropertyNames()) {
+            if (name.endsWith("Sql")) {
+                String sql = dbProperties.getProperty(name);
+                callNames.putIfAbsent(sql, name);
+                callNames.putIfAbsent(ParsedSql.parse(sql).sql, name);
+            }
+        }
+        instrumentation = new JdbcInstrumentation(new CallStatistics(), callNames);
+    }
+
+    /**
+     * Calls recorded since connecting, if <code>-jdbcStats</code> is enabled
+     */
+    public Optional<CallStatistics> getCallStatistics() {
+        return Optional.ofNullable(instrumentation).map(JdbcInstrumentation::getStatistics);
     }
 
+    /**
+     * Create a <code>SqlService</code> that shares the connection pool, {@link DbmsMeta} and
+     * identifier pattern of this one, so that several schemas can be analyzed at the same time
+     * without each of them connecting on its own.
+     * Its connection is borrowed from the pool and handed back by {@link #close()}.
+     * It can't connect to another url, see {@link #isConnectedTo(Config)}.
+     *
+     * @param leaseConnections whether the returned service should lease connections from the pool
+     * @throws SQLException if unable to obtain a connection
+     */
+    public SqlService share(boolean leaseConnections) throws SQLException {
+        if (Objects.isNull(connectionPool)) {
+            throw new IllegalStateException("No connection pool to share, connect with more than one connection first");
+        }
+        SqlService shared = new SqlService();
+        shared.sharedPool = connectionPool;
+        shared.connection = connectionPool.borrow();
+        try {
+            shared.databaseMetaData = shared.connection.getMetaData();
+        } catch (SQLException sqlException) {
+            shared.close();
+            throw sqlException;
+        }
+        shared.connectionUrl = connectionUrl;
+        shared.dbmsService = dbmsService;
+        shared.dbmsMeta = dbmsMeta;
+        shared.invalidIdentifierPattern = invalidIdentifierPattern;
+        shared.allKeywords = allKeywords;
+        shared.parsedSql = parsedSql;
+        shared.statementCache = statementCache;
+        shared.defaultFetchSize = defaultFetchSize;
+        shared.fetchSizesByName = fetchSizesByName;
+        shared.fetchSizesBySql = fetchSizesBySql;
+        shared.instrumentation = instrumentation;
+        shared.queryTimeout = queryTimeout;
+        if (leaseConnections) {
+            shared.connectionPool = connectionPool;
+        }
+        return shared;
+    }
 
     /**
      * Return a <code>Pattern</code> whose matcher will return <code>true</code>
@@ -100,12 +243,89 @@ public class SqlService {
         return Pattern.compile("[^" + validChars + "]");
     }
 
+    /**
+     * Bind a pooled connection to the calling thread until the returned lease is closed.
+     * While bound {@link #getConnection()}, {@link #getDatabaseMetaData()} and the
+     * <code>prepareStatement</code> methods use that connection instead of the shared one.
+     * If no pool is configured, or the thread already holds a lease, the shared/held connection is used.
+     *
+     * @return lease that must be closed to hand the connection back
+     * @throws SQLException if unable to obtain a connection
+     */
+    public ConnectionLease leaseConnection() throws SQLException {
+        if (Objects.isNull(connectionPool) || Objects.nonNull(currentLease.get())) {
+            return () -> {};
+        }
+        ConnectionPool pool = connectionPool;
+        Connection pooled = pool.borrow();
+        Lease lease;
+        try {
+            lease = new Lease(pooled, pooled.getMetaData());
+        } catch (SQLException sqlException) {
+            pool.release(pooled);
+            throw sqlException;
+        }
+        currentLease.set(lease);
+        return () -> {
+            currentLease.remove();
+            pool.release(pooled);
+        };
+    }
+
+    private void closeConnectionPool() {
+        if (Objects.nonNull(connectionPool)) {
+            // a shared pool is closed by the service that created it
+            if (Objects.isNull(sharedPool)) {
+                connectionPool.close();
+            }
+            connectionPool = null;
+        }
+    }
+
+    public void close() {
+        if (Objects.isNull(sharedPool)) {
+            // statements of pooled connections are kept while the pool is shared
+            statementCache.close();
+        }
+        // a shared service lets go of the cache it shares as well, closing it again mustn't close that
+        statementCache = new StatementCache(MAX_STATEMENTS_PER_CONNECTION);
+        closeConnectionPool();
+        if (Objects.nonNull(sharedPool)) {
+            if (Objects.nonNull(connection)) {
+                sharedPool.release(connection);
+            }
+            sharedPool = null;
+        } else if (Objects.nonNull(connection)) {
+            try {
+                connection.close();
+            } catch (SQLException sqlException) {
+                LOGGER.debug("Failed to close connection", sqlException);
+            }
+        }
+        connection = null;
+        connectionUrl = null;
+        if (Objects.nonNull(instrumentation)) {
+            instrumentation.clear();
+        }
+    }
+
     public Connection getConnection() {
-        return connection;
+        Connection current = getUninstrumentedConnection();
+        return Objects.isNull(instrumentation) ? current : instrumentation.connection(current);
     }
 
     public DatabaseMetaData getDatabaseMetaData() {
-        return databaseMetaData;
+        Lease lease = currentLease.get();
+        DatabaseMetaData current = Objects.isNull(lease) ? databaseMetaData : lease.databaseMetaData;
+        return Objects.isNull(instrumentation) ? current : instrumentation.metaData(current);
+    }
+
+    /**
+     * The connection itself, statements are cached per actual connection and instrumented per table
+     */
+    private Connection getUninstrumentedConnection() {
+        Lease lease = currentLease.get();
+        return Objects.isNull(lease) ? connection : lease.connection;
     }
 
     public DbmsMeta getDbmsMeta() {
@@ -120,6 +340,8 @@ public class SqlService {
      * <li>:owner - alias for :schema
      * <li>:table - replaced with the name of the table
      * </ol>
+     * The SQL is parsed once and its statement is kept open per connection, closing the returned
+     * statement hands it back for the next call with the same SQL, e.g. for the next table.
      *
      * @param sql       String - SQL without question marks
      * @param tableName String - <code>null</code> if the statement doesn't deal with <code>Table</code>-level details.
@@ -127,12 +349,22 @@ public class SqlService {
      * @throws SQLException
      */
     public PreparedStatement prepareStatement(String sql, Database db, String tableName) throws SQLException {
-        StringBuilder sqlBuf = new StringBuilder(sql);
-        List<String> sqlParams = getSqlParams(sqlBuf, db.getName(), db.getCatalog().getName(), db.getSchema().getName(), tableName); // modifies sqlBuf
-        LOGGER.debug("{} {}", sqlBuf, sqlParams);
+        ParsedSql parsed = parsedSql.computeIfAbsent(sql, ParsedSql::parse);
+        List<String> sqlParams = parsed.getSqlParams(db.getName(), db.getCatalog().getName(), db.getSchema().getName(), tableName);
+        LOGGER.debug("{} {}", parsed.sql, sqlParams);
 
-        PreparedStatement stmt = connection.prepareStatement(sqlBuf.toString());
+        PreparedStatement stmt = statementCache.prepareStatement(getUninstrumentedConnection(), parsed.sql);
+        if (Objects.nonNull(instrumentation)) {
+            stmt = instrumentation.statement(stmt, sql, tableName);
+        }
         try {
+            int fetchSize = fetchSizesBySql.getOrDefault(sql, defaultFetchSize);
+            if (fetchSize > 0) {
+                stmt.setFetchSize(fetchSize);
+            }
+            if (queryTimeout > 0) {
+                stmt.setQueryTimeout(queryTimeout);
+            }
             for (int i = 0; i < sqlParams.size(); ++i) {
                 stmt.setString(i + 1, sqlParams.get(i));
             }
@@ -145,48 +377,34 @@ public class SqlService {
     }
 
     /**
-     * Replaces named parameters in <code>sql</code> with question marks and
-     * returns appropriate matching values in the returned <code>List</code> of <code>String</code>s.
+     * Apply the fetch size configured for the <code>DatabaseMetaData</code> method that returned <code>resultSet</code>,
+     * e.g. <code>fetchSize.getColumns</code>, or the default fetch size.
+     * Drivers are free to ignore it, those that refuse it are left alone.
      *
-     * @param sql       StringBuffer input SQL with named parameters, output named params are replaced with ?'s.
-     * @param tableName String
-     * @return List of Strings
-     * @see #prepareStatement(String, Database, String)
+     * @param metaDataMethod name of the <code>DatabaseMetaData</code> method, e.g. <code>getColumns</code>
      */
-    private static List<String> getSqlParams(StringBuilder sql, String dbName, String catalog, String schema, String tableName) {
-        Map<String, String> namedParams = new HashMap<>();
-        if (Objects.isNull(schema)) {
-            schema = dbName; // some 'schema-less' db's treat the db name like a schema (unusual case)
-        }
-        
-        namedParams.put(":dbname", dbName);
-        namedParams.put(":schema", schema);
-        namedParams.put(":owner", schema); // alias for :schema
-        if (Objects.nonNull(tableName)) {
-            namedParams.put(":table", tableName);
-            namedParams.put(":view", tableName); // alias for :table
-        }
-        if (Objects.nonNull(catalog)) {
-            namedParams.put(":catalog", catalog);
-        }
-
-        List<String> sqlParams = new ArrayList<>();
-        int nextColon = sql.indexOf(":");
-        while (nextColon != -1) {
-            String paramName = new StringTokenizer(sql.substring(nextColon), " ,\"')").nextToken();
-            String paramValue = namedParams.get(paramName);
-            if (Objects.isNull(paramValue))
-                throw new InvalidConfigurationException("Unexpected named parameter '" + paramName + "' found in SQL '" + sql + "'");
-            sqlParams.add(paramValue);
-            sql.replace(nextColon, nextColon + paramName.length(), "?"); // replace with a ?
-            nextColon = sql.indexOf(":", nextColon);
+    public void applyFetchSize(ResultSet resultSet, String metaDataMethod) {
+        int fetchSize = fetchSizesByName.getOrDefault(metaDataMethod, defaultFetchSize);
+        if (fetchSize > 0) {
+            try {
+                resultSet.setFetchSize(fetchSize);
+            } catch (SQLException sqlException) {
+                LOGGER.debug("Driver refused fetch size {} for {}", fetchSize, metaDataMethod, sqlException);
+            }
         }
-
-        return sqlParams;
     }
 
     public PreparedStatement prepareStatement(String sqlQuery) throws SQLException {
-        return connection.prepareStatement(sqlQuery);
+        PreparedStatement stmt = getConnection().prepareStatement(sqlQuery);
+        if (queryTimeout > 0) {
+            try {
+                stmt.setQueryTimeout(queryTimeout);
+            } catch (SQLException exc) {
+                stmt.close();
+                throw exc;
+            }
+        }
+        return stmt;
     }
 
     public String getQualifiedTableName(String catalog, String schema, String tableName, boolean forceQuotes) {
@@ -235,4 +453,82 @@ public class SqlService {
         String quote = dbmsMeta.getIdentifierQuoteString();
         return quote + id + quote;
     }
+
+    /**
+     * Handle on a connection bound to the current thread, see {@link #leaseConnection()}.
+     */
+    @FunctionalInterface
+    public interface ConnectionLease extends AutoCloseable {
+        @Override
+        void close();
+    }
+
+    /**
+     * SQL with its named parameters replaced by question marks, along with the names in order of appearance
+     */
+    private static final class ParsedSql {
+        private final String originalSql;
+        private final String sql;
+        private final List<String> paramNames;
+
+        private ParsedSql(String originalSql, String sql, List<String> paramNames) {
+            this.originalSql = originalSql;
+            this.sql = sql;
+            this.paramNames = paramNames;
+        }
+
+        private static ParsedSql parse(String originalSql) {
+            StringBuilder sql = new StringBuilder(originalSql);
+            List<String> paramNames = new ArrayList<>();
+            int nextColon = sql.indexOf(":");
+            while (nextColon != -1) {
+                String paramName = new StringTokenizer(sql.substring(nextColon), " ,\"')").nextToken();
+                paramNames.add(paramName);
+                sql.replace(nextColon, nextColon + paramName.length(), "?"); // replace with a ?
+                nextColon = sql.indexOf(":", nextColon);
+            }
+            return new ParsedSql(originalSql, sql.toString(), Collections.unmodifiableList(paramNames));
+        }
+
+        /**
+         * @return the values of the named parameters in order of appearance
+         * @see SqlService#prepareStatement(String, Database, String)
+         */
+        private List<String> getSqlParams(String dbName, String catalog, String schema, String tableName) {
+            Map<String, String> namedParams = new HashMap<>();
+            if (Objects.isNull(schema)) {
+                schema = dbName; // some 'schema-less' db's treat the db name like a schema (unusual case)
+            }
+
+            namedParams.put(":dbname", dbName);
+            namedParams.put(":schema", schema);
+            namedParams.put(":owner", schema); // alias for :schema
+            if (Objects.nonNull(tableName)) {
+                namedParams.put(":table", tableName);
+                namedParams.put(":view", tableName); // alias for :table
+            }
+            if (Objects.nonNull(catalog)) {
+                namedParams.put(":catalog", catalog);
+            }
+
+            List<String> sqlParams = new ArrayList<>(paramNames.size());
+            for (String paramName : paramNames) {
+                String paramValue = namedParams.get(paramName);
+                if (Objects.isNull(paramValue))
+                    throw new InvalidConfigurationException("Unexpected named parameter '" + paramName + "' found in SQL '" + originalSql + "'");
+                sqlParams.add(paramValue);
+            }
+            return sqlParams;
+        }
+    }
+
+    private static final class Lease {
+        private final Connection connection;
+        private final DatabaseMetaData databaseMetaData;
+
+        private Lease(Connection connection, DatabaseMetaData databaseMetaData) {
+            this.connection = connection;
+            this.databaseMetaData = databaseMetaData;
+        }
+    }
 }
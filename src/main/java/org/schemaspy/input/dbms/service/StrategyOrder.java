@@ -0,0 +1,58 @@
+package org.schemaspy.input.dbms.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * Several ways of getting the same detail of a table, like the number of rows, in the order they should be tried.
+ * <p>
+ * Ways that keep failing without ever succeeding are moved to the end, so that for the remaining tables
+ * the way that works on this database is tried first instead of after a number of doomed queries.
+ * The others are still tried if it fails.
+ */
+final class StrategyOrder<T> {
+
+    /**
+     * Failures without a single success before a strategy is tried last
+     */
+    private static final int FAILURES_BEFORE_DEMOTION = 3;
+
+    private final List<T> strategies;
+    private final AtomicIntegerArray successes;
+    private final AtomicIntegerArray failures;
+
+    /**
+     * @param strategies in the order they should be tried until proven not to work
+     */
+    StrategyOrder(List<T> strategies) {
+        this.strategies = new ArrayList<>(strategies);
+        this.successes = new AtomicIntegerArray(strategies.size());
+        this.failures = new AtomicIntegerArray(strategies.size());
+    }
+
+    /**
+     * @return the strategies that work (or haven't been proven not to) in their original order, followed by the rest
+     */
+    List<T> inOrder() {
+        List<T> working = new ArrayList<>(strategies.size());
+        List<T> failing = new ArrayList<>();
+        for (int i = 0; i < strategies.size(); ++i) {
+            if (successes.get(i) == 0 && failures.get(i) >= FAILURES_BEFORE_DEMOTION) {
+                failing.add(strategies.get(i));
+            } else {
+                working.add(strategies.get(i));
+            }
+        }
+        working.addAll(failing);
+        return working;
+    }
+
+    void succeeded(T strategy) {
+        successes.incrementAndGet(strategies.indexOf(strategy));
+    }
+
+    void failed(T strategy) {
+        failures.incrementAndGet(strategies.indexOf(strategy));
+    }
+}
@@ -26,20 +26,32 @@ package org.schemaspy.input.dbms.service;
 import org.schemaspy.input.dbms.service.helper.ExportForeignKey;
 import org.schemaspy.input.dbms.service.helper.ImportForeignKey;
 import org.schemaspy.input.dbms.service.helper.RemoteTableIdentifier;
+import org.schemaspy.input.dbms.snapshot.Snapshot;
+import org.schemaspy.input.dbms.snapshot.TableSnapshot;
 import org.schemaspy.input.dbms.xml.ForeignKeyMeta;
 import org.schemaspy.input.dbms.xml.TableColumnMeta;
 import org.schemaspy.input.dbms.xml.TableMeta;
 import org.schemaspy.model.*;
+import org.schemaspy.validator.ExactNames;
+import org.schemaspy.validator.NameValidator;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.lang.invoke.MethodHandles;
+import java.math.BigDecimal;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.Optional;
 import java.util.Properties;
 import java.util.regex.Pattern;
 import java.util.stream.Stream;
@@ -65,12 +77,20 @@ public class TableService {
     private final SqlService sqlService;
     private final boolean exportedKeys;
     private final boolean multiSchemas;
-    private final Pattern include;
-    private final Pattern exclude;
+    private final NameValidator referencedTables;
     private final Properties dbProperties;
     private final ColumnService columnService;
     private final IndexService indexService;
+    private final TimeBudget timeBudget;
+    private final RowCounting rowCounting;
+    private final StrategyOrder<RowCountQuery> rowCountQueries;
 
+    /**
+     * @param timeBudget   decides whether row counts and exported keys are still gathered
+     * @param rowCounting  how {@link #fetchNumRows(Database, Table)} counts rows
+     * @param includeNames tables referenced by foreign keys that are included besides those matching <code>include</code>
+     * @param excludeNames tables referenced by foreign keys that are excluded besides those matching <code>exclude</code>
+     */
     public TableService(
             SqlService sqlService,
             boolean exportedKeys,
@@ -79,23 +99,91 @@ public class TableService {
             Pattern exclude,
             Properties dbProperties,
             ColumnService columnService,
-            IndexService indexService
+            IndexService indexService,
+            TimeBudget timeBudget,
+            RowCounting rowCounting,
+            ExactNames includeNames,
+            ExactNames excludeNames
     ) {
         this.sqlService = Objects.requireNonNull(sqlService);
         this.exportedKeys = exportedKeys;
         this.multiSchemas = multiSchemas;
-        this.include = include;
-        this.exclude = exclude;
+        this.referencedTables = new NameValidator("table", include, exclude, includeNames, excludeNames, new String[0]);
         this.dbProperties = dbProperties;
         this.columnService = Objects.requireNonNull(columnService);
         this.indexService = Objects.requireNonNull(indexService);
+        this.timeBudget = Objects.requireNonNull(timeBudget);
+        this.rowCounting = Objects.requireNonNull(rowCounting);
+        this.rowCountQueries = new StrategyOrder<>(RowCountQuery.of(rowCounting.getMode()));
     }
 
     public void gatheringTableDetails(Database database, Table table) throws SQLException {
-        columnService.gatherColumns(table);
+        gatheringTableDetails(database, table, false);
+    }
+
+    /**
+     * @param columnsGathered <code>true</code> if columns already has been gathered with {@link #gatherColumns(Database, Collection)}
+     */
+    public void gatheringTableDetails(Database database, Table table, boolean columnsGathered) throws SQLException {
+        if (columnsGathered) {
+            columnService.gatherColumnDetails(table);
+        } else {
+            columnService.gatherColumns(table);
+        }
+        indexService.gatherIndexes(database, table);
+    }
+
+    /**
+     * Takes the columns, indexes and primary key of <code>table</code> from <code>tableSnapshot</code>
+     * instead of gathering them, for a table that is known not to have changed since.
+     */
+    public void restoreTable(Database database, Table table, TableSnapshot tableSnapshot) throws SQLException {
+        columnService.restoreColumns(table, tableSnapshot);
+        indexService.restoreIndexes(database, table, tableSnapshot);
+    }
+
+    /**
+     * Like {@link #gatheringTableDetails(Database, Table, boolean)} but if the columns of <code>table</code>
+     * show that they haven't changed since <code>snapshot</code> their details are taken from the snapshot.
+     * Indexes and the primary key are gathered regardless, unchanged columns don't mean those haven't changed.
+     */
+    public void gatheringTableDetails(Database database, Table table, boolean columnsGathered, Snapshot snapshot) throws SQLException {
+        if (!columnsGathered) {
+            columnService.initColumns(table);
+        }
+        Optional<TableSnapshot> unchanged = snapshot.unchanged(table);
+        if (unchanged.isPresent()) {
+            LOGGER.debug("Columns of {} are unchanged since the snapshot, reusing their details", table.getFullName());
+            columnService.restoreColumnDetails(table, unchanged.get());
+        } else {
+            columnService.gatherColumnDetails(table);
+        }
         indexService.gatherIndexes(database, table);
     }
 
+    /**
+     * Gathers the columns of all <code>tables</code> in one go, see {@link ColumnService#gatherColumns(Database, Collection)}
+     *
+     * @return <code>true</code> if the columns were gathered, <code>false</code> if they still need to be gathered per table
+     */
+    public boolean gatherColumns(Database database, Collection<? extends Table> tables) {
+        return columnService.gatherColumns(database, tables);
+    }
+
+    /**
+     * Gathers the indexes of all tables in one go, see {@link IndexService#gatherIndexes(Database)}
+     */
+    public void gatherIndexes(Database database) throws SQLException {
+        indexService.gatherIndexes(database);
+    }
+
+    /**
+     * Determines auto updated columns of all tables in one go, see {@link ColumnService#initColumnAutoUpdate(Database)}
+     */
+    public void gatherAutoUpdateColumns(Database database) {
+        columnService.initColumnAutoUpdate(database);
+    }
+
     /**
      * "Connect" all of this table's foreign keys to their referenced primary keys
      * (and, in some cases, do the reverse as well).
@@ -104,51 +192,203 @@ public class TableService {
      * @throws SQLException
      */
     public void connectForeignKeys(Database db, Table table, Map<String, Table> tables) throws SQLException {
-        LOGGER.trace("Connecting foreign keys to {}", table.getFullName());
+        applyForeignKeys(db, table, fetchForeignKeys(table), tables);
+    }
 
+    /**
+     * Like {@link #connectForeignKeys(Database, Table, Map)} but reuses the foreign keys from <code>snapshot</code>
+     * if <code>table</code> hasn't changed since, see {@link #fetchForeignKeys(Table, Snapshot)}
+     */
+    public void connectForeignKeys(Database db, Table table, Map<String, Table> tables, Snapshot snapshot) {
+        applyForeignKeys(db, table, fetchForeignKeys(table, snapshot), tables);
+    }
 
+    /**
+     * Like {@link #fetchForeignKeys(Table)} but takes the imported keys from <code>snapshot</code>
+     * if <code>table</code> hasn't changed since according to the time of its last DDL.
+     * Exported keys are always retrieved, other tables can start or stop referencing
+     * <code>table</code> without changing it. Either way they're recorded for the next snapshot.
+     */
+    public FetchedForeignKeys fetchForeignKeys(Table table, Snapshot snapshot) {
+        Optional<TableSnapshot> unchanged = snapshot.reused(table)
+                .filter(TableSnapshot::hasForeignKeys);
+        FetchedForeignKeys foreignKeys;
+        if (unchanged.isPresent()) {
+            LOGGER.trace("Reusing imported keys of {} from the snapshot", table.getFullName());
+            foreignKeys = fetchKeys(table, new ArrayList<>(unchanged.get().getImportedKeys()));
+        } else {
+            foreignKeys = fetchForeignKeys(table);
+        }
+        // keys that weren't retrieved mustn't end up in the snapshot as if there were none
+        if (foreignKeys.importedKeysRetrieved) {
+            snapshot.recordForeignKeys(table, foreignKeys.importedKeys,
+                    this.exportedKeys && foreignKeys.exportedKeysRetrieved ? foreignKeys.exportedKeys : null);
+        }
+        return foreignKeys;
+    }
+
+    /**
+     * First half of {@link #connectForeignKeys(Database, Table, Map)}, retrieves the foreign keys
+     * of <code>table</code> without touching the model so it can be called from several threads.
+     */
+    public FetchedForeignKeys fetchForeignKeys(Table table) {
+        LOGGER.trace("Fetching foreign keys of {}", table.getFullName());
+        return fetchKeys(table, null);
+    }
+
+    /**
+     * @param reusedImportedKeys imported keys taken from a snapshot, <code>null</code> to retrieve them
+     */
+    private FetchedForeignKeys fetchKeys(Table table, List<ImportForeignKey> reusedImportedKeys) {
+        boolean failed = false;
+        List<ImportForeignKey> importedKeys = reusedImportedKeys;
+        if (Objects.isNull(importedKeys)) {
+            try {
+                importedKeys = fetchImportedKeys(table);
+            } catch (SQLException sqlex) {
+                LOGGER.warn("Failed to getImportedKeys", sqlex);
+                failed = true;
+            }
+        }
+        List<ExportForeignKey> exportedKeys = null;
+        try {
+            exportedKeys = fetchExportedKeys(table);
+        } catch (SQLException sqlex) {
+            if (!timeBudget.timedOut(TimeBudget.Detail.EXPORTED_KEYS, sqlex)) {
+                LOGGER.warn("Failed to getExportedKeys", sqlex);
+            }
+            failed = true;
+        }
+        return new FetchedForeignKeys(importedKeys, exportedKeys, failed);
+    }
+
+    private List<ImportForeignKey> fetchImportedKeys(Table table) throws SQLException {
+        List<ImportForeignKey> importedKeys = new ArrayList<>();
         try (ResultSet rs = sqlService.getDatabaseMetaData().getImportedKeys(table.getCatalog(), table.getSchema(), table.getName())) {
+            sqlService.applyFetchSize(rs, "getImportedKeys");
             // get our foreign keys that reference other tables' primary keys
-            ArrayList<ImportForeignKey> importedKeys = new ArrayList<>();
-
             while (rs.next()) {
                 importedKeys.add(new ImportForeignKey.Builder()
                         .fromImportKeysResultSet(rs)
                         .build());
             }
-
-            for(ImportForeignKey importedKey : importedKeys) {
-                addForeignKey(db, table, importedKey, tables);
-            }
-        } catch (SQLException sqlex) {
-            LOGGER.warn("Failed to getImportedKeys", sqlex);
         }
+        return importedKeys;
+    }
 
+    /**
+     * @return <code>null</code> if they were skipped to stay within the time budget
+     */
+    private List<ExportForeignKey> fetchExportedKeys(Table table) throws SQLException {
         // also try to find all of the 'remote' tables in other schemas that
         // point to our primary keys (not necessary in the normal case
         // as we infer this from the opposite direction)
-        if ((table.getSchema() != null || table.getCatalog() != null) && exportedKeys ) {
+        List<ExportForeignKey> exportedKeys = new ArrayList<>();
+        if ((table.getSchema() != null || table.getCatalog() != null) && this.exportedKeys) {
+            if (!timeBudget.allows(TimeBudget.Detail.EXPORTED_KEYS)) {
+                return null;
+            }
             try (ResultSet rs = sqlService.getDatabaseMetaData().getExportedKeys(table.getCatalog(), table.getSchema(), table.getName())) {
+                sqlService.applyFetchSize(rs, "getExportedKeys");
                 // get the foreign keys that reference our primary keys
                 // note that this can take an insane amount of time on Oracle (i.e. 30 secs per call)
-
-                ArrayList<ExportForeignKey> exportedKeys = new ArrayList<>();
-
                 while (rs.next()) {
                     exportedKeys.add(new ExportForeignKey.Builder()
                             .fromExportedKeysResultSet(rs)
                             .build());
                 }
+            }
+        }
+        return exportedKeys;
+    }
 
-                for(ExportForeignKey exportedKey : exportedKeys) {
-                    if (isRemote(table, exportedKey)) {
-                        addRemoteTable(db, RemoteTableIdentifier.from(exportedKey), table.getSchema());
+    /**
+     * Second half of {@link #connectForeignKeys(Database, Table, Map)}, "connects" foreign keys
+     * retrieved by {@link #fetchForeignKeys(Table)}. Changes the model so must not be called concurrently.
+     */
+    public void applyForeignKeys(Database db, Table table, FetchedForeignKeys foreignKeys, Map<String, Table> tables) {
+        LOGGER.trace("Connecting foreign keys to {}", table.getFullName());
+
+        try {
+            for (ImportForeignKey importedKey : foreignKeys.importedKeys) {
+                addForeignKey(db, table, importedKey, tables);
+            }
+        } catch (SQLException sqlex) {
+            LOGGER.warn("Failed to connect imported keys of {}", table.getFullName(), sqlex);
+        }
+
+        try {
+            for (ExportForeignKey exportedKey : foreignKeys.exportedKeys) {
+                if (isRemote(table, exportedKey)) {
+                    addRemoteTable(db, RemoteTableIdentifier.from(exportedKey), table.getSchema());
+                }
+            }
+        } catch (SQLException sqlex) {
+            LOGGER.warn("Failed to connect exported keys of {}", table.getFullName(), sqlex);
+        }
+    }
+
+    /**
+     * "Connect" the foreign keys of all <code>tables</code> in one go using <code>selectForeignKeysSql</code>
+     * instead of calling {@link #connectForeignKeys(Database, Table, Map)} for each table.
+     * <p>
+     * Rows where the foreign key table isn't one of ours are treated as exported keys,
+     * that is remote tables referencing our primary keys.
+     *
+     * @return <code>true</code> if the foreign keys were connected, <code>false</code> if they still need to be connected per table
+     * @throws SQLException
+     */
+    public boolean connectForeignKeys(Database db, Map<String, Table> tables) throws SQLException {
+        String sql = dbProperties.getProperty("selectForeignKeysSql");
+        if (Objects.isNull(sql)) {
+            return false;
+        }
+
+        Map<String, List<ImportForeignKey>> importedKeys = new LinkedHashMap<>();
+        Map<ExportForeignKey, Table> exportedKeysByPkTable = new LinkedHashMap<>();
+        try (PreparedStatement stmt = sqlService.prepareStatement(sql, db, null);
+             ResultSet rs = stmt.executeQuery()) {
+            while (rs.next()) {
+                ExportForeignKey exportedKey = new ExportForeignKey.Builder()
+                        .fromExportedKeysResultSet(rs)
+                        .build();
+                Table table = tables.get(exportedKey.getFkTableName());
+                if (Objects.nonNull(table) && isLocal(db, table, exportedKey)) {
+                    importedKeys.computeIfAbsent(table.getName(), name -> new ArrayList<>())
+                            .add(new ImportForeignKey.Builder().fromImportKeysResultSet(rs).build());
+                } else if (exportedKeys) {
+                    Table pkTable = tables.get(rs.getString("PKTABLE_NAME"));
+                    if (Objects.nonNull(pkTable)) {
+                        exportedKeysByPkTable.put(exportedKey, pkTable);
                     }
                 }
-            } catch (SQLException sqlex) {
-                LOGGER.warn("Failed to getExportedKeys", sqlex);
+            }
+        } catch (SQLException sqlException) {
+            LOGGER.warn("Failed to retrieve foreign keys using {}, falling back to per table lookup", sql, sqlException);
+            return false;
+        }
+
+        for (Map.Entry<String, List<ImportForeignKey>> entry : importedKeys.entrySet()) {
+            Table table = tables.get(entry.getKey());
+            for (ImportForeignKey importedKey : entry.getValue()) {
+                addForeignKey(db, table, importedKey, tables);
+            }
+        }
+        for (Map.Entry<ExportForeignKey, Table> entry : exportedKeysByPkTable.entrySet()) {
+            Table pkTable = entry.getValue();
+            if (pkTable.getSchema() != null || pkTable.getCatalog() != null) {
+                addRemoteTable(db, RemoteTableIdentifier.from(entry.getKey()), pkTable.getSchema());
             }
         }
+        return true;
+    }
+
+    private static boolean isLocal(Database db, Table table, ExportForeignKey foreignKey) {
+        String fkContainer = Stream.of(foreignKey.getFkTableSchema(), foreignKey.getFkTableCat(), db.getName())
+                .filter(Objects::nonNull)
+                .findFirst()
+                .orElse(null);
+        return table.getContainer().equals(fkContainer);
     }
 
     private static boolean isRemote(Table table, ExportForeignKey foreignKey) {
@@ -243,7 +483,7 @@ public class TableService {
     }
 
     private boolean shouldExclude(String databaseName, ImportForeignKey foreignKey) {
-        if (!include.matcher(foreignKey.getPkTableName()).matches() || exclude.matcher(foreignKey.getPkTableName()).matches()) {
+        if (!referencedTables.isIncluded(foreignKey.getPkTableName())) {
             LOGGER.debug("Ignoring {} referenced by FK {}", Table.getFullName(
                     databaseName,
                     foreignKey.getPkTableCat(),
@@ -256,8 +496,56 @@ public class TableService {
     }
 
 
+    /**
+     * Ways of counting the rows of a table
+     */
+    private enum RowCountQuery {
+        CUSTOM(null, false),
+        STATISTICS(null, false),
+        COUNT_STAR("count(*)", false),
+        COUNT_STAR_QUOTED("count(*)", true),
+        // nested tables need '1' instead of '*'
+        COUNT_ONE("count(1)", false),
+        COUNT_ONE_QUOTED("count(1)", true),
+        SAMPLED("count(*)", false),
+        SAMPLED_QUOTED("count(*)", true);
+
+        private final String clause;
+        private final boolean forceQuotes;
+
+        RowCountQuery(String clause, boolean forceQuotes) {
+            this.clause = clause;
+            this.forceQuotes = forceQuotes;
+        }
+
+        /**
+         * The queries of <code>mode</code> in the order they're tried
+         */
+        private static List<RowCountQuery> of(RowCountMode mode) {
+            switch (mode) {
+                case EXACT:
+                case TIMED:
+                    return Arrays.asList(COUNT_STAR, COUNT_STAR_QUOTED, COUNT_ONE, COUNT_ONE_QUOTED);
+                case STATS:
+                    return Collections.singletonList(STATISTICS);
+                case SAMPLED:
+                    return Arrays.asList(SAMPLED, SAMPLED_QUOTED, STATISTICS);
+                default:
+                    return Arrays.asList(CUSTOM, COUNT_STAR, COUNT_STAR_QUOTED, COUNT_ONE, COUNT_ONE_QUOTED);
+            }
+        }
+
+        private boolean isCustom() {
+            return this == CUSTOM || this == STATISTICS;
+        }
+    }
+
     /**
      * Fetch the number of rows contained in this table.
+     * <p>
+     * Which queries are tried depends on the {@link RowCountMode}, by default <code>selectRowCountSql</code>,
+     * then <code>count(*)</code> and <code>count(1)</code> without and with quotes,
+     * starting with the one that has worked for the previous tables.
      *
      * returns -1 if unable to successfully fetch the row count
      *
@@ -269,38 +557,63 @@ public class TableService {
         if (table.isView() || table.isRemote())
             return -1;
 
-        SQLException originalFailure = null;
+        if (!timeBudget.allows(TimeBudget.Detail.ROW_COUNTS))
+            return -1;
 
-        String sql = dbProperties.getProperty("selectRowCountSql");
-        if (sql != null) {
+        Map<RowCountQuery, SQLException> failures = new EnumMap<>(RowCountQuery.class);
+        for (RowCountQuery query : rowCountQueries.inOrder()) {
+            String sql = customRowCountSql(query);
+            if (query.isCustom() && sql == null)
+                continue;
             try {
-                return fetchNumRows(db, table, sql);
+                long numRows = query.isCustom()
+                        ? fetchNumRows(db, table, sql)
+                        : fetchNumRows(table, query);
+                rowCountQueries.succeeded(query);
+                return numRows;
             } catch (SQLException sqlException) {
+                if (rowCounting.getMode() == RowCountMode.TIMED && TimeBudget.isTimeout(sqlException)) {
+                    // that's what this mode is for, the next table may well be smaller
+                    LOGGER.debug("Counting the rows of '{}' took longer than {} seconds", table.getFullName(), rowCounting.getTimeout());
+                    return -1;
+                }
+                // trying other queries won't be any faster
+                if (timeBudget.timedOut(TimeBudget.Detail.ROW_COUNTS, sqlException))
+                    return -1;
                 // don't die just because this failed
-                originalFailure = sqlException;
-                LOGGER.debug("Failed to fetch number of rows for '{}' using custom query: '{}'", table.getFullName(), sql, sqlException);
+                rowCountQueries.failed(query);
+                failures.put(query, sqlException);
+                LOGGER.debug("Failed to fetch number of rows for '{}' using {}", table.getFullName(), describe(query, sql), sqlException);
             }
         }
 
-        // if we get here then we either didn't have custom SQL or it didn't work
-        try {
-            // '*' should work best for the majority of cases
-            return fetchNumRows(db, table, "count(*)", false);
-        } catch (SQLException try2Exception) {
-            LOGGER.debug("Failed to fetch number of rows for '{}' using built-in query with 'count(*)'", table.getFullName(), try2Exception);
-            try {
-                // except nested tables...try using '1' instead
-                return fetchNumRows(db, table, "count(1)", false);
-            } catch (SQLException try3Exception) {
-                if (!table.isLogical()) {
-                    if (originalFailure != null)
-                        LOGGER.warn("Failed to fetch number of rows for '{}' using custom query: '{}'", table.getFullName(), sql, originalFailure);
-                    LOGGER.warn("Failed to fetch number of rows for '{}' using built-in query with 'count(*)'", table.getFullName(), try2Exception);
-                    LOGGER.warn("Failed to fetch number of rows for '{}' using built-in query with 'count(1)'", table.getFullName(), try3Exception);
-                }
-                return -1;
-            }
+        if (!table.isLogical()) {
+            // the last attempt of each query, like before queries were retried with quotes
+            failures.forEach((query, failure) -> {
+                if (query.isCustom() || query.forceQuotes)
+                    LOGGER.warn("Failed to fetch number of rows for '{}' using {}", table.getFullName(), describe(query, customRowCountSql(query)), failure);
+            });
         }
+        return -1;
+    }
+
+    private String customRowCountSql(RowCountQuery query) {
+        switch (query) {
+            case CUSTOM:
+                return dbProperties.getProperty("selectRowCountSql");
+            case STATISTICS:
+                return dbProperties.getProperty("selectRowCountStatsSql", dbProperties.getProperty("selectRowCountSql"));
+            default:
+                return null;
+        }
+    }
+
+    private String describe(RowCountQuery query, String sql) {
+        if (query.isCustom())
+            return "custom query: '" + sql + "'";
+        return "built-in query with '" + query.clause + "'"
+                + (query == RowCountQuery.SAMPLED || query == RowCountQuery.SAMPLED_QUOTED ? " of a sample" : "")
+                + (query.forceQuotes ? " and quotes" : "");
     }
 
     private long fetchNumRows(Database database, Table table, String sql) throws SQLException {
@@ -315,6 +628,26 @@ public class TableService {
     }
 
     protected long fetchNumRows(Database db, Table table, String clause, boolean forceQuotes) throws SQLException {
+        return fetchNumRows(table, clause, forceQuotes, null, 0);
+    }
+
+    private long fetchNumRows(Table table, RowCountQuery query) throws SQLException {
+        if (query == RowCountQuery.SAMPLED || query == RowCountQuery.SAMPLED_QUOTED) {
+            double percent = rowCounting.getSamplePercent();
+            String sample = dbProperties.getProperty("tableSampleClause", "TABLESAMPLE SYSTEM (:percent)")
+                    .replace(":percent", BigDecimal.valueOf(percent).stripTrailingZeros().toPlainString());
+            long sampled = fetchNumRows(table, query.clause, query.forceQuotes, sample, 0);
+            return sampled < 0 ? sampled : Math.round(sampled * 100 / percent);
+        }
+        int timeout = rowCounting.getMode() == RowCountMode.TIMED ? rowCounting.getTimeout() : 0;
+        return fetchNumRows(table, query.clause, query.forceQuotes, null, timeout);
+    }
+
+    /**
+     * @param sample  clause that limits the count to a sample of the table, <code>null</code> to count all rows
+     * @param timeout seconds after which the count is cancelled, <code>0</code> for the query timeout of all queries
+     */
+    private long fetchNumRows(Table table, String clause, boolean forceQuotes, String sample, int timeout) throws SQLException {
         StringBuilder sql = new StringBuilder("select ");
         sql.append(clause);
         sql.append(" from ");
@@ -324,20 +657,21 @@ public class TableService {
                 table.getName(),
                 forceQuotes)
         );
+        if (sample != null) {
+            sql.append(' ').append(sample);
+        }
 
         LOGGER.trace("Fetch number of rows using sql: '{}'",sql);
-        try (PreparedStatement stmt = sqlService.prepareStatement(sql.toString());
-             ResultSet rs = stmt.executeQuery()) {
-
-            if (rs.next()) {
-                return rs.getLong(1);
+        try (PreparedStatement stmt = sqlService.prepareStatement(sql.toString())) {
+            if (timeout > 0) {
+                stmt.setQueryTimeout(timeout);
+            }
+            try (ResultSet rs = stmt.executeQuery()) {
+                if (rs.next()) {
+                    return rs.getLong(1);
+                }
+                return -1;
             }
-            return -1;
-        } catch (SQLException exc) {
-            if (forceQuotes) // we tried with and w/o quotes...fail this attempt
-                throw exc;
-
-            return fetchNumRows(db, table, clause, true);
         }
     }
 
@@ -525,4 +859,35 @@ public class TableService {
             }
         }
     }
+
+    /**
+     * Foreign keys of a table as retrieved by {@link #fetchForeignKeys(Table)}
+     */
+    public static final class FetchedForeignKeys {
+        private final List<ImportForeignKey> importedKeys;
+        private final List<ExportForeignKey> exportedKeys;
+        private final boolean importedKeysRetrieved;
+        private final boolean exportedKeysRetrieved;
+        private final boolean failed;
+
+        /**
+         * @param importedKeys <code>null</code> if they couldn't be retrieved
+         * @param exportedKeys <code>null</code> if they couldn't be retrieved or were skipped
+         * @param failed       <code>true</code> if retrieving either of them threw an exception
+         */
+        FetchedForeignKeys(List<ImportForeignKey> importedKeys, List<ExportForeignKey> exportedKeys, boolean failed) {
+            this.importedKeys = Objects.isNull(importedKeys) ? Collections.emptyList() : importedKeys;
+            this.exportedKeys = Objects.isNull(exportedKeys) ? Collections.emptyList() : exportedKeys;
+            this.importedKeysRetrieved = Objects.nonNull(importedKeys);
+            this.exportedKeysRetrieved = Objects.nonNull(exportedKeys);
+            this.failed = failed;
+        }
+
+        /**
+         * @return <code>true</code> if the database failed to return some of them, e.g. since it's overloaded
+         */
+        public boolean hasFailed() {
+            return failed;
+        }
+    }
 }
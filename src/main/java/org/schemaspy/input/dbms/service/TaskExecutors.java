@@ -0,0 +1,149 @@
+package org.schemaspy.input.dbms.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Creates the executors that make database calls concurrently.
+ * <p>
+ * By default those are pools of platform threads. With virtual threads, available from Java 21,
+ * every task gets a thread of its own and a semaphore limits how many of them run at the same time,
+ * so that lots of calls waiting on the database don't cost a platform thread and its stack each.
+ */
+public final class TaskExecutors {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
+
+    // looked up so that this still runs on Java 8
+    private static final Method NEW_VIRTUAL_THREAD_PER_TASK_EXECUTOR = findVirtualThreadPerTaskExecutor();
+
+    private final boolean virtualThreads;
+
+    private TaskExecutors(boolean virtualThreads) {
+        this.virtualThreads = virtualThreads;
+    }
+
+    /**
+     * Executors with a pool of platform threads
+     */
+    public static TaskExecutors platform() {
+        return new TaskExecutors(false);
+    }
+
+    /**
+     * Executors with a virtual thread per task if the jvm has them, otherwise with a pool of platform threads
+     */
+    public static TaskExecutors virtual() {
+        if (!virtualThreadsAvailable()) {
+            LOGGER.warn("Virtual threads require Java 21 or later, using platform threads instead");
+            return platform();
+        }
+        return new TaskExecutors(true);
+    }
+
+    public static boolean virtualThreadsAvailable() {
+        return Objects.nonNull(NEW_VIRTUAL_THREAD_PER_TASK_EXECUTOR);
+    }
+
+    public boolean isVirtual() {
+        return virtualThreads;
+    }
+
+    /**
+     * @param concurrency number of tasks that may run at the same time
+     */
+    public ExecutorService newExecutor(int concurrency) {
+        if (!virtualThreads) {
+            return Executors.newFixedThreadPool(concurrency);
+        }
+        try {
+            ExecutorService perTask = (ExecutorService) NEW_VIRTUAL_THREAD_PER_TASK_EXECUTOR.invoke(null);
+            return new LimitedExecutor(perTask, concurrency);
+        } catch (IllegalAccessException | InvocationTargetException exc) {
+            LOGGER.warn("Failed to create virtual threads, using platform threads instead", exc);
+            return Executors.newFixedThreadPool(concurrency);
+        }
+    }
+
+    private static Method findVirtualThreadPerTaskExecutor() {
+        try {
+            return Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+        } catch (NoSuchMethodException notJava21) {
+            return null;
+        }
+    }
+
+    /**
+     * Runs at most <code>concurrency</code> tasks of <code>executor</code> at the same time,
+     * the others wait for a permit on their own thread.
+     */
+    private static final class LimitedExecutor extends AbstractExecutorService {
+        private final ExecutorService executor;
+        private final Semaphore permits;
+
+        private LimitedExecutor(ExecutorService executor, int concurrency) {
+            this.executor = executor;
+            this.permits = new Semaphore(Math.max(1, concurrency));
+        }
+
+        @Override
+        public void execute(Runnable command) {
+            Objects.requireNonNull(command);
+            executor.execute(() -> {
+                try {
+                    permits.acquire();
+                } catch (InterruptedException interrupted) {
+                    // shutting down, so it doesn't run without a permit,
+                    // cancelled if it was submitted so that whoever waits for it isn't left hanging
+                    Thread.currentThread().interrupt();
+                    if (command instanceof Future) {
+                        ((Future<?>) command).cancel(false);
+                    }
+                    return;
+                }
+                try {
+                    command.run();
+                } finally {
+                    permits.release();
+                }
+            });
+        }
+
+        @Override
+        public void shutdown() {
+            executor.shutdown();
+        }
+
+        @Override
+        public List<Runnable> shutdownNow() {
+            return executor.shutdownNow();
+        }
+
+        @Override
+        public boolean isShutdown() {
+            return executor.isShutdown();
+        }
+
+        @Override
+        public boolean isTerminated() {
+            return executor.isTerminated();
+        }
+
+        @Override
+        public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+            return executor.awaitTermination(timeout, unit);
+        }
+    }
+}
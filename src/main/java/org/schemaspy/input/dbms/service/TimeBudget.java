@@ -0,0 +1,123 @@
+package org.schemaspy.input.dbms.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.invoke.MethodHandles;
+import java.sql.SQLException;
+import java.sql.SQLTimeoutException;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.*;
+
+/**
+ * Keeps optional details from stalling a run: once gathering a schema has taken longer than the budget,
+ * or a query for one of the details timed out, that detail is skipped for the remaining tables.
+ * What was skipped is counted so that the output can say so.
+ */
+public class TimeBudget {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
+
+    /**
+     * Sql states of timed out or cancelled queries for drivers that don't throw <code>SQLTimeoutException</code>
+     */
+    private static final Set<String> TIMEOUT_STATES = new HashSet<>(Arrays.asList("HYT00", "HYT01", "57014"));
+
+    /**
+     * Details that the documentation can do without
+     */
+    public enum Detail {
+        ROW_COUNTS("row counts", "tables"),
+        EXPORTED_KEYS("exported keys", "tables"),
+        VIEW_DEFINITIONS("view definitions", "views"),
+        ROUTINES("routines", null);
+
+        private final String label;
+        private final String of;
+
+        Detail(String label, String of) {
+            this.label = label;
+            this.of = of;
+        }
+
+        String describe(int skipped) {
+            return Objects.isNull(of) ? label : label + " of " + skipped + " " + of;
+        }
+    }
+
+    private final Clock clock;
+    private final Duration budget;
+    private Instant deadline;
+    private final Set<Detail> abandoned = EnumSet.noneOf(Detail.class);
+    private final Map<Detail, Integer> skipped = new EnumMap<>(Detail.class);
+
+    /**
+     * @param budget how long gathering a schema may take, zero for no limit
+     */
+    public TimeBudget(Clock clock, Duration budget) {
+        this.clock = Objects.requireNonNull(clock);
+        this.budget = Objects.requireNonNull(budget);
+    }
+
+    public static TimeBudget unlimited() {
+        return new TimeBudget(Clock.systemDefaultZone(), Duration.ZERO);
+    }
+
+    /**
+     * Start gathering a schema, with the full budget and nothing skipped
+     */
+    public synchronized void start() {
+        deadline = budget.isZero() || budget.isNegative() ? null : clock.instant().plus(budget);
+        abandoned.clear();
+        skipped.clear();
+    }
+
+    /**
+     * @return <code>true</code> if <code>detail</code> should be gathered,
+     * otherwise it's counted as skipped
+     */
+    public synchronized boolean allows(Detail detail) {
+        if (!abandoned.contains(detail)) {
+            if (Objects.isNull(deadline) || clock.instant().isBefore(deadline)) {
+                return true;
+            }
+            abandoned.add(detail);
+            LOGGER.warn("Gathering took longer than the time budget of {} seconds, skipping {} from now on",
+                    budget.getSeconds(), detail.label);
+        }
+        skipped.merge(detail, 1, Integer::sum);
+        return false;
+    }
+
+    /**
+     * Call when gathering <code>detail</code> failed. If it timed out <code>detail</code> is
+     * counted as skipped and won't be gathered for the remaining tables.
+     *
+     * @return <code>true</code> if <code>failure</code> is a timeout
+     */
+    public synchronized boolean timedOut(Detail detail, SQLException failure) {
+        if (!isTimeout(failure)) {
+            return false;
+        }
+        if (abandoned.add(detail)) {
+            LOGGER.warn("Query timed out, skipping {} from now on: {}", detail.label, failure.getMessage());
+        }
+        skipped.merge(detail, 1, Integer::sum);
+        return true;
+    }
+
+    static boolean isTimeout(SQLException failure) {
+        return failure instanceof SQLTimeoutException || TIMEOUT_STATES.contains(failure.getSQLState());
+    }
+
+    /**
+     * Descriptions of what has been skipped since {@link #start()}, like <code>row counts of 12 tables</code>
+     */
+    public synchronized List<String> getSkipped() {
+        List<String> descriptions = new ArrayList<>();
+        skipped.forEach((detail, count) -> descriptions.add(detail.describe(count)));
+        return descriptions;
+    }
+}
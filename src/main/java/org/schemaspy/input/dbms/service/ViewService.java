@@ -26,6 +26,7 @@ import org.schemaspy.model.Database;
 import org.schemaspy.model.Table;
 import org.schemaspy.model.TableColumn;
 import org.schemaspy.model.View;
+import org.schemaspy.util.CaseInsensitiveMap;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -34,6 +35,9 @@ import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.ResultSetMetaData;
 import java.sql.SQLException;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Properties;
 
@@ -55,21 +59,104 @@ public class ViewService {
     private final SqlService sqlService;
     private final Properties dbProperties;
     private final ColumnService columnService;
+    private final TimeBudget timeBudget;
 
     private int deprecatedNagCounter = 0;
 
     public ViewService(SqlService sqlService, Properties dbProperties, ColumnService columnService) {
+        this(sqlService, dbProperties, columnService, TimeBudget.unlimited());
+    }
+
+    /**
+     * @param timeBudget decides whether view definitions are still gathered
+     */
+    public ViewService(SqlService sqlService, Properties dbProperties, ColumnService columnService, TimeBudget timeBudget) {
         this.sqlService = Objects.requireNonNull(sqlService);
         this.dbProperties = Objects.requireNonNull(dbProperties);
         this.columnService = Objects.requireNonNull(columnService);
+        this.timeBudget = Objects.requireNonNull(timeBudget);
     }
 
     public void gatherViewsDetails(Database database, View view) throws SQLException {
-        columnService.gatherColumns(view);
-        if (Objects.isNull(view.getViewDefinition())) {
+        gatherViewsDetails(database, view, false);
+    }
+
+    /**
+     * @param columnsGathered <code>true</code> if columns already has been gathered with {@link #gatherColumns(Database, Collection)}
+     */
+    public void gatherViewsDetails(Database database, View view, boolean columnsGathered) throws SQLException {
+        gatherViewDetails(database, view, columnsGathered);
+        database.getViewsMap().put(view.getName(), view);
+    }
+
+    /**
+     * Same as {@link #gatherViewsDetails(Database, View, boolean)} but leaves it to the caller
+     * to put the view into {@link Database#getViewsMap()}, so it can be called from several threads
+     */
+    public void gatherViewDetails(Database database, View view, boolean columnsGathered) throws SQLException {
+        gatherViewDetails(database, view, columnsGathered, false);
+    }
+
+    /**
+     * @param definitionsGathered <code>true</code> if definitions already has been gathered with {@link #gatherViewDefinitions(Database, Collection)}
+     */
+    public void gatherViewDetails(Database database, View view, boolean columnsGathered, boolean definitionsGathered) throws SQLException {
+        if (!columnsGathered) {
+            columnService.gatherColumns(view);
+        }
+        if (!definitionsGathered && Objects.isNull(view.getViewDefinition())) {
             gatherViewDefinition(database, view);
         }
-        database.getViewsMap().put(view.getName(), view);
+    }
+
+    /**
+     * Gathers the columns of all <code>views</code> in one go, see {@link ColumnService#gatherColumns(Database, Collection)}
+     *
+     * @return <code>true</code> if the columns were gathered, <code>false</code> if they still need to be gathered per view
+     */
+    public boolean gatherColumns(Database database, Collection<View> views) {
+        return columnService.gatherColumns(database, views);
+    }
+
+    /**
+     * Gathers the definitions of all <code>views</code> in one go using <code>selectAllViewDefinitionsSql</code>,
+     * instead of running <code>selectViewSql</code> once per view.
+     * Rows of the same view are appended in the order they're returned, like those of <code>selectViewSql</code>.
+     *
+     * @return <code>true</code> if the definitions were gathered, <code>false</code> if they still need to be gathered per view
+     */
+    public boolean gatherViewDefinitions(Database db, Collection<View> views) {
+        String sql = dbProperties.getProperty("selectAllViewDefinitionsSql");
+        if (sql == null || views.isEmpty() || !timeBudget.allows(TimeBudget.Detail.VIEW_DEFINITIONS)) {
+            return false;
+        }
+
+        Map<String, View> undefined = new CaseInsensitiveMap<>();
+        for (View view : views) {
+            if (Objects.isNull(view.getViewDefinition())) {
+                undefined.put(view.getName(), view);
+            }
+        }
+        Map<View, StringBuilder> definitions = new LinkedHashMap<>();
+        try (PreparedStatement stmt = sqlService.prepareStatement(sql, db, null);
+             ResultSet rs = stmt.executeQuery()) {
+            while (rs.next()) {
+                View view = undefined.get(rs.getString(VIEW_NAME));
+                String definition = rs.getString("view_definition");
+                if (Objects.nonNull(view) && Objects.nonNull(definition)) {
+                    definitions.computeIfAbsent(view, v -> new StringBuilder()).append(definition);
+                }
+            }
+        } catch (SQLException sqlException) {
+            if (!timeBudget.timedOut(TimeBudget.Detail.VIEW_DEFINITIONS, sqlException)) {
+                // don't die just because this failed, they're fetched per view instead
+                LOGGER.warn("Failed to retrieve view definitions using SQL '{}'", sql, sqlException);
+            }
+            return false;
+        }
+
+        definitions.forEach((view, definition) -> view.setViewDefinition(definition.toString()));
+        return true;
     }
 
     /**
@@ -79,7 +166,7 @@ public class ViewService {
      */
     private void gatherViewDefinition(Database db, View view) throws SQLException {
         String selectViewSql = dbProperties.getProperty("selectViewSql");
-        if (selectViewSql == null) {
+        if (selectViewSql == null || !timeBudget.allows(TimeBudget.Detail.VIEW_DEFINITIONS)) {
             return;
         }
 
@@ -87,6 +174,9 @@ public class ViewService {
             ResultSet resultSet = stmt.executeQuery()) {
             view.setViewDefinition(getViewDefinitionFromResultSet(resultSet));
         } catch (SQLException sqlException) {
+            if (timeBudget.timedOut(TimeBudget.Detail.VIEW_DEFINITIONS, sqlException)) {
+                return;
+            }
             LOGGER.error(selectViewSql);
             throw sqlException;
         }
@@ -0,0 +1,202 @@
+package org.schemaspy.input.dbms.snapshot;
+
+import org.schemaspy.input.dbms.service.helper.ExportForeignKey;
+import org.schemaspy.input.dbms.service.helper.ImportForeignKey;
+import org.schemaspy.model.Database;
+import org.schemaspy.model.Table;
+import org.schemaspy.model.TableColumn;
+import org.schemaspy.util.CaseInsensitiveMap;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Tables gathered by a previous run, used to avoid gathering the details of tables
+ * that haven't changed since, and the fingerprints and foreign keys of this run
+ * needed to {@link #capture(Database) capture} a new snapshot once gathering is done.
+ * <p>
+ * A table is considered unchanged when the fingerprint of its definition is the same as last time.
+ * The fingerprint is the time of the last DDL of the table if the database told us that time
+ * (see {@link #setDdlTimestamps(Map)}), otherwise it's based on the columns of the table
+ * as retrieved from the database before anything else is gathered about it.
+ * Columns don't tell whether indexes, the primary key or foreign keys changed,
+ * so only the time of the last DDL lets those be reused.
+ * <p>
+ * Only tables are kept. Views, routines and sequences are gathered every run, the latter two
+ * with a single query each, and remote tables follow from the foreign keys.
+ */
+public class Snapshot {
+
+    private final boolean enabled;
+    private final Map<String, TableSnapshot> previous;
+    private Map<String, String> ddlTimestamps = Collections.emptyMap();
+    private final Map<Table, String> fingerprints = new ConcurrentHashMap<>();
+    private final Map<Table, TableSnapshot> reused = new ConcurrentHashMap<>();
+    private final Map<Table, ForeignKeys> foreignKeys = new ConcurrentHashMap<>();
+    private final List<TableSnapshot> captured = new ArrayList<>();
+
+    public Snapshot(Collection<TableSnapshot> previous) {
+        this(true, previous);
+    }
+
+    private Snapshot(boolean enabled, Collection<TableSnapshot> previous) {
+        this.enabled = enabled;
+        Map<String, TableSnapshot> byName = new CaseInsensitiveMap<>();
+        previous.forEach(tableSnapshot -> byName.put(tableSnapshot.getName(), tableSnapshot));
+        this.previous = Collections.unmodifiableMap(byName);
+    }
+
+    /**
+     * @return a snapshot without any previous tables, every table will be gathered
+     */
+    public static Snapshot empty() {
+        return new Snapshot(Collections.emptyList());
+    }
+
+    /**
+     * @return a snapshot that doesn't fingerprint, record or capture anything, for runs without snapshots
+     */
+    public static Snapshot disabled() {
+        return new Snapshot(false, Collections.emptyList());
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Set when the tables were last changed, by table name. Must be set before tables are fingerprinted.
+     */
+    public void setDdlTimestamps(Map<String, String> ddlTimestamps) {
+        Map<String, String> byName = new CaseInsensitiveMap<>();
+        byName.putAll(ddlTimestamps);
+        this.ddlTimestamps = Collections.unmodifiableMap(byName);
+    }
+
+    /**
+     * @return <code>true</code> if <code>table</code> is fingerprinted by the time of its last DDL,
+     * in which case its columns don't have to be gathered to tell whether it has changed
+     */
+    public boolean hasDdlTimestamp(Table table) {
+        return ddlTimestamps.containsKey(table.getName());
+    }
+
+    /**
+     * Fingerprint <code>table</code>, its columns must have been gathered unless it {@link #hasDdlTimestamp(Table)}.
+     * Without the time of its last DDL only the details of its columns may be taken from what's returned.
+     *
+     * @return what was gathered about <code>table</code> last time, if it hasn't changed since
+     */
+    public Optional<TableSnapshot> unchanged(Table table) {
+        if (!enabled) {
+            return Optional.empty();
+        }
+        String ddlTimestamp = ddlTimestamps.get(table.getName());
+        String fingerprint = Objects.isNull(ddlTimestamp) ? fingerprint(table) : "ddl:" + ddlTimestamp;
+        fingerprints.put(table, fingerprint);
+        TableSnapshot tableSnapshot = previous.get(table.getName());
+        if (Objects.nonNull(tableSnapshot) && tableSnapshot.getFingerprint().equals(fingerprint)) {
+            if (Objects.nonNull(ddlTimestamp)) {
+                reused.put(table, tableSnapshot);
+            }
+            return Optional.of(tableSnapshot);
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * @return the previous snapshot of <code>table</code> if {@link #unchanged(Table)} found it unchanged
+     * by the time of its last DDL, so that its indexes and foreign keys can be reused as well
+     */
+    public Optional<TableSnapshot> reused(Table table) {
+        return Optional.ofNullable(reused.get(table));
+    }
+
+    /**
+     * Remember the foreign keys retrieved for <code>table</code> so they're part of the next snapshot
+     *
+     * @param exportedKeys <code>null</code> if exported keys aren't retrieved
+     */
+    public void recordForeignKeys(Table table, List<ImportForeignKey> importedKeys, List<ExportForeignKey> exportedKeys) {
+        if (!enabled) {
+            return;
+        }
+        foreignKeys.put(table, new ForeignKeys(importedKeys, exportedKeys));
+    }
+
+    /**
+     * Capture the tables of <code>db</code> that were fingerprinted during this run,
+     * should be called once their details have been gathered but before anything else changes them.
+     */
+    public void capture(Database db) {
+        if (!enabled) {
+            return;
+        }
+        List<TableSnapshot> tables = new ArrayList<>();
+        for (Table table : db.getTables()) {
+            String fingerprint = fingerprints.get(table);
+            if (Objects.nonNull(fingerprint)) {
+                ForeignKeys tableForeignKeys = foreignKeys.get(table);
+                tables.add(Objects.isNull(tableForeignKeys)
+                        ? TableSnapshot.of(table, fingerprint, null, null)
+                        : TableSnapshot.of(table, fingerprint, tableForeignKeys.importedKeys, tableForeignKeys.exportedKeys));
+            }
+        }
+        synchronized (captured) {
+            captured.clear();
+            captured.addAll(tables);
+        }
+    }
+
+    /**
+     * @return the tables captured by {@link #capture(Database)}
+     */
+    public List<TableSnapshot> getCaptured() {
+        synchronized (captured) {
+            return new ArrayList<>(captured);
+        }
+    }
+
+    static String fingerprint(Table table) {
+        StringBuilder definition = new StringBuilder();
+        append(definition, table.getName());
+        append(definition, table.getComments());
+        for (TableColumn column : table.getColumns()) {
+            append(definition, column.getName());
+            append(definition, column.getId());
+            append(definition, column.getTypeName());
+            append(definition, column.getType());
+            append(definition, column.getLength());
+            append(definition, column.getDecimalDigits());
+            append(definition, column.isNullable());
+            append(definition, column.getDefaultValue());
+            append(definition, column.getComments());
+        }
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(definition.toString().getBytes(StandardCharsets.UTF_8));
+            return Base64.getEncoder().encodeToString(digest);
+        } catch (NoSuchAlgorithmException noSha256) {
+            // every java platform is required to support SHA-256
+            throw new IllegalStateException(noSha256);
+        }
+    }
+
+    private static void append(StringBuilder definition, Object value) {
+        // length prefixed so that values can't run into each other
+        String text = String.valueOf(value);
+        definition.append(text.length()).append(':').append(text);
+    }
+
+    private static final class ForeignKeys {
+        private final List<ImportForeignKey> importedKeys;
+        private final List<ExportForeignKey> exportedKeys;
+
+        private ForeignKeys(List<ImportForeignKey> importedKeys, List<ExportForeignKey> exportedKeys) {
+            this.importedKeys = importedKeys;
+            this.exportedKeys = exportedKeys;
+        }
+    }
+}
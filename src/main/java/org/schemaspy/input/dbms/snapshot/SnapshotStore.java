@@ -0,0 +1,310 @@
+package org.schemaspy.input.dbms.snapshot;
+
+import org.schemaspy.input.dbms.service.helper.ExportForeignKey;
+import org.schemaspy.input.dbms.service.helper.ImportForeignKey;
+import org.schemaspy.input.dbms.snapshot.TableSnapshot.ColumnSnapshot;
+import org.schemaspy.input.dbms.snapshot.TableSnapshot.IndexSnapshot;
+import org.schemaspy.model.Database;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.*;
+import java.lang.invoke.MethodHandles;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Reads and writes the {@link TableSnapshot}s of a schema from/to a compressed binary file,
+ * normally {@value #FILE_NAME} in the output directory of the schema.
+ * <p>
+ * The file starts with the name, catalog and schema of the database it was captured from,
+ * a snapshot of another database is ignored.
+ */
+public class SnapshotStore {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
+
+    public static final String FILE_NAME = "schemaspy-snapshot.bin";
+
+    private static final int MAGIC = 0x53535053; // "SSPS"
+    private static final int VERSION = 1;
+
+    private static final byte ID_NULL = 0;
+    private static final byte ID_INTEGER = 1;
+    private static final byte ID_STRING = 2;
+
+    private final File file;
+
+    public SnapshotStore(File file) {
+        this.file = Objects.requireNonNull(file);
+    }
+
+    /**
+     * @return the previous snapshot of <code>db</code>, empty if there is none or it can't be read
+     */
+    public Snapshot read(Database db) {
+        if (!file.isFile()) {
+            LOGGER.info("No snapshot found at {}, gathering all tables", file);
+            return Snapshot.empty();
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new GZIPInputStream(new FileInputStream(file))))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+                LOGGER.warn("Ignoring snapshot {} since it has an unknown format", file);
+                return Snapshot.empty();
+            }
+            if (!Objects.equals(readString(in), db.getName())
+                    || !Objects.equals(readString(in), db.getCatalog().getName())
+                    || !Objects.equals(readString(in), db.getSchema().getName())) {
+                LOGGER.info("Ignoring snapshot {} since it's of another database", file);
+                return Snapshot.empty();
+            }
+            int count = in.readInt();
+            List<TableSnapshot> tables = new ArrayList<>(count);
+            for (int i = 0; i < count; ++i) {
+                tables.add(readTable(in));
+            }
+            LOGGER.info("Read snapshot of {} tables from {}", tables.size(), file);
+            return new Snapshot(tables);
+        } catch (IOException ioException) {
+            LOGGER.warn("Failed to read snapshot {}, gathering all tables", file, ioException);
+            return Snapshot.empty();
+        }
+    }
+
+    /**
+     * Write the tables captured by <code>snapshot</code>, replacing the previous snapshot
+     */
+    public void write(Database db, Snapshot snapshot) {
+        List<TableSnapshot> tables = snapshot.getCaptured();
+        File temporary = new File(file.getPath() + ".tmp");
+        try {
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new GZIPOutputStream(new FileOutputStream(temporary))))) {
+                out.writeInt(MAGIC);
+                out.writeInt(VERSION);
+                writeString(out, db.getName());
+                writeString(out, db.getCatalog().getName());
+                writeString(out, db.getSchema().getName());
+                out.writeInt(tables.size());
+                for (TableSnapshot table : tables) {
+                    writeTable(out, table);
+                }
+            }
+            // replace in one go so an interrupted run doesn't leave half a snapshot behind
+            Path target = file.toPath();
+            Files.move(temporary.toPath(), target, StandardCopyOption.REPLACE_EXISTING);
+            LOGGER.info("Wrote snapshot of {} tables to {}", tables.size(), file);
+        } catch (IOException ioException) {
+            LOGGER.warn("Failed to write snapshot {}", file, ioException);
+            if (!temporary.delete()) {
+                LOGGER.debug("Unable to delete {}", temporary);
+            }
+        }
+    }
+
+    private static void writeTable(DataOutputStream out, TableSnapshot table) throws IOException {
+        writeString(out, table.getName());
+        writeString(out, table.getFingerprint());
+
+        out.writeInt(table.getColumns().size());
+        for (ColumnSnapshot column : table.getColumns()) {
+            writeString(out, column.getName());
+            writeId(out, column.getId());
+            writeString(out, column.getTypeName());
+            out.writeBoolean(Objects.nonNull(column.getType()));
+            if (Objects.nonNull(column.getType())) {
+                out.writeInt(column.getType());
+            }
+            out.writeInt(column.getLength());
+            out.writeInt(column.getDecimalDigits());
+            writeString(out, column.getDetailedSize());
+            out.writeBoolean(column.isNullable());
+            out.writeBoolean(column.isAutoUpdated());
+            writeString(out, column.getDefaultValue());
+            writeString(out, column.getComments());
+        }
+
+        out.writeInt(table.getIndexes().size());
+        for (IndexSnapshot index : table.getIndexes()) {
+            writeString(out, index.getName());
+            out.writeBoolean(index.isUnique());
+            out.writeBoolean(index.isPrimaryKey());
+            out.writeInt(index.getColumns().size());
+            for (int i = 0; i < index.getColumns().size(); ++i) {
+                writeString(out, index.getColumns().get(i));
+                out.writeBoolean(index.getAscending().get(i));
+            }
+        }
+
+        writeStrings(out, table.getPrimaryKey());
+
+        out.writeBoolean(table.hasForeignKeys());
+        if (table.hasForeignKeys()) {
+            out.writeInt(table.getImportedKeys().size());
+            for (ImportForeignKey key : table.getImportedKeys()) {
+                writeString(out, key.getFkName());
+                writeString(out, key.getFkColumnName());
+                writeString(out, key.getPkTableCat());
+                writeString(out, key.getPkTableSchema());
+                writeString(out, key.getPkTableName());
+                writeString(out, key.getPkColumnName());
+                out.writeInt(Objects.isNull(key.getUpdateRule()) ? 0 : key.getUpdateRule());
+                out.writeInt(Objects.isNull(key.getDeleteRule()) ? 0 : key.getDeleteRule());
+            }
+            out.writeBoolean(table.hasExportedKeys());
+            if (table.hasExportedKeys()) {
+                out.writeInt(table.getExportedKeys().size());
+                for (ExportForeignKey key : table.getExportedKeys()) {
+                    writeString(out, key.getFkTableCat());
+                    writeString(out, key.getFkTableSchema());
+                    writeString(out, key.getFkTableName());
+                }
+            }
+        }
+    }
+
+    private static TableSnapshot readTable(DataInputStream in) throws IOException {
+        String name = readString(in);
+        String fingerprint = readString(in);
+
+        int columnCount = in.readInt();
+        List<ColumnSnapshot> columns = new ArrayList<>(columnCount);
+        for (int i = 0; i < columnCount; ++i) {
+            String columnName = readString(in);
+            Object id = readId(in);
+            String typeName = readString(in);
+            Integer type = in.readBoolean() ? in.readInt() : null;
+            int length = in.readInt();
+            int decimalDigits = in.readInt();
+            String detailedSize = readString(in);
+            boolean nullable = in.readBoolean();
+            boolean autoUpdated = in.readBoolean();
+            String defaultValue = readString(in);
+            String comments = readString(in);
+            columns.add(new ColumnSnapshot(columnName, id, typeName, type, length, decimalDigits, detailedSize,
+                    nullable, autoUpdated, defaultValue, comments));
+        }
+
+        int indexCount = in.readInt();
+        List<IndexSnapshot> indexes = new ArrayList<>(indexCount);
+        for (int i = 0; i < indexCount; ++i) {
+            String indexName = readString(in);
+            boolean unique = in.readBoolean();
+            boolean primaryKey = in.readBoolean();
+            int indexColumnCount = in.readInt();
+            List<String> indexColumns = new ArrayList<>(indexColumnCount);
+            List<Boolean> ascending = new ArrayList<>(indexColumnCount);
+            for (int j = 0; j < indexColumnCount; ++j) {
+                indexColumns.add(readString(in));
+                ascending.add(in.readBoolean());
+            }
+            indexes.add(new IndexSnapshot(indexName, unique, primaryKey, indexColumns, ascending));
+        }
+
+        List<String> primaryKey = readStrings(in);
+
+        List<ImportForeignKey> importedKeys = null;
+        List<ExportForeignKey> exportedKeys = null;
+        if (in.readBoolean()) {
+            int importedCount = in.readInt();
+            importedKeys = new ArrayList<>(importedCount);
+            for (int i = 0; i < importedCount; ++i) {
+                importedKeys.add(new ImportForeignKey.Builder()
+                        .withFkName(readString(in))
+                        .withFkColumnName(readString(in))
+                        .withPkTableCat(readString(in))
+                        .withPkTableSchema(readString(in))
+                        .withPkTableName(readString(in))
+                        .withPkColumnName(readString(in))
+                        .withUpdateRule(in.readInt())
+                        .withDeleteRule(in.readInt())
+                        .build());
+            }
+            if (in.readBoolean()) {
+                int exportedCount = in.readInt();
+                exportedKeys = new ArrayList<>(exportedCount);
+                for (int i = 0; i < exportedCount; ++i) {
+                    exportedKeys.add(new ExportForeignKey.Builder()
+                            .withFkTableCat(readString(in))
+                            .withFkTableSchema(readString(in))
+                            .withFkTableName(readString(in))
+                            .build());
+                }
+            }
+        }
+
+        return new TableSnapshot(name, fingerprint, columns, indexes, primaryKey, importedKeys, exportedKeys);
+    }
+
+    private static void writeId(DataOutputStream out, Object id) throws IOException {
+        if (Objects.isNull(id)) {
+            out.writeByte(ID_NULL);
+        } else if (id instanceof Integer) {
+            out.writeByte(ID_INTEGER);
+            out.writeInt((Integer) id);
+        } else {
+            out.writeByte(ID_STRING);
+            writeString(out, id.toString());
+        }
+    }
+
+    private static Object readId(DataInputStream in) throws IOException {
+        byte kind = in.readByte();
+        switch (kind) {
+            case ID_NULL:
+                return null;
+            case ID_INTEGER:
+                return in.readInt();
+            case ID_STRING:
+                return readString(in);
+            default:
+                throw new IOException("Unknown kind of id " + kind);
+        }
+    }
+
+    private static void writeStrings(DataOutputStream out, List<String> values) throws IOException {
+        out.writeInt(values.size());
+        for (String value : values) {
+            writeString(out, value);
+        }
+    }
+
+    private static List<String> readStrings(DataInputStream in) throws IOException {
+        int count = in.readInt();
+        List<String> values = new ArrayList<>(count);
+        for (int i = 0; i < count; ++i) {
+            values.add(readString(in));
+        }
+        return values;
+    }
+
+    /**
+     * Unlike {@link DataOutputStream#writeUTF(String)} this handles <code>null</code> and strings longer than 64k,
+     * e.g. comments
+     */
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        if (Objects.isNull(value)) {
+            out.writeInt(-1);
+        } else {
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            out.writeInt(bytes.length);
+            out.write(bytes);
+        }
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        int length = in.readInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,245 @@
+package org.schemaspy.input.dbms.snapshot;
+
+import org.schemaspy.input.dbms.service.helper.ExportForeignKey;
+import org.schemaspy.input.dbms.service.helper.ImportForeignKey;
+import org.schemaspy.model.Table;
+import org.schemaspy.model.TableColumn;
+import org.schemaspy.model.TableIndex;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * What was gathered about a table during a previous run, along with the fingerprint
+ * of its definition at that time.
+ */
+public final class TableSnapshot {
+
+    private final String name;
+    private final String fingerprint;
+    private final List<ColumnSnapshot> columns;
+    private final List<IndexSnapshot> indexes;
+    private final List<String> primaryKey;
+    private final List<ImportForeignKey> importedKeys;
+    private final List<ExportForeignKey> exportedKeys;
+
+    TableSnapshot(
+            String name,
+            String fingerprint,
+            List<ColumnSnapshot> columns,
+            List<IndexSnapshot> indexes,
+            List<String> primaryKey,
+            List<ImportForeignKey> importedKeys,
+            List<ExportForeignKey> exportedKeys
+    ) {
+        this.name = name;
+        this.fingerprint = fingerprint;
+        this.columns = columns;
+        this.indexes = indexes;
+        this.primaryKey = primaryKey;
+        this.importedKeys = importedKeys;
+        this.exportedKeys = exportedKeys;
+    }
+
+    static TableSnapshot of(Table table, String fingerprint, List<ImportForeignKey> importedKeys, List<ExportForeignKey> exportedKeys) {
+        List<ColumnSnapshot> columns = new ArrayList<>();
+        for (TableColumn column : table.getColumns()) {
+            columns.add(ColumnSnapshot.of(column));
+        }
+        List<IndexSnapshot> indexes = new ArrayList<>();
+        for (TableIndex index : table.getIndexes()) {
+            indexes.add(IndexSnapshot.of(index));
+        }
+        List<String> primaryKey = new ArrayList<>();
+        for (TableColumn column : table.getPrimaryColumns()) {
+            primaryKey.add(column.getName());
+        }
+        return new TableSnapshot(table.getName(), fingerprint, columns, indexes, primaryKey, importedKeys, exportedKeys);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getFingerprint() {
+        return fingerprint;
+    }
+
+    public List<ColumnSnapshot> getColumns() {
+        return Collections.unmodifiableList(columns);
+    }
+
+    public List<IndexSnapshot> getIndexes() {
+        return Collections.unmodifiableList(indexes);
+    }
+
+    public List<String> getPrimaryKey() {
+        return Collections.unmodifiableList(primaryKey);
+    }
+
+    /**
+     * @return <code>true</code> if the foreign keys were retrieved for this table on its own,
+     * <code>false</code> if they were retrieved schema wide and aren't part of the snapshot
+     */
+    public boolean hasForeignKeys() {
+        return Objects.nonNull(importedKeys);
+    }
+
+    public List<ImportForeignKey> getImportedKeys() {
+        return Collections.unmodifiableList(importedKeys);
+    }
+
+    /**
+     * @return <code>false</code> if exported keys were disabled when the snapshot was captured
+     */
+    public boolean hasExportedKeys() {
+        return Objects.nonNull(exportedKeys);
+    }
+
+    public List<ExportForeignKey> getExportedKeys() {
+        return Collections.unmodifiableList(exportedKeys);
+    }
+
+    /**
+     * A column as it was gathered from the database
+     */
+    public static final class ColumnSnapshot {
+        private final String name;
+        private final Object id;
+        private final String typeName;
+        private final Integer type;
+        private final int length;
+        private final int decimalDigits;
+        private final String detailedSize;
+        private final boolean nullable;
+        private final boolean autoUpdated;
+        private final String defaultValue;
+        private final String comments;
+
+        ColumnSnapshot(String name, Object id, String typeName, Integer type, int length, int decimalDigits, String detailedSize,
+                       boolean nullable, boolean autoUpdated, String defaultValue, String comments) {
+            this.name = name;
+            this.id = id;
+            this.typeName = typeName;
+            this.type = type;
+            this.length = length;
+            this.decimalDigits = decimalDigits;
+            this.detailedSize = detailedSize;
+            this.nullable = nullable;
+            this.autoUpdated = autoUpdated;
+            this.defaultValue = defaultValue;
+            this.comments = comments;
+        }
+
+        static ColumnSnapshot of(TableColumn column) {
+            return new ColumnSnapshot(
+                    column.getName(),
+                    column.getId(),
+                    column.getTypeName(),
+                    column.getType(),
+                    column.getLength(),
+                    column.getDecimalDigits(),
+                    column.getDetailedSize(),
+                    column.isNullable(),
+                    column.isAutoUpdated(),
+                    Objects.isNull(column.getDefaultValue()) ? null : String.valueOf(column.getDefaultValue()),
+                    column.getComments()
+            );
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public Object getId() {
+            return id;
+        }
+
+        public String getTypeName() {
+            return typeName;
+        }
+
+        public Integer getType() {
+            return type;
+        }
+
+        public int getLength() {
+            return length;
+        }
+
+        public int getDecimalDigits() {
+            return decimalDigits;
+        }
+
+        public String getDetailedSize() {
+            return detailedSize;
+        }
+
+        public boolean isNullable() {
+            return nullable;
+        }
+
+        public boolean isAutoUpdated() {
+            return autoUpdated;
+        }
+
+        public String getDefaultValue() {
+            return defaultValue;
+        }
+
+        public String getComments() {
+            return comments;
+        }
+    }
+
+    /**
+     * An index, including the one backing the primary key
+     */
+    public static final class IndexSnapshot {
+        private final String name;
+        private final boolean unique;
+        private final boolean primaryKey;
+        private final List<String> columns;
+        private final List<Boolean> ascending;
+
+        IndexSnapshot(String name, boolean unique, boolean primaryKey, List<String> columns, List<Boolean> ascending) {
+            this.name = name;
+            this.unique = unique;
+            this.primaryKey = primaryKey;
+            this.columns = columns;
+            this.ascending = ascending;
+        }
+
+        static IndexSnapshot of(TableIndex index) {
+            List<String> columns = new ArrayList<>();
+            List<Boolean> ascending = new ArrayList<>();
+            for (TableColumn column : index.getColumns()) {
+                columns.add(column.getName());
+                ascending.add(index.isAscending(column));
+            }
+            return new IndexSnapshot(index.getName(), index.isUnique(), index.isPrimaryKey(), columns, ascending);
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public boolean isUnique() {
+            return unique;
+        }
+
+        public boolean isPrimaryKey() {
+            return primaryKey;
+        }
+
+        public List<String> getColumns() {
+            return Collections.unmodifiableList(columns);
+        }
+
+        public List<Boolean> getAscending() {
+            return Collections.unmodifiableList(ascending);
+        }
+    }
+}
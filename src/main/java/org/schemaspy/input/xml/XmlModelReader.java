@@ -0,0 +1,376 @@
+package org.schemaspy.input.xml;
+
+import org.schemaspy.input.dbms.service.helper.RemoteTableIdentifier;
+import org.schemaspy.model.*;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.Node;
+import org.w3c.dom.NodeList;
+import org.xml.sax.SAXException;
+
+import javax.xml.XMLConstants;
+import javax.xml.parsers.DocumentBuilder;
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.parsers.ParserConfigurationException;
+import java.io.File;
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.sql.DatabaseMetaData;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.regex.Pattern;
+
+import static org.schemaspy.output.xml.dom.XmlConstants.*;
+
+/**
+ * Reads a model previously written by {@link org.schemaspy.output.xml.dom.XmlProducerUsingDOM}
+ * back into a {@link Database}, so that it can be rendered without connecting to the database.
+ * <p>
+ * The exported model doesn't contain everything that was gathered: the identifier quote string
+ * and keywords of the dbms are unknown, update rules of foreign keys are assumed to be
+ * <code>NO ACTION</code> and implied relationships are left for the analyzer to find again.
+ */
+public class XmlModelReader {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
+
+    private static final String NAME = "name";
+    private static final String NULL = "null";
+    private static final String PRODUCT_SEPARATOR = " - ";
+
+    private final Pattern excludeColumns;
+    private final Pattern excludeIndirectColumns;
+
+    public XmlModelReader(Pattern excludeColumns, Pattern excludeIndirectColumns) {
+        this.excludeColumns = excludeColumns;
+        this.excludeIndirectColumns = excludeIndirectColumns;
+    }
+
+    public Database read(File modelFile) {
+        if (!modelFile.isFile()) {
+            throw new InvalidConfigurationException("Specified model file \"" + modelFile + "\" does not exist");
+        }
+        Element databaseNode = parse(modelFile).getDocumentElement();
+        List<Element> tableNodes = children(firstChild(databaseNode, "tables"), TABLE);
+
+        String catalog = tableNodes.isEmpty() ? null : attribute(tableNodes.get(0), CATALOG);
+        Database db = new Database(
+                dbmsMeta(attribute(databaseNode, "type")),
+                attribute(databaseNode, NAME),
+                catalog,
+                attribute(databaseNode, SCHEMA)
+        );
+
+        for (Element tableNode : tableNodes) {
+            readTable(db, tableNode);
+        }
+        // all tables have to exist before they can be related to each other
+        for (Element tableNode : tableNodes) {
+            connectTable(db, tableNode);
+        }
+        readSequences(db, firstChild(databaseNode, "sequences"));
+        readRoutines(db, firstChild(databaseNode, "routines"));
+
+        LOGGER.info("Read {} tables and {} views from {}", db.getTables().size(), db.getViews().size(), modelFile);
+        return db;
+    }
+
+    private static DbmsMeta dbmsMeta(String type) {
+        String productName = type;
+        String productVersion = null;
+        if (Objects.nonNull(type) && type.contains(PRODUCT_SEPARATOR)) {
+            productName = type.substring(0, type.indexOf(PRODUCT_SEPARATOR));
+            productVersion = type.substring(type.indexOf(PRODUCT_SEPARATOR) + PRODUCT_SEPARATOR.length());
+        }
+        return new DbmsMeta.Builder()
+                .productName(productName)
+                .productVersion(productVersion)
+                .sqlKeywords(Collections.emptySet())
+                .systemFunctions(Collections.emptySet())
+                .numericFunctions(Collections.emptySet())
+                .stringFunctions(Collections.emptySet())
+                .timeDateFunctions(Collections.emptySet())
+                .getDbmsMeta();
+    }
+
+    private void readTable(Database db, Element tableNode) {
+        String catalog = attribute(tableNode, CATALOG);
+        String schema = attribute(tableNode, SCHEMA);
+        String name = attribute(tableNode, NAME);
+        String remarks = attribute(tableNode, "remarks");
+        Table table;
+        if ("VIEW".equals(attribute(tableNode, "type"))) {
+            View view = new View(db, catalog, schema, name, remarks, attribute(tableNode, "viewSql"));
+            db.getViewsMap().put(name, view);
+            table = view;
+        } else {
+            table = new Table(db, catalog, schema, name, remarks);
+            db.getTablesMap().put(name, table);
+        }
+        if (tableNode.hasAttribute("id")) {
+            table.setId(id(attribute(tableNode, "id")));
+        }
+        if (tableNode.hasAttribute("numRows")) {
+            table.setNumRows(Long.parseLong(attribute(tableNode, "numRows")));
+        }
+
+        for (Element columnNode : children(tableNode, COLUMN)) {
+            TableColumn column = readColumn(table, columnNode);
+            table.getColumnsMap().put(column.getName(), column);
+        }
+
+        List<TableColumn> primaryKey = new ArrayList<>();
+        for (Element primaryKeyNode : children(tableNode, "primaryKey")) {
+            TableColumn column = table.getColumn(attribute(primaryKeyNode, COLUMN));
+            if (Objects.nonNull(column)) {
+                table.setPrimaryColumn(column);
+                primaryKey.add(column);
+            }
+        }
+
+        boolean primaryKeyIndexFound = false;
+        for (Element indexNode : children(tableNode, "index")) {
+            TableIndex index = new TableIndex(attribute(indexNode, NAME), Boolean.parseBoolean(attribute(indexNode, "unique")));
+            if (indexNode.hasAttribute("id")) {
+                index.setId(id(attribute(indexNode, "id")));
+            }
+            for (Element indexColumnNode : children(indexNode, COLUMN)) {
+                TableColumn column = table.getColumn(attribute(indexColumnNode, NAME));
+                if (Objects.nonNull(column)) {
+                    index.addColumn(column, Boolean.parseBoolean(attribute(indexColumnNode, "ascending")) ? "A" : "D");
+                }
+            }
+            // the model doesn't say which index backs the primary key, the first unique one on its columns does
+            if (!primaryKeyIndexFound && index.isUnique() && !primaryKey.isEmpty() && index.getColumns().equals(primaryKey)) {
+                index.setIsPrimaryKey(true);
+                primaryKeyIndexFound = true;
+            }
+            table.getIndexesMap().put(index.getName(), index);
+        }
+
+        for (Element checkConstraintNode : children(tableNode, "checkConstraint")) {
+            table.addCheckConstraint(attribute(checkConstraintNode, NAME), attribute(checkConstraintNode, "constraint"));
+        }
+    }
+
+    private TableColumn readColumn(Table table, Element columnNode) {
+        TableColumn column = new TableColumn(table);
+        column.setName(attribute(columnNode, NAME));
+        column.setId(id(attribute(columnNode, "id")));
+        column.setTypeName(attribute(columnNode, "type"));
+        column.setType(Integer.valueOf(attribute(columnNode, "typeCode")));
+        column.setLength(Integer.parseInt(attribute(columnNode, "size")));
+        column.setDecimalDigits(Integer.parseInt(attribute(columnNode, "digits")));
+        StringBuilder detailedSize = new StringBuilder();
+        detailedSize.append(column.getLength());
+        if (column.getDecimalDigits() > 0) {
+            detailedSize.append(',');
+            detailedSize.append(column.getDecimalDigits());
+        }
+        column.setDetailedSize(detailedSize.toString());
+        column.setNullable(Boolean.parseBoolean(attribute(columnNode, "nullable")));
+        column.setIsAutoUpdated(Boolean.parseBoolean(attribute(columnNode, "autoUpdated")));
+        String defaultValue = attribute(columnNode, "defaultValue");
+        column.setDefaultValue(NULL.equals(defaultValue) ? null : defaultValue);
+        column.setComments(attribute(columnNode, "remarks"));
+
+        column.setAllExcluded(column.matches(excludeColumns));
+        column.setExcluded(column.isAllExcluded() || column.matches(excludeIndirectColumns));
+        return column;
+    }
+
+    /**
+     * Relationships between local tables are connected from their child side,
+     * the child side of remote tables referencing local tables only exists in the parent
+     */
+    private static void connectTable(Database db, Element tableNode) {
+        Table table = db.getLocals().get(attribute(tableNode, NAME));
+        for (Element columnNode : children(tableNode, COLUMN)) {
+            TableColumn column = table.getColumn(attribute(columnNode, NAME));
+            for (Element parentNode : children(columnNode, "parent")) {
+                if (!isImplied(parentNode)) {
+                    TableColumn parentColumn = referencedColumn(db, table, parentNode);
+                    connect(table, parentNode, parentColumn, column);
+                }
+            }
+            for (Element childNode : children(columnNode, "child")) {
+                if (!isImplied(childNode) && !isLocal(db, childNode)) {
+                    TableColumn childColumn = referencedColumn(db, table, childNode);
+                    connect(childColumn.getTable(), childNode, column, childColumn);
+                }
+            }
+        }
+    }
+
+    private static void connect(Table child, Element relationshipNode, TableColumn parentColumn, TableColumn childColumn) {
+        String name = attribute(relationshipNode, "foreignKey");
+        int deleteRule = Boolean.parseBoolean(attribute(relationshipNode, "onDeleteCascade"))
+                ? DatabaseMetaData.importedKeyCascade
+                : DatabaseMetaData.importedKeyNoAction;
+        ForeignKeyConstraint foreignKey = child.getForeignKeysMap().get(name);
+        if (Objects.isNull(foreignKey)) {
+            foreignKey = new ForeignKeyConstraint(child, name, DatabaseMetaData.importedKeyNoAction, deleteRule);
+            child.getForeignKeysMap().put(name, foreignKey);
+        }
+        foreignKey.addChildColumn(childColumn);
+        foreignKey.addParentColumn(parentColumn);
+        childColumn.addParent(parentColumn, foreignKey);
+        parentColumn.addChild(childColumn, foreignKey);
+    }
+
+    private static boolean isImplied(Element relationshipNode) {
+        return Boolean.parseBoolean(attribute(relationshipNode, "implied"));
+    }
+
+    private static boolean isLocal(Database db, Element relationshipNode) {
+        Table table = db.getLocals().get(attribute(relationshipNode, TABLE));
+        return Objects.nonNull(table)
+                && Objects.equals(table.getCatalog(), attribute(relationshipNode, CATALOG))
+                && Objects.equals(table.getSchema(), attribute(relationshipNode, SCHEMA));
+    }
+
+    /**
+     * @return the column on the other side of a relationship, adding the remote table and column if needed
+     */
+    private static TableColumn referencedColumn(Database db, Table table, Element relationshipNode) {
+        String tableName = attribute(relationshipNode, TABLE);
+        String columnName = attribute(relationshipNode, COLUMN);
+        Table referenced;
+        if (isLocal(db, relationshipNode)) {
+            referenced = db.getLocals().get(tableName);
+        } else {
+            String catalog = attribute(relationshipNode, CATALOG);
+            String schema = attribute(relationshipNode, SCHEMA);
+            String key = db.getRemoteTableKey(catalog, schema, tableName);
+            referenced = db.getRemoteTablesMap().get(key);
+            if (Objects.isNull(referenced)) {
+                LOGGER.debug("Adding remote table {}", key);
+                referenced = new RemoteTable(db, new RemoteTableIdentifier(catalog, schema, tableName), table.getContainer());
+                db.getRemoteTablesMap().put(key, referenced);
+            }
+        }
+        TableColumn column = referenced.getColumn(columnName);
+        if (Objects.isNull(column)) {
+            column = new TableColumn(referenced);
+            column.setName(columnName);
+            referenced.getColumnsMap().put(columnName, column);
+        }
+        return column;
+    }
+
+    private static void readSequences(Database db, Element sequencesNode) {
+        for (Element sequenceNode : children(sequencesNode, "sequence")) {
+            Sequence sequence = new Sequence(
+                    attribute(sequenceNode, NAME),
+                    Integer.valueOf(attribute(sequenceNode, "startValue")),
+                    Integer.valueOf(attribute(sequenceNode, "increment"))
+            );
+            db.getSequencesMap().put(sequence.getName(), sequence);
+        }
+    }
+
+    private static void readRoutines(Database db, Element routinesNode) {
+        for (Element routineNode : children(routinesNode, "routine")) {
+            Element definitionNode = firstChild(routineNode, "definition");
+            Routine routine = new Routine(
+                    attribute(routineNode, NAME),
+                    attribute(routineNode, "type"),
+                    attribute(routineNode, "returnType"),
+                    Objects.isNull(definitionNode) ? null : attribute(definitionNode, "language"),
+                    text(definitionNode),
+                    Boolean.parseBoolean(attribute(routineNode, "deterministic")),
+                    attribute(routineNode, "dataAccess"),
+                    attribute(routineNode, "securityType"),
+                    text(firstChild(routineNode, "comment"))
+            );
+            for (Element parameterNode : children(firstChild(routineNode, "parameters"), "parameter")) {
+                routine.addParameter(new RoutineParameter(
+                        attribute(parameterNode, NAME),
+                        attribute(parameterNode, "type"),
+                        attribute(parameterNode, "mode")
+                ));
+            }
+            db.getRoutinesMap().put(routine.getName(), routine);
+        }
+    }
+
+    private static Object id(String id) {
+        if (Objects.isNull(id) || NULL.equals(id)) {
+            return null;
+        }
+        try {
+            return Integer.valueOf(id);
+        } catch (NumberFormatException notAnInteger) {
+            return id;
+        }
+    }
+
+    /**
+     * @return the value of the attribute, <code>null</code> if it isn't there
+     */
+    private static String attribute(Element element, String name) {
+        return element.hasAttribute(name) ? element.getAttribute(name) : null;
+    }
+
+    private static String text(Element element) {
+        if (Objects.isNull(element)) {
+            return null;
+        }
+        String text = element.getTextContent();
+        return text.isEmpty() ? null : text;
+    }
+
+    private static Element firstChild(Element parent, String name) {
+        List<Element> children = children(parent, name);
+        return children.isEmpty() ? null : children.get(0);
+    }
+
+    /**
+     * Unlike {@link Element#getElementsByTagName(String)} this only returns direct children,
+     * a table's columns shouldn't include the columns of its indexes
+     */
+    private static List<Element> children(Element parent, String name) {
+        if (Objects.isNull(parent)) {
+            return Collections.emptyList();
+        }
+        List<Element> children = new ArrayList<>();
+        NodeList nodes = parent.getChildNodes();
+        for (int i = 0; i < nodes.getLength(); ++i) {
+            Node node = nodes.item(i);
+            if (node.getNodeType() == Node.ELEMENT_NODE && name.equals(node.getNodeName())) {
+                children.add((Element) node);
+            }
+        }
+        return children;
+    }
+
+    private static Document parse(File file) {
+        DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
+        factory.setIgnoringComments(true);
+        try {
+            factory.setFeature(XMLConstants.FEATURE_SECURE_PROCESSING, true);
+        } catch (ParserConfigurationException e) {
+            LOGGER.warn("Failed to enable secure processing for DocumentBuilderFactory", e);
+        }
+
+        DocumentBuilder docBuilder;
+        try {
+            docBuilder = factory.newDocumentBuilder();
+        } catch (ParserConfigurationException exc) {
+            throw new InvalidConfigurationException("Invalid XML parser configuration", exc);
+        }
+
+        try {
+            LOGGER.info("Parsing {}", file);
+            return docBuilder.parse(file);
+        } catch (SAXException exc) {
+            throw new InvalidConfigurationException("Failed to parse " + file, exc);
+        } catch (IOException exc) {
+            throw new InvalidConfigurationException("Could not read " + file + ":", exc);
+        }
+    }
+}
@@ -27,7 +27,10 @@ import org.schemaspy.util.CaseInsensitiveMap;
 
 import java.time.ZonedDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -51,6 +54,7 @@ public class Database {
     private final Map<String, Routine> routines = new CaseInsensitiveMap<>();
     private final ZonedDateTime connectTime = ZonedDateTime.now();
     private final Map<String, Sequence> sequences = new CaseInsensitiveMap<>();
+    private final List<String> omittedDetails = new ArrayList<>();
 
     public Database(
             DbmsMeta dbmsMeta,
@@ -128,6 +132,22 @@ public class Database {
         return sequences;
     }
 
+    /**
+     * Record that a detail wasn't gathered, e.g. because gathering took too long
+     *
+     * @param omittedDetail description of what's missing, like <code>row counts of 12 tables</code>
+     */
+    public void addOmittedDetail(String omittedDetail) {
+        omittedDetails.add(omittedDetail);
+    }
+
+    /**
+     * @return descriptions of the details that weren't gathered, empty if the model is complete
+     */
+    public List<String> getOmittedDetails() {
+        return Collections.unmodifiableList(omittedDetails);
+    }
+
     /**
      * Used in Mustache template
      * @return creation time of model
@@ -29,8 +29,10 @@ import org.schemaspy.util.naming.FileNameGenerator;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -42,7 +44,7 @@ import java.util.regex.Pattern;
  */
 public class Markdown {
 
-    private static final HashMap<String, String> pages = new HashMap<>();
+    private static final Map<String, String> pages = Collections.synchronizedMap(new HashMap<>());
 
     private final String markdownText;
     private final String rootPath;
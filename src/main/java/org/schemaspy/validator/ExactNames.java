@@ -0,0 +1,69 @@
+package org.schemaspy.validator;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Names to include or exclude as they are, looked up in a hash set,
+ * so that a selection of thousands of tables doesn't need an alternation of thousands of names in a regular expression.
+ */
+public final class ExactNames {
+
+    private static final ExactNames NONE = new ExactNames(Collections.emptySet(), false);
+
+    private final Set<String> names;
+    private final boolean ignoreCase;
+
+    private ExactNames(Set<String> names, boolean ignoreCase) {
+        this.names = names;
+        this.ignoreCase = ignoreCase;
+    }
+
+    public static ExactNames none() {
+        return NONE;
+    }
+
+    public static ExactNames of(Collection<String> names, boolean ignoreCase) {
+        Set<String> normalized = new HashSet<>(names.size() * 2);
+        for (String name : names) {
+            normalized.add(ignoreCase ? name.toLowerCase(Locale.ROOT) : name);
+        }
+        return new ExactNames(Collections.unmodifiableSet(normalized), ignoreCase);
+    }
+
+    /**
+     * Reads a name per line, ignoring blank lines and lines starting with <code>#</code>
+     */
+    public static ExactNames read(Path file, boolean ignoreCase) throws IOException {
+        Set<String> names = new HashSet<>();
+        for (String line : Files.readAllLines(file, StandardCharsets.UTF_8)) {
+            String name = line.trim();
+            if (!name.isEmpty() && !name.startsWith("#")) {
+                names.add(name);
+            }
+        }
+        return of(names, ignoreCase);
+    }
+
+    public boolean contains(String name) {
+        if (names.isEmpty() || name == null) {
+            return false;
+        }
+        return names.contains(ignoreCase ? name.toLowerCase(Locale.ROOT) : name);
+    }
+
+    public boolean isEmpty() {
+        return names.isEmpty();
+    }
+
+    public int size() {
+        return names.size();
+    }
+}
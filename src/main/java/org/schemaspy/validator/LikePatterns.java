@@ -0,0 +1,113 @@
+package org.schemaspy.validator;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Translates an inclusion pattern into <code>LIKE</code> patterns, like those taken by
+ * <code>DatabaseMetaData.getTables</code>, so that the database only returns names that might be included.
+ * <p>
+ * Only alternations of literals with <code>.</code>, <code>.*</code> and <code>.+</code> are translated,
+ * e.g. <code>(orders|invoice_.*)</code> becomes <code>orders</code> and <code>invoice_%</code>.
+ * Anything else becomes <code>%</code>. The patterns may match more than the regular expression
+ * (<code>_</code> in a name matches any character), so the regular expression still has the final say.
+ */
+public final class LikePatterns {
+
+    public static final String ANY = "%";
+
+    /**
+     * Beyond this many patterns one query for everything is likely cheaper than a query per pattern
+     */
+    static final int MAX_PATTERNS = 100;
+
+    private static final List<String> EVERYTHING = Collections.singletonList(ANY);
+
+    private LikePatterns() {
+    }
+
+    /**
+     * @return patterns that together match at least what <code>include</code> matches,
+     * just <code>%</code> if it can't be translated
+     */
+    public static List<String> of(Pattern include) {
+        if (include.flags() != 0) {
+            return EVERYTHING;
+        }
+        String regex = unwrap(include.pattern());
+        Set<String> patterns = new LinkedHashSet<>();
+        for (String branch : regex.split("\\|", -1)) {
+            String pattern = translate(branch);
+            if (pattern == null || ANY.equals(pattern)) {
+                return EVERYTHING;
+            }
+            patterns.add(pattern);
+        }
+        if (patterns.size() > MAX_PATTERNS) {
+            return EVERYTHING;
+        }
+        return new ArrayList<>(patterns);
+    }
+
+    /**
+     * Strip anchors and a group around the whole expression
+     */
+    private static String unwrap(String regex) {
+        String unwrapped = regex;
+        if (unwrapped.startsWith("^")) {
+            unwrapped = unwrapped.substring(1);
+        }
+        if (unwrapped.endsWith("$") && !unwrapped.endsWith("\\$")) {
+            unwrapped = unwrapped.substring(0, unwrapped.length() - 1);
+        }
+        if (unwrapped.startsWith("(?:") && unwrapped.endsWith(")")) {
+            return unwrapped.substring(3, unwrapped.length() - 1);
+        }
+        if (unwrapped.startsWith("(") && !unwrapped.startsWith("(?") && unwrapped.endsWith(")")) {
+            return unwrapped.substring(1, unwrapped.length() - 1);
+        }
+        return unwrapped;
+    }
+
+    /**
+     * @return the <code>LIKE</code> pattern of <code>branch</code>, <code>null</code> if it isn't a simple one
+     */
+    private static String translate(String branch) {
+        if (branch.isEmpty()) {
+            return null;
+        }
+        StringBuilder like = new StringBuilder();
+        for (int i = 0; i < branch.length(); ++i) {
+            char c = branch.charAt(i);
+            char next = i + 1 < branch.length() ? branch.charAt(i + 1) : 0;
+            if (c == '\\') {
+                // escaped punctuation is literal, escapes like \d or \Q aren't,
+                // and some databases treat \ and [] in LIKE patterns specially
+                if (next == 0 || Character.isLetterOrDigit(next) || "\\[]".indexOf(next) >= 0) {
+                    return null;
+                }
+                like.append(next);
+                ++i;
+            } else if (c == '.') {
+                if (next == '*') {
+                    like.append('%');
+                    ++i;
+                } else if (next == '+') {
+                    like.append("_%");
+                    ++i;
+                } else {
+                    like.append('_');
+                }
+            } else if ("()[]{}*+?^$|".indexOf(c) >= 0) {
+                return null;
+            } else {
+                like.append(c);
+            }
+        }
+        return like.toString();
+    }
+}
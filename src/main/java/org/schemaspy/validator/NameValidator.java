@@ -41,6 +41,8 @@ public class NameValidator {
     private final String clazz;
     private final Pattern include;
     private final Pattern exclude;
+    private final ExactNames includeNames;
+    private final ExactNames excludeNames;
     private final Set<String> validTypes;
 
     private static final Logger LOGGER = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
@@ -52,9 +54,19 @@ public class NameValidator {
      * @param validTypes
      */
     public NameValidator(String clazz, Pattern include, Pattern exclude, String[] validTypes) {
+        this(clazz, include, exclude, ExactNames.none(), ExactNames.none(), validTypes);
+    }
+
+    /**
+     * @param includeNames names that are included without matching <code>include</code>
+     * @param excludeNames names that are excluded without matching <code>exclude</code>
+     */
+    public NameValidator(String clazz, Pattern include, Pattern exclude, ExactNames includeNames, ExactNames excludeNames, String[] validTypes) {
         this.clazz = clazz;
         this.include = include;
         this.exclude = exclude;
+        this.includeNames = includeNames;
+        this.excludeNames = excludeNames;
         this.validTypes = new HashSet<>();
         for (String type : validTypes) {
             this.validTypes.add(type.toUpperCase());
@@ -73,11 +85,32 @@ public class NameValidator {
         if (!validTypes.contains(type.toUpperCase()))
             return false;
 
+        return isIncluded(name);
+    }
+
+    /**
+     * Returns <code>true</code> if the name is deemed "valid" regardless of type,
+     * e.g. for a table referenced by a foreign key.
+     * Names in the exact lists are decided on without matching the patterns.
+     *
+     * @param name name of the table or view
+     */
+    public boolean isIncluded(String name) {
+        if (excludeNames.contains(name)) {
+            LOGGER.debug("Excluding {} {}: listed as excluded", clazz, name);
+            return false;
+        }
+
         if (exclude.matcher(name).matches()) {
             LOGGER.debug("Excluding {} {}: matches exclusion pattern '{}'", clazz, name, exclude);
             return false;
         }
 
+        if (includeNames.contains(name)) {
+            LOGGER.debug("Including {} {}: listed as included", clazz, name);
+            return true;
+        }
+
         boolean valid = include.matcher(name).matches();
         if (valid) {
             LOGGER.debug("Including {} {}: matches inclusion pattern '{}'", clazz, name, include);
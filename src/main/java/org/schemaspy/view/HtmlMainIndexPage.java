@@ -90,6 +90,8 @@ public class HtmlMainIndexPage {
                 .addToScope("anomaliesAmount", anomaliesAmount)
                 .addToScope("tables", mustacheTables)
                 .addToScope("database", database)
+                .addToScope("incomplete", !database.getOmittedDetails().isEmpty())
+                .addToScope("omittedDetails", database.getOmittedDetails())
                 .addToScope("description", new Markdown(description, "").toHtml())
                 .addToScope("schema", new MustacheSchema(database.getSchema(), ""))
                 .addToScope("catalog", new MustacheCatalog(database.getCatalog(), ""))
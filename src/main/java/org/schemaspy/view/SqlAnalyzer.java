@@ -34,16 +34,17 @@ import java.util.function.Function;
  * @author Nils Petzaell
  */
 public class SqlAnalyzer {
-    private static Set<Function<String,String>> quoters = new HashSet<>();
+    private static final Set<Function<String,String>> DEFAULT_QUOTERS = new HashSet<>();
+    private final Set<Function<String,String>> quoters = new HashSet<>(DEFAULT_QUOTERS);
     private Set<String> keywords;
     private Map<String, Table> tablesByPossibleNames;
     private static final String TOKENS = " \t\n\r\f()<>|,";
 
     static {
-        quoters.add(s -> "'" + s + "'");
-        quoters.add(s -> "`" + s + "`");
-        quoters.add(s -> "\"" + s +"\"");
-        quoters.add(s -> "[" + s + "]");
+        DEFAULT_QUOTERS.add(s -> "'" + s + "'");
+        DEFAULT_QUOTERS.add(s -> "`" + s + "`");
+        DEFAULT_QUOTERS.add(s -> "\"" + s +"\"");
+        DEFAULT_QUOTERS.add(s -> "[" + s + "]");
     }
 
     public SqlAnalyzer(String identifierQuoteString, Set<String> keywords, Collection<Table> tables, Collection<View> views) {
@@ -95,7 +96,7 @@ public class SqlAnalyzer {
      * @param tables
      * @return
      */
-    private static Map<String, Table> getTableMap(Collection<? extends Table> tables) {
+    private Map<String, Table> getTableMap(Collection<? extends Table> tables) {
         Map<String, Table> map = new CaseInsensitiveMap<>();
         for (Table t : tables) {
             String name = t.getName();
@@ -19,9 +19,17 @@
  */
 package org.schemaspy;
 
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.schemaspy.input.dbms.service.RowCountMode;
+import org.schemaspy.model.InvalidConfigurationException;
 
+import java.io.File;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Properties;
@@ -34,6 +42,9 @@ import static org.assertj.core.api.Assertions.assertThat;
  */
 public class ConfigTest {
 
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
     @Test
     public void testConfig() throws Exception {
         String[] args = {"-t", "mssql05", "-schemas", "dbo, sys", "-h"};
@@ -124,4 +135,87 @@ public class ConfigTest {
         assertThat(config.isExportedKeysEnabled()).isFalse();
     }
 
-}
\ No newline at end of file
+    @Test
+    public void schemaThreadsDefaultsToOne() {
+        Config config = new Config();
+        assertThat(config.getMaxSchemaThreads()).isEqualTo(1);
+    }
+
+    @Test
+    public void schemaThreadsCanBeSpecified() {
+        Config config = new Config("-schemaThreads", "4");
+        assertThat(config.getMaxSchemaThreads()).isEqualTo(4);
+    }
+
+    @Test
+    public void copyIsIndependentOfOriginal() {
+        Config config = new Config("-db", "original", "-schemas", "a,b");
+        Config copy = new Config(config);
+        copy.setDb("copy");
+        copy.setSchemas(null);
+        assertThat(config.getDb()).isEqualTo("original");
+        assertThat(config.getSchemas()).containsExactly("a", "b");
+        assertThat(copy.getDb()).isEqualTo("copy");
+        assertThat(Config.getInstance()).isSameAs(config);
+    }
+
+    @Test
+    public void fetchSizeDefaultsToDatabaseType() {
+        Config config = new Config("-t", "ora");
+        assertThat(config.getFetchSize()).isEqualTo(500);
+    }
+
+    @Test
+    public void fetchSizeCanBeSpecifiedPerQuery() {
+        Config config = new Config("-t", "ora", "-fetchSize", "100", "-fetchSize.getColumns", "2000");
+        assertThat(config.getFetchSize()).isEqualTo(100);
+        assertThat(config.getFetchSizes()).containsEntry("getColumns", 2000);
+    }
+
+    @Test
+    public void rowCountModeDefaultsToAuto() {
+        Config config = new Config("-t", "ora");
+        assertThat(config.getRowCountMode()).isEqualTo(RowCountMode.AUTO);
+    }
+
+    @Test
+    public void rowCountModeCanBeSpecified() {
+        Config config = new Config("-t", "ora", "-rowCountMode", "Sampled", "-rowCountSample", "0.5");
+        assertThat(config.getRowCountMode()).isEqualTo(RowCountMode.SAMPLED);
+        assertThat(config.getRowCountSamplePercent()).isEqualTo(0.5);
+    }
+
+    @Test(expected = InvalidConfigurationException.class)
+    public void unknownRowCountModeIsRejected() {
+        new Config("-t", "ora", "-rowCountMode", "guess").getRowCountMode();
+    }
+
+    @Test
+    public void rowCountThreadsNeedConnectionsOfTheirOwn() {
+        assertThat(new Config("-t", "ora", "-dbThreads", "4", "-rowCountThreads", "2").getMaxDbConnections()).isEqualTo(6);
+        assertThat(new Config("-t", "ora", "-dbThreads", "4", "-norows").getMaxDbConnections()).isEqualTo(4);
+        assertThat(new Config("-t", "ora", "-dbThreads", "1").getMaxDbConnections()).isEqualTo(1);
+    }
+
+    @Test
+    public void pooledConnectionsCoverEverySchemaAndThreadLeasingOne() {
+        assertThat(new Config("-t", "ora", "-dbThreads", "2", "-norows").getMaxPooledConnections()).isEqualTo(2);
+        assertThat(new Config("-t", "ora", "-schemaThreads", "3", "-dbThreads", "2", "-norows").getMaxPooledConnections()).isEqualTo(9);
+        assertThat(new Config("-t", "ora", "-schemaThreads", "3", "-dbThreads", "1").getMaxPooledConnections()).isEqualTo(3);
+    }
+
+    @Test
+    public void includeFileWithoutInclusionIncludesOnlyListedTables() throws IOException {
+        File names = temporaryFolder.newFile("tables.txt");
+        Files.write(names.toPath(), Arrays.asList("Orders", "# comment"), StandardCharsets.UTF_8);
+        Config config = new Config("-t", "ora", "-includeFile", names.getPath(), "-nameFilesCaseInsensitive");
+        assertThat(config.getTableInclusionNames().contains("ORDERS")).isTrue();
+        assertThat(config.getTableInclusions().matcher("invoices").matches()).isFalse();
+    }
+
+    @Test(expected = InvalidConfigurationException.class)
+    public void missingIncludeFileIsRejected() {
+        new Config("-t", "ora", "-includeFile", "does-not-exist.txt").getTableInclusionNames();
+    }
+
+}
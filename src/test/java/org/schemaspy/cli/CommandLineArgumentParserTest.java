@@ -25,6 +25,8 @@ import org.junit.Test;
 import org.schemaspy.testing.Logger;
 import org.schemaspy.testing.LoggingRule;
 
+import java.io.File;
+
 import static org.assertj.core.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.BDDMockito.given;
@@ -103,6 +105,20 @@ public class CommandLineArgumentParserTest {
         assertThat(arguments.getUser()).isNull();
     }
 
+    @Test
+    public void modelIsGivenUserIsNotRequired() {
+        String[] args = {
+                "-o", "aFolder",
+                "-model", "aFolder/db.schema.xml"
+        };
+        CommandLineArgumentParser parser = new CommandLineArgumentParser(new CommandLineArguments(), NO_DEFAULT_PROVIDER);
+
+        CommandLineArguments arguments = parser.parse(args);
+
+        assertThat(arguments.getModel().getPath()).isEqualTo(new File("aFolder", "db.schema.xml").getPath());
+        assertThat(arguments.getUser()).isNull();
+    }
+
     @Test
     public void ssoIsEnabledInPropertiesFileUserIsNotRequired() {
         PropertyFileDefaultProvider defaultProvider = mock(PropertyFileDefaultProvider.class);
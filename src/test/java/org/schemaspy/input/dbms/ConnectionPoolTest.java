@@ -0,0 +1,111 @@
+package org.schemaspy.input.dbms;
+
+import org.junit.jupiter.api.Test;
+import org.schemaspy.input.dbms.exceptions.ConnectionFailure;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+class ConnectionPoolTest {
+
+    @Test
+    void reusesReleasedConnection() throws SQLException {
+        AtomicInteger created = new AtomicInteger();
+        ConnectionPool pool = new ConnectionPool(() -> {
+            created.incrementAndGet();
+            return mock(Connection.class);
+        }, 3);
+
+        Connection first = pool.borrow();
+        pool.release(first);
+        Connection second = pool.borrow();
+
+        assertThat(second).isSameAs(first);
+        assertThat(created.get()).isEqualTo(1);
+    }
+
+    @Test
+    void createsUpToMaxConnections() throws SQLException {
+        ConnectionPool pool = new ConnectionPool(() -> mock(Connection.class), 2);
+
+        Connection first = pool.borrow();
+        Connection second = pool.borrow();
+
+        assertThat(first).isNotSameAs(second);
+        assertThat(pool.size()).isEqualTo(2);
+    }
+
+    @Test
+    void waitsForReleaseWhenExhausted() throws Exception {
+        ConnectionPool pool = new ConnectionPool(() -> mock(Connection.class), 1);
+        Connection first = pool.borrow();
+
+        Thread releaser = new Thread(() -> {
+            try {
+                Thread.sleep(50);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            pool.release(first);
+        });
+        releaser.start();
+
+        assertThat(pool.borrow()).isSameAs(first);
+        releaser.join();
+    }
+
+    @Test
+    void settlesForExistingConnectionsWhenDatabaseRefusesMore() throws Exception {
+        AtomicInteger attempts = new AtomicInteger();
+        ConnectionPool pool = new ConnectionPool(() -> {
+            if (attempts.incrementAndGet() > 1) {
+                throw new ConnectionFailure("too many connections");
+            }
+            return mock(Connection.class);
+        }, 4);
+        Connection first = pool.borrow();
+
+        Thread releaser = new Thread(() -> {
+            try {
+                Thread.sleep(50);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            pool.release(first);
+        });
+        releaser.start();
+
+        assertThat(pool.borrow()).isSameAs(first);
+        assertThat(pool.size()).isEqualTo(1);
+        releaser.join();
+    }
+
+    @Test
+    void failsWhenNoConnectionCanBeCreated() {
+        ConnectionPool pool = new ConnectionPool(() -> {
+            throw new ConnectionFailure("down");
+        }, 2);
+
+        assertThatExceptionOfType(SQLException.class).isThrownBy(pool::borrow);
+    }
+
+    @Test
+    void closeClosesAllConnections() throws SQLException {
+        ConnectionPool pool = new ConnectionPool(() -> mock(Connection.class), 2);
+        Connection first = pool.borrow();
+        Connection second = pool.borrow();
+        pool.release(first);
+
+        pool.close();
+
+        verify(first).close();
+        verify(second).close();
+        assertThatExceptionOfType(SQLException.class).isThrownBy(pool::borrow);
+    }
+}
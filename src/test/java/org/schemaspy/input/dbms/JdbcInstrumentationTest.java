@@ -0,0 +1,126 @@
+package org.schemaspy.input.dbms;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Collections;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class JdbcInstrumentationTest {
+
+    private static final String INDEXES_SQL = "select * from indexes where table_name = ?";
+
+    @TempDir
+    private File outputDir;
+
+    private JdbcInstrumentation instrumentation;
+    private Connection connection;
+    private DatabaseMetaData databaseMetaData;
+
+    @BeforeEach
+    void setup() throws SQLException {
+        instrumentation = new JdbcInstrumentation(new CallStatistics(), Collections.singletonMap(INDEXES_SQL, "selectIndexesSql"));
+        connection = mock(Connection.class);
+        databaseMetaData = mock(DatabaseMetaData.class);
+        when(connection.getMetaData()).thenReturn(databaseMetaData);
+        when(databaseMetaData.getConnection()).thenReturn(connection);
+    }
+
+    private static ResultSet rows(int rows) throws SQLException {
+        ResultSet resultSet = mock(ResultSet.class);
+        Boolean[] more = new Boolean[rows];
+        for (int i = 0; i < rows; ++i) {
+            more[i] = i < rows - 1;
+        }
+        when(resultSet.next()).thenReturn(rows > 0, more);
+        return resultSet;
+    }
+
+    private JSONArray writtenCalls() throws IOException {
+        instrumentation.getStatistics().write(outputDir);
+        String json = new String(Files.readAllBytes(new File(outputDir, CallStatistics.JSON_FILE_NAME).toPath()), StandardCharsets.UTF_8);
+        return new JSONObject(json).getJSONArray("calls");
+    }
+
+    @Test
+    void metaDataCallsAreRecordedPerTable() throws SQLException, IOException {
+        ResultSet columns = rows(3);
+        when(databaseMetaData.getColumns(null, "sch", "person", "%")).thenReturn(columns);
+
+        DatabaseMetaData instrumented = instrumentation.metaData(databaseMetaData);
+        try (ResultSet resultSet = instrumented.getColumns(null, "sch", "person", "%")) {
+            while (resultSet.next()) {
+                resultSet.getString("COLUMN_NAME");
+            }
+        }
+
+        JSONObject call = writtenCalls().getJSONObject(0);
+        assertThat(call.getString("call")).isEqualTo("getColumns");
+        assertThat(call.getLong("count")).isEqualTo(1);
+        assertThat(call.getLong("rows")).isEqualTo(3);
+        assertThat(call.getJSONArray("slowestTables").getJSONObject(0).getString("table")).isEqualTo("person");
+    }
+
+    @Test
+    void statementsAreNamedAfterTheirSqlProperty() throws SQLException, IOException {
+        ResultSet row = rows(1);
+        PreparedStatement statement = mock(PreparedStatement.class);
+        when(statement.executeQuery()).thenReturn(row);
+
+        try (PreparedStatement instrumented = instrumentation.statement(statement, INDEXES_SQL, "person");
+             ResultSet resultSet = instrumented.executeQuery()) {
+            resultSet.next();
+        }
+
+        JSONObject call = writtenCalls().getJSONObject(0);
+        assertThat(call.getString("call")).isEqualTo("selectIndexesSql");
+        assertThat(call.getLong("rows")).isEqualTo(1);
+        List<String> csv = Files.readAllLines(new File(outputDir, CallStatistics.CSV_FILE_NAME).toPath());
+        assertThat(csv).hasSize(2);
+        assertThat(csv.get(1)).startsWith("selectIndexesSql,person,1,").endsWith(",1,0");
+    }
+
+    @Test
+    void failedCallsAreCounted() throws SQLException, IOException {
+        when(databaseMetaData.getIndexInfo(any(), any(), anyString(), anyBoolean(), anyBoolean()))
+                .thenThrow(new SQLException("no access"));
+
+        DatabaseMetaData instrumented = instrumentation.metaData(databaseMetaData);
+        assertThatExceptionOfType(SQLException.class)
+                .isThrownBy(() -> instrumented.getIndexInfo(null, "sch", "person", false, true));
+
+        JSONObject call = writtenCalls().getJSONObject(0);
+        assertThat(call.getString("call")).isEqualTo("getIndexInfo");
+        assertThat(call.getLong("errors")).isEqualTo(1);
+    }
+
+    @Test
+    void connectionsAreInstrumentedOnce() throws SQLException {
+        Connection instrumented = instrumentation.connection(connection);
+
+        assertThat(instrumentation.connection(connection)).isSameAs(instrumented);
+        assertThat(instrumentation.connection(instrumented)).isSameAs(instrumented);
+        assertThat(instrumented.getMetaData()).isSameAs(instrumentation.metaData(databaseMetaData));
+        assertThat(instrumented.getMetaData().getConnection()).isSameAs(instrumented);
+    }
+}
@@ -0,0 +1,105 @@
+package org.schemaspy.input.dbms;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+class StatementCacheTest {
+
+    private static final String SQL = "select * from t where s = ?";
+
+    private Connection connection;
+
+    @BeforeEach
+    void setup() throws SQLException {
+        connection = mock(Connection.class);
+        when(connection.prepareStatement(anyString())).thenAnswer(invocation -> mock(PreparedStatement.class));
+    }
+
+    @Test
+    void closedStatementIsReused() throws SQLException {
+        StatementCache cache = new StatementCache(4);
+
+        try (PreparedStatement first = cache.prepareStatement(connection, SQL)) {
+            first.setString(1, "a");
+            first.executeQuery();
+        }
+        try (PreparedStatement second = cache.prepareStatement(connection, SQL)) {
+            second.setString(1, "b");
+            second.executeQuery();
+        }
+
+        verify(connection, times(1)).prepareStatement(SQL);
+    }
+
+    @Test
+    void statementInUseIsNotHandedOutTwice() throws SQLException {
+        StatementCache cache = new StatementCache(4);
+
+        PreparedStatement first = cache.prepareStatement(connection, SQL);
+        PreparedStatement second = cache.prepareStatement(connection, SQL);
+
+        verify(connection, times(2)).prepareStatement(SQL);
+        first.close();
+        second.close();
+    }
+
+    @Test
+    void failedStatementIsClosedInsteadOfReused() throws SQLException {
+        PreparedStatement failing = mock(PreparedStatement.class);
+        when(failing.executeQuery()).thenThrow(new SQLException("bad"));
+        when(connection.prepareStatement(SQL)).thenReturn(failing, mock(PreparedStatement.class));
+        StatementCache cache = new StatementCache(4);
+
+        try (PreparedStatement first = cache.prepareStatement(connection, SQL)) {
+            assertThatExceptionOfType(SQLException.class).isThrownBy(first::executeQuery);
+        }
+        cache.prepareStatement(connection, SQL).close();
+
+        verify(failing).close();
+        verify(connection, times(2)).prepareStatement(SQL);
+    }
+
+    @Test
+    void closedWrapperCantBeUsed() throws SQLException {
+        StatementCache cache = new StatementCache(4);
+
+        PreparedStatement statement = cache.prepareStatement(connection, SQL);
+        statement.close();
+
+        assertThat(statement.isClosed()).isTrue();
+        assertThatExceptionOfType(SQLException.class).isThrownBy(statement::executeQuery);
+    }
+
+    @Test
+    void leastRecentlyUsedIsEvicted() throws SQLException {
+        StatementCache cache = new StatementCache(1);
+        PreparedStatement evicted = mock(PreparedStatement.class);
+        when(connection.prepareStatement("select 1")).thenReturn(evicted);
+
+        cache.prepareStatement(connection, "select 1").close();
+        cache.prepareStatement(connection, "select 2").close();
+
+        verify(evicted).close();
+    }
+
+    @Test
+    void closeClosesIdleStatements() throws SQLException {
+        PreparedStatement idle = mock(PreparedStatement.class);
+        when(connection.prepareStatement(SQL)).thenReturn(idle);
+        StatementCache cache = new StatementCache(4);
+
+        cache.prepareStatement(connection, SQL).close();
+        cache.close();
+
+        verify(idle).close();
+    }
+}
@@ -0,0 +1,73 @@
+package org.schemaspy.input.dbms.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.schemaspy.model.Database;
+import org.schemaspy.model.DbmsMeta;
+import org.schemaspy.model.Table;
+import org.schemaspy.model.TableColumn;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Properties;
+import java.util.regex.Pattern;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ColumnServiceAutoUpdateTest {
+
+    private static final Pattern DEFAULT_COLUMN_EXCLUSION = Pattern.compile("[^.]");
+
+    private final SqlService sqlService = mock(SqlService.class);
+    private final Properties dbProperties = new Properties();
+    private final ColumnService columnService = new ColumnService(sqlService, DEFAULT_COLUMN_EXCLUSION, DEFAULT_COLUMN_EXCLUSION, dbProperties);
+
+    private Database database;
+    private TableColumn id;
+    private TableColumn name;
+
+    @BeforeEach
+    void setup() {
+        database = new Database(mock(DbmsMeta.class), "autoUpdateTest", "cat", "sch");
+        Table table = new Table(database, "cat", "sch", "person", null);
+        id = new TableColumn(table);
+        id.setName("id");
+        table.getColumnsMap().put(id.getName(), id);
+        name = new TableColumn(table);
+        name.setName("name");
+        table.getColumnsMap().put(name.getName(), name);
+        database.getTablesMap().put(table.getName(), table);
+    }
+
+    @Test
+    void marksColumnsReturnedBySelectAutoIncrementColumnsSql() throws SQLException {
+        dbProperties.setProperty("selectAutoIncrementColumnsSql", "auto increments");
+        ResultSet resultSet = mock(ResultSet.class);
+        when(resultSet.next()).thenReturn(true, true, false);
+        when(resultSet.getString("table_name")).thenReturn("person", "unknown");
+        when(resultSet.getString("column_name")).thenReturn("id", "id");
+        PreparedStatement statement = mock(PreparedStatement.class);
+        when(statement.executeQuery()).thenReturn(resultSet);
+        when(sqlService.prepareStatement("auto increments", database, null)).thenReturn(statement);
+
+        columnService.gatherColumnDetails(database.getTablesMap().get("person"));
+        columnService.initColumnAutoUpdate(database);
+
+        verify(sqlService, never()).getDatabaseMetaData();
+        assertThat(id.isAutoUpdated()).isTrue();
+        assertThat(name.isAutoUpdated()).isFalse();
+    }
+
+    @Test
+    void withoutSelectAutoIncrementColumnsSqlNothingIsDoneSchemaWide() throws SQLException {
+        columnService.initColumnAutoUpdate(database);
+
+        verify(sqlService, never()).prepareStatement("auto increments", database, null);
+        assertThat(id.isAutoUpdated()).isFalse();
+    }
+}
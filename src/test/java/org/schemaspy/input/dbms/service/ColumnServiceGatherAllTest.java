@@ -0,0 +1,122 @@
+package org.schemaspy.input.dbms.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.schemaspy.model.Database;
+import org.schemaspy.model.DbmsMeta;
+import org.schemaspy.model.Table;
+
+import java.sql.DatabaseMetaData;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.Properties;
+import java.util.regex.Pattern;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ColumnServiceGatherAllTest {
+
+    private static final Pattern NO_COLUMNS = Pattern.compile("[^.]");
+
+    private final SqlService sqlService = mock(SqlService.class);
+    private final Properties dbProperties = new Properties();
+    private final ColumnService columnService = new ColumnService(sqlService, NO_COLUMNS, NO_COLUMNS, dbProperties);
+
+    private Database database;
+    private Table first;
+    private Table second;
+
+    @BeforeEach
+    void setup() {
+        database = new Database(mock(DbmsMeta.class), "columnServiceTest", "cat", "sch");
+        first = new Table(database, "cat", "sch", "first", null);
+        second = new Table(database, "cat", "sch", "second", null);
+    }
+
+    private static ResultSet columns() throws SQLException {
+        ResultSet columns = mock(ResultSet.class);
+        when(columns.next()).thenReturn(true, true, true, true, false);
+        when(columns.getString("TABLE_NAME")).thenReturn("first", "FIRST", "second", "unknown");
+        when(columns.getString("COLUMN_NAME")).thenReturn("id", "name", "id", "id");
+        when(columns.getString("TYPE_NAME")).thenReturn("int");
+        return columns;
+    }
+
+    @Test
+    void selectColumnsSqlDistributesColumnsToTables() throws SQLException {
+        dbProperties.setProperty("selectColumnsSql", "all columns");
+        ResultSet columns = columns();
+        PreparedStatement statement = mock(PreparedStatement.class);
+        when(statement.executeQuery()).thenReturn(columns);
+        when(sqlService.prepareStatement("all columns", database, null)).thenReturn(statement);
+
+        assertThat(columnService.gatherColumns(database, Arrays.asList(first, second))).isTrue();
+
+        verify(sqlService, never()).getDatabaseMetaData();
+        assertThat(first.getColumnsMap()).containsOnlyKeys("ID", "NAME");
+        assertThat(second.getColumnsMap()).containsOnlyKeys("ID");
+    }
+
+    @Test
+    void bulkColumnsDistributesColumnsToTables() throws SQLException {
+        dbProperties.setProperty("bulkColumns", "true");
+        ResultSet columns = columns();
+        DatabaseMetaData metaData = mock(DatabaseMetaData.class);
+        when(metaData.getColumns("cat", "sch", "%", "%")).thenReturn(columns);
+        when(sqlService.getDatabaseMetaData()).thenReturn(metaData);
+
+        assertThat(columnService.gatherColumns(database, Arrays.asList(first, second))).isTrue();
+
+        verify(metaData).getColumns("cat", "sch", "%", "%");
+        assertThat(first.getColumnsMap()).containsOnlyKeys("ID", "NAME");
+        assertThat(second.getColumnsMap()).containsOnlyKeys("ID");
+    }
+
+    @Test
+    void failingSelectColumnsSqlLeavesColumnsToBeGatheredPerTable() throws SQLException {
+        dbProperties.setProperty("selectColumnsSql", "all columns");
+        ResultSet columns = mock(ResultSet.class);
+        when(columns.next()).thenReturn(true).thenThrow(new SQLException("connection reset"));
+        when(columns.getString("TABLE_NAME")).thenReturn("first");
+        when(columns.getString("COLUMN_NAME")).thenReturn("id");
+        PreparedStatement statement = mock(PreparedStatement.class);
+        when(statement.executeQuery()).thenReturn(columns);
+        when(sqlService.prepareStatement("all columns", database, null)).thenReturn(statement);
+
+        assertThat(columnService.gatherColumns(database, Arrays.asList(first, second))).isFalse();
+
+        assertThat(first.getColumnsMap()).isEmpty();
+        assertThat(second.getColumnsMap()).isEmpty();
+    }
+
+    @Test
+    void failingBulkColumnsLeavesColumnsToBeGatheredPerTable() throws SQLException {
+        dbProperties.setProperty("bulkColumns", "true");
+        ResultSet columns = mock(ResultSet.class);
+        when(columns.next()).thenReturn(true).thenThrow(new SQLException("connection reset"));
+        when(columns.getString("TABLE_NAME")).thenReturn("second");
+        when(columns.getString("COLUMN_NAME")).thenReturn("id");
+        DatabaseMetaData metaData = mock(DatabaseMetaData.class);
+        when(metaData.getColumns("cat", "sch", "%", "%")).thenReturn(columns);
+        when(sqlService.getDatabaseMetaData()).thenReturn(metaData);
+
+        assertThat(columnService.gatherColumns(database, Arrays.asList(first, second))).isFalse();
+
+        assertThat(first.getColumnsMap()).isEmpty();
+        assertThat(second.getColumnsMap()).isEmpty();
+    }
+
+    @Test
+    void withoutQueryOrBulkColumnsNothingIsGathered() throws SQLException {
+        assertThat(columnService.gatherColumns(database, Arrays.asList(first, second))).isFalse();
+
+        verify(sqlService, never()).getDatabaseMetaData();
+        assertThat(first.getColumnsMap()).isEmpty();
+    }
+}
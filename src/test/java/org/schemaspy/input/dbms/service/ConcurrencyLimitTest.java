@@ -0,0 +1,80 @@
+package org.schemaspy.input.dbms.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ConcurrencyLimitTest {
+
+    private final AtomicLong now = new AtomicLong();
+
+    /**
+     * Run a full round at the current limit where every table takes <code>nanos</code>
+     */
+    private void round(ConcurrencyLimit limit, long nanos, boolean failed) throws InterruptedException {
+        List<ConcurrencyLimit.Permit> permits = new ArrayList<>();
+        int threads = limit.getLimit();
+        for (int i = 0; i < threads; ++i) {
+            permits.add(limit.acquire());
+        }
+        now.addAndGet(nanos);
+        permits.forEach(permit -> permit.release(failed));
+    }
+
+    @Test
+    void fixedLimitNeverChanges() throws InterruptedException {
+        ConcurrencyLimit limit = ConcurrencyLimit.fixed(4);
+
+        limit.acquire().release(true);
+
+        assertThat(limit.isAdaptive()).isFalse();
+        assertThat(limit.getLimit()).isEqualTo(4);
+    }
+
+    @Test
+    void growsWhileLatencyIsFlat() throws InterruptedException {
+        ConcurrencyLimit limit = ConcurrencyLimit.adaptive(10, now::get);
+
+        round(limit, 100, false);
+        assertThat(limit.getLimit()).isEqualTo(2);
+        round(limit, 100, false);
+        round(limit, 100, false);
+        assertThat(limit.getLimit()).isEqualTo(8);
+        round(limit, 100, false);
+        round(limit, 100, false);
+
+        assertThat(limit.getLimit()).isEqualTo(10);
+        assertThat(limit.getPeak()).isEqualTo(10);
+    }
+
+    @Test
+    void backsOffWhenLatencyRises() throws InterruptedException {
+        ConcurrencyLimit limit = ConcurrencyLimit.adaptive(10, now::get);
+        round(limit, 100, false);
+        round(limit, 100, false);
+        round(limit, 100, false);
+
+        round(limit, 1000, false);
+        assertThat(limit.getLimit()).isEqualTo(6);
+
+        round(limit, 100, false);
+        assertThat(limit.getLimit()).isEqualTo(7);
+    }
+
+    @Test
+    void halvesOnFailure() throws InterruptedException {
+        ConcurrencyLimit limit = ConcurrencyLimit.adaptive(10, now::get);
+        round(limit, 100, false);
+        round(limit, 100, false);
+        round(limit, 100, false);
+
+        round(limit, 100, true);
+
+        assertThat(limit.getLimit()).isEqualTo(4);
+        assertThat(limit.getPeak()).isEqualTo(8);
+    }
+}
@@ -21,27 +21,41 @@ package org.schemaspy.input.dbms.service;
 import org.junit.Before;
 import org.junit.Rule;
 import org.junit.Test;
+import org.mockito.InOrder;
 import org.schemaspy.Config;
+import org.schemaspy.input.dbms.snapshot.Snapshot;
 import org.schemaspy.model.Database;
+import org.schemaspy.model.DbmsMeta;
 import org.schemaspy.model.ProgressListener;
 import org.schemaspy.model.Table;
+import org.schemaspy.model.TableColumn;
 import org.schemaspy.testing.Logger;
 import org.schemaspy.testing.LoggingRule;
+import org.schemaspy.util.CaseInsensitiveMap;
+import org.schemaspy.validator.ExactNames;
 
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.time.Clock;
 import java.time.Instant;
 import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Properties;
 import java.util.regex.Pattern;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
 import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 public class DatabaseServiceTest {
@@ -71,7 +85,7 @@ public class DatabaseServiceTest {
         doAnswer(invocation -> {
             currentTime = currentTime.plus(31, ChronoUnit.MINUTES);
             return null;
-        }).when(tableService).connectForeignKeys(any(),any(),anyMap());
+        }).when(tableService).connectForeignKeys(any(),any(),anyMap(),any());
         ViewService viewService = mock(ViewService.class);
         RoutineService routineService = mock(RoutineService.class);
         SequenceService sequenceService = mock(SequenceService.class);
@@ -81,14 +95,20 @@ public class DatabaseServiceTest {
                 true,
                 DEFAULT_TABLE_INCLUSION,
                 DEFAULT_TABLE_EXCLUSION,
+                ExactNames.none(),
+                ExactNames.none(),
                 1,
+                false,
+                TaskExecutors.platform(),
                 true,
                 true,
+                1,
                 new Properties(),
                 tableService,
                 viewService,
                 routineService,
-                sequenceService
+                sequenceService,
+                TimeBudget.unlimited()
         );
         List<Table> tablesList = new ArrayList<>();
         tablesList.add(mock(Table.class));
@@ -98,10 +118,10 @@ public class DatabaseServiceTest {
         tablesList.add(mock(Table.class));
         Database database = mock(Database.class);
         when(database.getTables()).thenReturn(tablesList);
-        Method connectTables = DatabaseService.class.getDeclaredMethod("connectTables", Database.class, ProgressListener.class);
+        Method connectTables = DatabaseService.class.getDeclaredMethod("connectTables", Database.class, ProgressListener.class, Snapshot.class, Map.class);
         connectTables.setAccessible(true);
 
-        connectTables.invoke(databaseService, database, progressListener);
+        connectTables.invoke(databaseService, database, progressListener, Snapshot.empty(), DatabaseService.estimateRows(tablesList));
 
         assertThat(loggingRule.getLog()).contains("Estimated time remaining");
     }
@@ -115,7 +135,7 @@ public class DatabaseServiceTest {
         doAnswer(invocation -> {
             currentTime = currentTime.plus(31, ChronoUnit.MINUTES);
             return null;
-        }).when(tableService).connectForeignKeys(any(),any(),anyMap());
+        }).when(tableService).connectForeignKeys(any(),any(),anyMap(),any());
         ViewService viewService = mock(ViewService.class);
         RoutineService routineService = mock(RoutineService.class);
         SequenceService sequenceService = mock(SequenceService.class);
@@ -125,14 +145,20 @@ public class DatabaseServiceTest {
                 true,
                 DEFAULT_TABLE_INCLUSION,
                 DEFAULT_TABLE_EXCLUSION,
+                ExactNames.none(),
+                ExactNames.none(),
                 1,
                 false,
+                TaskExecutors.platform(),
+                false,
                 true,
+                1,
                 new Properties(),
                 tableService,
                 viewService,
                 routineService,
-                sequenceService
+                sequenceService,
+                TimeBudget.unlimited()
         );
         List<Table> tablesList = new ArrayList<>();
         tablesList.add(mock(Table.class));
@@ -142,10 +168,10 @@ public class DatabaseServiceTest {
         tablesList.add(mock(Table.class));
         Database database = mock(Database.class);
         when(database.getTables()).thenReturn(tablesList);
-        Method connectTables = DatabaseService.class.getDeclaredMethod("connectTables", Database.class, ProgressListener.class);
+        Method connectTables = DatabaseService.class.getDeclaredMethod("connectTables", Database.class, ProgressListener.class, Snapshot.class, Map.class);
         connectTables.setAccessible(true);
 
-        connectTables.invoke(databaseService, database, progressListener);
+        connectTables.invoke(databaseService, database, progressListener, Snapshot.empty(), DatabaseService.estimateRows(tablesList));
 
         assertThat(loggingRule.getLog()).doesNotContain("Estimated time remaining");
     }
@@ -159,7 +185,7 @@ public class DatabaseServiceTest {
         doAnswer(invocation -> {
             currentTime = currentTime.plus(1, ChronoUnit.MINUTES);
             return null;
-        }).when(tableService).connectForeignKeys(any(),any(),anyMap());
+        }).when(tableService).connectForeignKeys(any(),any(),anyMap(),any());
         ViewService viewService = mock(ViewService.class);
         RoutineService routineService = mock(RoutineService.class);
         SequenceService sequenceService = mock(SequenceService.class);
@@ -169,14 +195,20 @@ public class DatabaseServiceTest {
                 true,
                 DEFAULT_TABLE_INCLUSION,
                 DEFAULT_TABLE_EXCLUSION,
+                ExactNames.none(),
+                ExactNames.none(),
                 1,
+                false,
+                TaskExecutors.platform(),
                 true,
                 true,
+                1,
                 new Properties(),
                 tableService,
                 viewService,
                 routineService,
-                sequenceService
+                sequenceService,
+                TimeBudget.unlimited()
         );
         List<Table> tablesList = new ArrayList<>();
         tablesList.add(mock(Table.class));
@@ -186,12 +218,179 @@ public class DatabaseServiceTest {
         tablesList.add(mock(Table.class));
         Database database = mock(Database.class);
         when(database.getTables()).thenReturn(tablesList);
-        Method connectTables = DatabaseService.class.getDeclaredMethod("connectTables", Database.class, ProgressListener.class);
+        Method connectTables = DatabaseService.class.getDeclaredMethod("connectTables", Database.class, ProgressListener.class, Snapshot.class, Map.class);
         connectTables.setAccessible(true);
 
-        connectTables.invoke(databaseService, database, progressListener);
+        connectTables.invoke(databaseService, database, progressListener, Snapshot.empty(), DatabaseService.estimateRows(tablesList));
 
         assertThat(loggingRule.getLog()).doesNotContain("Estimated time remaining");
     }
 
-}
\ No newline at end of file
+    @Test
+    public void connectTablesWithSeveralThreadsAppliesForeignKeysInTableOrder() throws NoSuchMethodException, InvocationTargetException, IllegalAccessException {
+        SqlService sqlService = mock(SqlService.class);
+        TableService tableService = mock(TableService.class);
+        DatabaseService databaseService = new DatabaseService(
+                clock,
+                sqlService,
+                true,
+                DEFAULT_TABLE_INCLUSION,
+                DEFAULT_TABLE_EXCLUSION,
+                ExactNames.none(),
+                ExactNames.none(),
+                4,
+                false,
+                TaskExecutors.platform(),
+                true,
+                true,
+                1,
+                new Properties(),
+                tableService,
+                mock(ViewService.class),
+                mock(RoutineService.class),
+                mock(SequenceService.class),
+                TimeBudget.unlimited()
+        );
+        List<Table> tablesList = new ArrayList<>();
+        for (int i = 0; i < 10; ++i) {
+            Table table = mock(Table.class);
+            when(table.getColumnsMap()).thenReturn(new CaseInsensitiveMap<>());
+            tablesList.add(table);
+        }
+        when(tableService.fetchForeignKeys(any(Table.class), any(Snapshot.class)))
+                .thenReturn(new TableService.FetchedForeignKeys(Collections.emptyList(), Collections.emptyList(), false));
+        Database database = mock(Database.class);
+        when(database.getTables()).thenReturn(tablesList);
+        Method connectTables = DatabaseService.class.getDeclaredMethod("connectTables", Database.class, ProgressListener.class, Snapshot.class, Map.class);
+        connectTables.setAccessible(true);
+
+        connectTables.invoke(databaseService, database, progressListener, Snapshot.empty(), DatabaseService.estimateRows(tablesList));
+
+        InOrder inOrder = inOrder(tableService);
+        for (Table table : tablesList) {
+            inOrder.verify(tableService).applyForeignKeys(eq(database), eq(table), any(), any());
+        }
+        verify(tableService, never()).connectForeignKeys(any(), any(), anyMap(), any());
+    }
+
+    @Test
+    public void failingViewStopsGatheringOnOneThread() throws Exception {
+        assertFailingViewStopsGathering(1);
+    }
+
+    @Test
+    public void failingViewStopsGatheringWithSeveralThreads() throws Exception {
+        assertFailingViewStopsGathering(4);
+    }
+
+    private void assertFailingViewStopsGathering(int maxThreads) throws Exception {
+        ViewService viewService = mock(ViewService.class);
+        SQLException failure = new SQLException("view is invalid");
+        doThrow(failure).when(viewService).gatherViewDetails(any(), any(), anyBoolean(), anyBoolean());
+        DatabaseService databaseService = new DatabaseService(
+                clock,
+                mock(SqlService.class),
+                true,
+                DEFAULT_TABLE_INCLUSION,
+                DEFAULT_TABLE_EXCLUSION,
+                ExactNames.none(),
+                ExactNames.none(),
+                maxThreads,
+                false,
+                TaskExecutors.platform(),
+                true,
+                true,
+                1,
+                new Properties(),
+                mock(TableService.class),
+                viewService,
+                mock(RoutineService.class),
+                mock(SequenceService.class),
+                TimeBudget.unlimited()
+        );
+        Database database = new Database(mock(DbmsMeta.class), "views", "cat", "sch");
+        ResultSet views = mock(ResultSet.class);
+        when(views.next()).thenReturn(true, true, false);
+        when(views.getString("TABLE_NAME")).thenReturn("broken", "fine");
+        when(views.getString("TABLE_TYPE")).thenReturn("VIEW");
+        DatabaseMetaData metaData = mock(DatabaseMetaData.class);
+        when(metaData.getTables(null, "sch", "%", new String[]{"VIEW"})).thenReturn(views);
+        Method initViews = DatabaseService.class.getDeclaredMethod("initViews", Database.class, ProgressListener.class, DatabaseMetaData.class);
+        initViews.setAccessible(true);
+
+        assertThatThrownBy(() -> initViews.invoke(databaseService, database, progressListener, metaData))
+                .hasCause(failure);
+        assertThat(database.getViewsMap()).isEmpty();
+    }
+
+    @Test
+    @Logger(DatabaseService.class)
+    public void snapshotWithoutChangedTablesSqlWarns() throws Exception {
+        DatabaseService databaseService = new DatabaseService(
+                clock,
+                mock(SqlService.class),
+                true,
+                DEFAULT_TABLE_INCLUSION,
+                DEFAULT_TABLE_EXCLUSION,
+                ExactNames.none(),
+                ExactNames.none(),
+                1,
+                false,
+                TaskExecutors.platform(),
+                true,
+                true,
+                1,
+                new Properties(),
+                mock(TableService.class),
+                mock(ViewService.class),
+                mock(RoutineService.class),
+                mock(SequenceService.class),
+                TimeBudget.unlimited()
+        );
+        Method initDdlTimestamps = DatabaseService.class.getDeclaredMethod("initDdlTimestamps", Database.class, Snapshot.class);
+        initDdlTimestamps.setAccessible(true);
+
+        initDdlTimestamps.invoke(databaseService, mock(Database.class), Snapshot.disabled());
+        assertThat(loggingRule.getLog()).doesNotContain("selectChangedTablesSql");
+
+        initDdlTimestamps.invoke(databaseService, mock(Database.class), Snapshot.empty());
+        assertThat(loggingRule.getLog()).contains("no selectChangedTablesSql");
+    }
+
+    @Test
+    public void largestTablesAreScheduledFirst() {
+        Database database = mock(Database.class);
+        Table small = new Table(database, null, "sch", "small", null);
+        small.setNumRows(10);
+        Table large = new Table(database, null, "sch", "large", null);
+        large.setNumRows(1_000_000);
+        Table wide = new Table(database, null, "sch", "wide", null);
+        wide.getColumnsMap().put("a", new TableColumn(wide));
+        wide.getColumnsMap().put("b", new TableColumn(wide));
+        Table unknown = new Table(database, null, "sch", "unknown", null);
+        Table restored = new Table(database, null, "sch", "restored", null);
+        restored.setNumRows(5_000_000);
+
+        List<Table> tables = new ArrayList<>(Arrays.asList(unknown, small, restored, wide, large));
+        tables.sort(DatabaseService.largestFirst(Collections.singleton(restored), DatabaseService.estimateRows(tables)));
+
+        assertThat(tables).containsExactly(large, small, wide, unknown, restored);
+    }
+
+    @Test
+    public void tablesAreScheduledByTheirRowsBeforeTheyWereCounted() {
+        Database database = mock(Database.class);
+        Table first = new Table(database, null, "sch", "first", null);
+        first.setNumRows(1_000);
+        Table second = new Table(database, null, "sch", "second", null);
+        second.setNumRows(10);
+        List<Table> tables = new ArrayList<>(Arrays.asList(second, first));
+        Map<Table, Long> rowEstimates = DatabaseService.estimateRows(tables);
+
+        // counted while the tables are sorted
+        second.setNumRows(1_000_000);
+        tables.sort(DatabaseService.largestFirst(Collections.emptySet(), rowEstimates));
+
+        assertThat(tables).containsExactly(first, second);
+    }
+}
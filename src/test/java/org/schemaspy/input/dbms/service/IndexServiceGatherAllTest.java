@@ -0,0 +1,92 @@
+package org.schemaspy.input.dbms.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.schemaspy.model.Database;
+import org.schemaspy.model.DbmsMeta;
+import org.schemaspy.model.Table;
+import org.schemaspy.model.TableColumn;
+
+import java.sql.DatabaseMetaData;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Properties;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class IndexServiceGatherAllTest {
+
+    private final SqlService sqlService = mock(SqlService.class);
+    private final Properties dbProperties = new Properties();
+    private final IndexService indexService = new IndexService(sqlService, dbProperties);
+
+    private Database database;
+    private Table first;
+    private Table second;
+
+    @BeforeEach
+    void setup() {
+        database = new Database(mock(DbmsMeta.class), "indexServiceTest", "cat", "sch");
+        first = addTable("first");
+        second = addTable("second");
+    }
+
+    private Table addTable(String name) {
+        Table table = new Table(database, "cat", "sch", name, null);
+        TableColumn id = new TableColumn(table);
+        id.setName("id");
+        table.getColumnsMap().put(id.getName(), id);
+        database.getTablesMap().put(table.getName(), table);
+        return table;
+    }
+
+    @Test
+    void distributesIndexesAndPrimaryKeysToTables() throws SQLException {
+        dbProperties.setProperty("selectAllIndexesSql", "all indexes");
+        dbProperties.setProperty("selectAllPrimaryKeysSql", "all pks");
+
+        ResultSet indexes = mock(ResultSet.class);
+        when(indexes.next()).thenReturn(true, true, true, false);
+        when(indexes.getString("TABLE_NAME")).thenReturn("first", "second", "unknown");
+        when(indexes.getShort("TYPE")).thenReturn((short) DatabaseMetaData.tableIndexOther);
+        when(indexes.getString("INDEX_NAME")).thenReturn("first_pk", "second_pk", "unknown_pk");
+        when(indexes.getBoolean("NON_UNIQUE")).thenReturn(false);
+        when(indexes.getString("COLUMN_NAME")).thenReturn("id");
+        PreparedStatement indexStatement = mock(PreparedStatement.class);
+        when(indexStatement.executeQuery()).thenReturn(indexes);
+        when(sqlService.prepareStatement("all indexes", database, null)).thenReturn(indexStatement);
+
+        ResultSet primaryKeys = mock(ResultSet.class);
+        when(primaryKeys.next()).thenReturn(true, true, false);
+        when(primaryKeys.getString("TABLE_NAME")).thenReturn("first", "second");
+        when(primaryKeys.getString("COLUMN_NAME")).thenReturn("id");
+        when(primaryKeys.getString("PK_NAME")).thenReturn("first_pk", "second_pk");
+        when(primaryKeys.getShort("KEY_SEQ")).thenReturn((short) 1);
+        PreparedStatement primaryKeyStatement = mock(PreparedStatement.class);
+        when(primaryKeyStatement.executeQuery()).thenReturn(primaryKeys);
+        when(sqlService.prepareStatement("all pks", database, null)).thenReturn(primaryKeyStatement);
+
+        indexService.gatherIndexes(database, first);
+        indexService.gatherIndexes(database, second);
+        indexService.gatherIndexes(database);
+
+        verify(sqlService, never()).getDatabaseMetaData();
+        assertThat(first.getIndexesMap()).containsOnlyKeys("FIRST_PK");
+        assertThat(second.getIndexesMap()).containsOnlyKeys("SECOND_PK");
+        assertThat(first.getIndex("first_pk").isPrimaryKey()).isTrue();
+        assertThat(second.getPrimaryColumns()).extracting(TableColumn::getName).containsExactly("id");
+    }
+
+    @Test
+    void withoutQueriesNothingIsGatheredSchemaWide() throws SQLException {
+        indexService.gatherIndexes(database);
+
+        verify(sqlService, never()).getDatabaseMetaData();
+        assertThat(first.getIndexesMap()).isEmpty();
+    }
+}
@@ -0,0 +1,37 @@
+package org.schemaspy.input.dbms.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class StrategyOrderTest {
+
+    private final StrategyOrder<String> order = new StrategyOrder<>(Arrays.asList("custom", "count(*)", "count(1)"));
+
+    @Test
+    void strategiesAreTriedInTheirOriginalOrder() {
+        assertThat(order.inOrder()).containsExactly("custom", "count(*)", "count(1)");
+    }
+
+    @Test
+    void strategyThatKeepsFailingIsTriedLast() {
+        for (int i = 0; i < 3; ++i) {
+            order.failed("custom");
+            order.succeeded("count(*)");
+        }
+
+        assertThat(order.inOrder()).containsExactly("count(*)", "count(1)", "custom");
+    }
+
+    @Test
+    void strategyThatSucceededOnceIsNotDemoted() {
+        order.succeeded("custom");
+        for (int i = 0; i < 5; ++i) {
+            order.failed("custom");
+        }
+
+        assertThat(order.inOrder()).containsExactly("custom", "count(*)", "count(1)");
+    }
+}
@@ -26,6 +26,7 @@ import org.schemaspy.model.*;
 import org.schemaspy.testing.ConfigRule;
 import org.schemaspy.testing.Logger;
 import org.schemaspy.testing.LoggingRule;
+import org.schemaspy.validator.ExactNames;
 
 import java.sql.DatabaseMetaData;
 import java.sql.ResultSet;
@@ -53,7 +54,7 @@ public class TableServiceAddForeignKeyTest {
     private static final Pattern DEFAULT_TABLE_INCLUSION = Pattern.compile(".*"); // match everything
     private static final Pattern DEFAULT_TABLE_EXCLUSION = Pattern.compile(".*\\$.*");
 
-    private ColumnService columnService = new ColumnService(sqlService, DEFAULT_COLUMN_EXCLUSION, DEFAULT_COLUMN_EXCLUSION);
+    private ColumnService columnService = new ColumnService(sqlService, DEFAULT_COLUMN_EXCLUSION, DEFAULT_COLUMN_EXCLUSION, new Properties());
 
     private IndexService indexService = new IndexService(sqlService, new Properties());
 
@@ -65,7 +66,11 @@ public class TableServiceAddForeignKeyTest {
             DEFAULT_TABLE_EXCLUSION,
             new Properties(),
             columnService,
-            indexService
+            indexService,
+            TimeBudget.unlimited(),
+            RowCounting.auto(),
+            ExactNames.none(),
+            ExactNames.none()
     );
 
     private DbmsMeta dbmsMeta = mock(DbmsMeta.class);
@@ -102,7 +107,11 @@ public class TableServiceAddForeignKeyTest {
                 Pattern.compile("excludeMePlease"),
                 new Properties(),
                 columnService,
-                indexService
+                indexService,
+                TimeBudget.unlimited(),
+                RowCounting.auto(),
+                ExactNames.none(),
+                ExactNames.none()
         ).addForeignKey(database, null, foreignKey, new HashMap<>());
         assertThat(loggingRule.getLog()).contains("Ignoring CAT.S.excludeMePlease referenced by FK notNull");
     }
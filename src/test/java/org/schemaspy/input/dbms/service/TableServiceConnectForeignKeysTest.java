@@ -22,18 +22,26 @@ import org.junit.Before;
 import org.junit.Rule;
 import org.junit.Test;
 import org.schemaspy.input.dbms.service.helper.RemoteTableIdentifier;
+import org.schemaspy.input.dbms.snapshot.Snapshot;
 import org.schemaspy.model.*;
 import org.schemaspy.testing.ConfigRule;
 import org.schemaspy.testing.LoggingRule;
+import org.schemaspy.validator.ExactNames;
 
 import java.sql.DatabaseMetaData;
+import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.SQLTimeoutException;
+import java.time.Clock;
+import java.time.Duration;
 import java.util.Properties;
 import java.util.regex.Pattern;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 public class TableServiceConnectForeignKeysTest {
@@ -65,7 +73,7 @@ public class TableServiceConnectForeignKeysTest {
     @Before
     public void setup() {
         sqlService = mock(SqlService.class);
-        columnService = new ColumnService(sqlService, DEFAULT_COLUMN_EXCLUSION, DEFAULT_COLUMN_EXCLUSION);
+        columnService = new ColumnService(sqlService, DEFAULT_COLUMN_EXCLUSION, DEFAULT_COLUMN_EXCLUSION, new Properties());
         indexService = new IndexService(sqlService, new Properties());
         database = new Database(dbmsMeta, "tableServiceTest","connectFK", "tst");
         table = new Table(database, database.getCatalog().getName(), database.getSchema().getName(), "mainTable", "mainTable");
@@ -91,7 +99,11 @@ public class TableServiceConnectForeignKeysTest {
                 DEFAULT_TABLE_EXCLUSION,
                 new Properties(),
                 columnService,
-                indexService
+                indexService,
+                TimeBudget.unlimited(),
+                RowCounting.auto(),
+                ExactNames.none(),
+                ExactNames.none()
         );
 
         ResultSet importKeysResultSet = mock(ResultSet.class);
@@ -163,7 +175,11 @@ public class TableServiceConnectForeignKeysTest {
                 DEFAULT_TABLE_EXCLUSION,
                 new Properties(),
                 columnService,
-                indexService
+                indexService,
+                TimeBudget.unlimited(),
+                RowCounting.auto(),
+                ExactNames.none(),
+                ExactNames.none()
         );
         ResultSet importKeysResultSet = mock(ResultSet.class);
         when(importKeysResultSet.next()).thenReturn(false);
@@ -244,4 +260,165 @@ public class TableServiceConnectForeignKeysTest {
 
     }
 
-}
\ No newline at end of file
+    @Test
+    public void selectForeignKeysSql() throws SQLException {
+        Properties dbProperties = new Properties();
+        dbProperties.setProperty("selectForeignKeysSql", "select fks");
+        TableService tableService = new TableService(
+                sqlService,
+                true,
+                false,
+                DEFAULT_TABLE_INCLUSION,
+                DEFAULT_TABLE_EXCLUSION,
+                dbProperties,
+                columnService,
+                indexService,
+                TimeBudget.unlimited(),
+                RowCounting.auto(),
+                ExactNames.none(),
+                ExactNames.none()
+        );
+
+        ResultSet foreignKeysResultSet = mock(ResultSet.class);
+        when(foreignKeysResultSet.next()).thenReturn(true, false);
+        when(foreignKeysResultSet.getString("FKTABLE_CAT")).thenReturn("connectFK");
+        when(foreignKeysResultSet.getString("FKTABLE_SCHEM")).thenReturn("tst");
+        when(foreignKeysResultSet.getString("FKTABLE_NAME")).thenReturn("mainTable");
+        when(foreignKeysResultSet.getString("FK_NAME")).thenReturn("main_parent");
+        when(foreignKeysResultSet.getString("FKCOLUMN_NAME")).thenReturn("mainForeign");
+        when(foreignKeysResultSet.getString("PKTABLE_CAT")).thenReturn("parent");
+        when(foreignKeysResultSet.getString("PKTABLE_SCHEM")).thenReturn("parent");
+        when(foreignKeysResultSet.getString("PKTABLE_NAME")).thenReturn("parent");
+        when(foreignKeysResultSet.getString("PKCOLUMN_NAME")).thenReturn("parent");
+        when(foreignKeysResultSet.getInt("UPDATE_RULE")).thenReturn(0);
+        when(foreignKeysResultSet.getInt("DELETE_RULE")).thenReturn(0);
+
+        PreparedStatement statement = mock(PreparedStatement.class);
+        when(statement.executeQuery()).thenReturn(foreignKeysResultSet);
+        when(sqlService.prepareStatement("select fks", database, null)).thenReturn(statement);
+
+        LogicalRemoteTable remoteParent = new LogicalRemoteTable(database, new RemoteTableIdentifier("parent", "parent", "parent"), "tst");
+        TableColumn parent = new TableColumn(remoteParent);
+        parent.setName("parent");
+        remoteParent.getColumnsMap().put(parent.getName(), parent);
+        database.getRemoteTablesMap().put(database.getRemoteTableKey(remoteParent.getCatalog(), remoteParent.getSchema(),remoteParent.getName()), remoteParent);
+
+        assertThat(tableService.connectForeignKeys(database, database.getLocals())).isTrue();
+
+        assertThat(table.getForeignKeys().size()).isEqualTo(1);
+        assertThat(mainForeign.getParents().size()).isEqualTo(1);
+        assertThat(parent.getChildren().size()).isEqualTo(1);
+        verify(sqlService, never()).getDatabaseMetaData();
+    }
+
+    @Test
+    public void withoutSelectForeignKeysSqlConnectsPerTable() throws SQLException {
+        TableService tableService = new TableService(
+                sqlService,
+                true,
+                false,
+                DEFAULT_TABLE_INCLUSION,
+                DEFAULT_TABLE_EXCLUSION,
+                new Properties(),
+                columnService,
+                indexService,
+                TimeBudget.unlimited(),
+                RowCounting.auto(),
+                ExactNames.none(),
+                ExactNames.none()
+        );
+
+        assertThat(tableService.connectForeignKeys(database, database.getLocals())).isFalse();
+    }
+
+    @Test
+    public void skippedExportedKeysArentCapturedAsNone() throws SQLException {
+        TimeBudget timeBudget = new TimeBudget(Clock.systemUTC(), Duration.ZERO);
+        timeBudget.start();
+        timeBudget.timedOut(TimeBudget.Detail.EXPORTED_KEYS, new SQLTimeoutException("too slow"));
+        TableService tableService = new TableService(
+                sqlService,
+                true,
+                false,
+                DEFAULT_TABLE_INCLUSION,
+                DEFAULT_TABLE_EXCLUSION,
+                new Properties(),
+                columnService,
+                indexService,
+                timeBudget,
+                RowCounting.auto(),
+                ExactNames.none(),
+                ExactNames.none()
+        );
+        DatabaseMetaData databaseMetaData = mock(DatabaseMetaData.class);
+        ResultSet noKeys = mock(ResultSet.class);
+        when(databaseMetaData.getImportedKeys("connectFK", "tst", "mainTable")).thenReturn(noKeys);
+        when(sqlService.getDatabaseMetaData()).thenReturn(databaseMetaData);
+        Snapshot snapshot = Snapshot.empty();
+        snapshot.unchanged(table);
+
+        assertThat(tableService.fetchForeignKeys(table, snapshot).hasFailed()).isFalse();
+        snapshot.capture(database);
+
+        verify(databaseMetaData, never()).getExportedKeys("connectFK", "tst", "mainTable");
+        assertThat(snapshot.getCaptured()).hasSize(1);
+        assertThat(snapshot.getCaptured().get(0).hasForeignKeys()).isTrue();
+        assertThat(snapshot.getCaptured().get(0).hasExportedKeys()).isFalse();
+    }
+
+    @Test
+    public void failedImportedKeysArentCapturedAsNone() throws SQLException {
+        TableService tableService = new TableService(
+                sqlService,
+                false,
+                false,
+                DEFAULT_TABLE_INCLUSION,
+                DEFAULT_TABLE_EXCLUSION,
+                new Properties(),
+                columnService,
+                indexService,
+                TimeBudget.unlimited(),
+                RowCounting.auto(),
+                ExactNames.none(),
+                ExactNames.none()
+        );
+        DatabaseMetaData databaseMetaData = mock(DatabaseMetaData.class);
+        when(databaseMetaData.getImportedKeys("connectFK", "tst", "mainTable")).thenThrow(new SQLException("no access"));
+        when(sqlService.getDatabaseMetaData()).thenReturn(databaseMetaData);
+        Snapshot snapshot = Snapshot.empty();
+        snapshot.unchanged(table);
+
+        assertThat(tableService.fetchForeignKeys(table, snapshot).hasFailed()).isTrue();
+        snapshot.capture(database);
+
+        assertThat(snapshot.getCaptured()).hasSize(1);
+        assertThat(snapshot.getCaptured().get(0).hasForeignKeys()).isFalse();
+    }
+
+    @Test
+    public void failingExportedKeysAreReportedAsFailed() throws SQLException {
+        TableService tableService = new TableService(
+                sqlService,
+                true,
+                false,
+                DEFAULT_TABLE_INCLUSION,
+                DEFAULT_TABLE_EXCLUSION,
+                new Properties(),
+                columnService,
+                indexService,
+                TimeBudget.unlimited(),
+                RowCounting.auto(),
+                ExactNames.none(),
+                ExactNames.none()
+        );
+        DatabaseMetaData databaseMetaData = mock(DatabaseMetaData.class);
+        ResultSet noKeys = mock(ResultSet.class);
+        when(databaseMetaData.getImportedKeys("connectFK", "tst", "mainTable")).thenReturn(noKeys);
+        when(databaseMetaData.getExportedKeys("connectFK", "tst", "mainTable")).thenThrow(new SQLException("too many sessions"));
+        when(sqlService.getDatabaseMetaData()).thenReturn(databaseMetaData);
+
+        TableService.FetchedForeignKeys foreignKeys = tableService.fetchForeignKeys(table);
+
+        assertThat(foreignKeys.hasFailed()).isTrue();
+    }
+}
@@ -28,6 +28,7 @@ import org.schemaspy.input.dbms.xml.TableMeta;
 import org.schemaspy.model.*;
 import org.schemaspy.testing.Logger;
 import org.schemaspy.testing.LoggingRule;
+import org.schemaspy.validator.ExactNames;
 
 import java.sql.DatabaseMetaData;
 import java.sql.ResultSet;
@@ -49,7 +50,7 @@ public class TableServiceConnectTest {
     private SqlService sqlService = mock(SqlService.class);
 
     private static final Pattern DEFAULT_COLUMN_EXCLUSION = Pattern.compile("[^.]");
-    private ColumnService columnService = new ColumnService(sqlService, DEFAULT_COLUMN_EXCLUSION, DEFAULT_COLUMN_EXCLUSION);
+    private ColumnService columnService = new ColumnService(sqlService, DEFAULT_COLUMN_EXCLUSION, DEFAULT_COLUMN_EXCLUSION, new Properties());
     private static final Pattern DEFAULT_TABLE_INCLUSION = Pattern.compile(".*"); // match everything
     private static final Pattern DEFAULT_TABLE_EXCLUSION = Pattern.compile(".*\\$.*");
 
@@ -63,7 +64,11 @@ public class TableServiceConnectTest {
             DEFAULT_TABLE_EXCLUSION,
             new Properties(),
             columnService,
-            indexService
+            indexService,
+            TimeBudget.unlimited(),
+            RowCounting.auto(),
+            ExactNames.none(),
+            ExactNames.none()
     );
 
     private DbmsMeta dbmsMeta = mock(DbmsMeta.class);
@@ -0,0 +1,167 @@
+package org.schemaspy.input.dbms.service;
+
+import org.junit.jupiter.api.Test;
+import org.schemaspy.model.Database;
+import org.schemaspy.model.DbmsMeta;
+import org.schemaspy.model.Table;
+import org.schemaspy.validator.ExactNames;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.SQLTimeoutException;
+import java.util.Properties;
+import java.util.regex.Pattern;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.contains;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class TableServiceFetchNumRowsTest {
+
+    private static final Pattern DEFAULT_COLUMN_EXCLUSION = Pattern.compile("[^.]");
+
+    private final SqlService sqlService = mock(SqlService.class);
+    private final Properties dbProperties = new Properties();
+    private final TimeBudget timeBudget = TimeBudget.unlimited();
+    private final Database database = new Database(mock(DbmsMeta.class), "rowCounts", "cat", "sch");
+
+    @Test
+    void sampledScalesTheSampleByPercent() throws SQLException {
+        Table table = table("big");
+        PreparedStatement stmt = statement(42);
+        when(sqlService.prepareStatement("select count(*) from sch.big TABLESAMPLE SYSTEM (2.5)")).thenReturn(stmt);
+
+        long numRows = tableService(new RowCounting(RowCountMode.SAMPLED, 2.5, 0)).fetchNumRows(database, table);
+
+        assertThat(numRows).isEqualTo(1680);
+    }
+
+    @Test
+    void sampledUsesTheSampleClauseOfTheDatabaseType() throws SQLException {
+        dbProperties.setProperty("tableSampleClause", "SAMPLE (:percent)");
+        Table table = table("big");
+        PreparedStatement stmt = statement(7);
+        when(sqlService.prepareStatement("select count(*) from sch.big SAMPLE (10)")).thenReturn(stmt);
+
+        long numRows = tableService(new RowCounting(RowCountMode.SAMPLED, 10, 0)).fetchNumRows(database, table);
+
+        assertThat(numRows).isEqualTo(70);
+    }
+
+    @Test
+    void sampledFallsBackToStatisticsWhenSamplingFails() throws SQLException {
+        dbProperties.setProperty("selectRowCountSql", "select num_rows as row_count from stats where name = :table");
+        Table table = table("big");
+        when(sqlService.prepareStatement(anyString())).thenThrow(new SQLException("no tablesample"));
+        PreparedStatement stats = statsStatement(1234);
+        when(sqlService.prepareStatement("select num_rows as row_count from stats where name = :table", database, "big")).thenReturn(stats);
+
+        long numRows = tableService(new RowCounting(RowCountMode.SAMPLED, 1, 0)).fetchNumRows(database, table);
+
+        assertThat(numRows).isEqualTo(1234);
+        verify(sqlService).prepareStatement("select count(*) from sch.big TABLESAMPLE SYSTEM (1)");
+        verify(sqlService).prepareStatement("select count(*) from \"sch\".\"big\" TABLESAMPLE SYSTEM (1)");
+    }
+
+    @Test
+    void statsPrefersTheStatisticsQueryAndNeverCounts() throws SQLException {
+        dbProperties.setProperty("selectRowCountSql", "select count(*) as row_count from :table");
+        dbProperties.setProperty("selectRowCountStatsSql", "select num_rows as row_count from stats where name = :table");
+        Table table = table("big");
+        PreparedStatement stats = statsStatement(99);
+        when(sqlService.prepareStatement("select num_rows as row_count from stats where name = :table", database, "big")).thenReturn(stats);
+
+        long numRows = tableService(new RowCounting(RowCountMode.STATS, 1, 0)).fetchNumRows(database, table);
+
+        assertThat(numRows).isEqualTo(99);
+        verify(sqlService, never()).prepareStatement(anyString());
+    }
+
+    @Test
+    void timedSetsTheTimeoutOnEachCount() throws SQLException {
+        Table first = table("first");
+        Table second = table("second");
+        PreparedStatement firstStmt = statement(3);
+        PreparedStatement secondStmt = statement(5);
+        when(sqlService.prepareStatement("select count(*) from sch.first")).thenReturn(firstStmt);
+        when(sqlService.prepareStatement("select count(*) from sch.second")).thenReturn(secondStmt);
+
+        TableService tableService = tableService(new RowCounting(RowCountMode.TIMED, 1, 4));
+
+        assertThat(tableService.fetchNumRows(database, first)).isEqualTo(3);
+        assertThat(tableService.fetchNumRows(database, second)).isEqualTo(5);
+        verify(firstStmt).setQueryTimeout(4);
+        verify(secondStmt).setQueryTimeout(4);
+    }
+
+    @Test
+    void timedCountThatTimesOutIsUnknownWithoutStoppingTheOtherCounts() throws SQLException {
+        Table slow = table("slow");
+        Table fast = table("fast");
+        PreparedStatement slowStmt = mock(PreparedStatement.class);
+        when(slowStmt.executeQuery()).thenThrow(new SQLTimeoutException("canceled"));
+        PreparedStatement fastStmt = statement(11);
+        when(sqlService.prepareStatement("select count(*) from sch.slow")).thenReturn(slowStmt);
+        when(sqlService.prepareStatement("select count(*) from sch.fast")).thenReturn(fastStmt);
+
+        TableService tableService = tableService(new RowCounting(RowCountMode.TIMED, 1, 4));
+
+        assertThat(tableService.fetchNumRows(database, slow)).isEqualTo(-1);
+        assertThat(tableService.fetchNumRows(database, fast)).isEqualTo(11);
+        // a slow table isn't counted again with quotes or count(1), and doesn't use up the time budget
+        verify(sqlService, times(1)).prepareStatement(contains("slow"));
+        assertThat(timeBudget.allows(TimeBudget.Detail.ROW_COUNTS)).isTrue();
+        assertThat(timeBudget.getSkipped()).isEmpty();
+    }
+
+    private TableService tableService(RowCounting rowCounting) {
+        when(sqlService.getQualifiedTableName(eq("cat"), eq("sch"), anyString(), anyBoolean()))
+                .thenAnswer(invocation -> invocation.<Boolean>getArgument(3)
+                        ? "\"sch\".\"" + invocation.getArgument(2) + "\""
+                        : "sch." + invocation.getArgument(2));
+        return new TableService(
+                sqlService,
+                false,
+                false,
+                Pattern.compile(".*"),
+                Pattern.compile(".*\\$.*"),
+                dbProperties,
+                new ColumnService(sqlService, DEFAULT_COLUMN_EXCLUSION, DEFAULT_COLUMN_EXCLUSION, new Properties()),
+                new IndexService(sqlService, new Properties()),
+                timeBudget,
+                rowCounting,
+                ExactNames.none(),
+                ExactNames.none()
+        );
+    }
+
+    private Table table(String name) {
+        return new Table(database, "cat", "sch", name, null);
+    }
+
+    private static PreparedStatement statement(long count) throws SQLException {
+        ResultSet rs = mock(ResultSet.class);
+        when(rs.next()).thenReturn(true);
+        when(rs.getLong(1)).thenReturn(count);
+        PreparedStatement stmt = mock(PreparedStatement.class);
+        when(stmt.executeQuery()).thenReturn(rs);
+        return stmt;
+    }
+
+    private static PreparedStatement statsStatement(long count) throws SQLException {
+        ResultSet rs = mock(ResultSet.class);
+        when(rs.next()).thenReturn(true);
+        when(rs.getLong("row_count")).thenReturn(count);
+        PreparedStatement stmt = mock(PreparedStatement.class);
+        when(stmt.executeQuery()).thenReturn(rs);
+        return stmt;
+    }
+}
@@ -0,0 +1,93 @@
+package org.schemaspy.input.dbms.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+class TaskExecutorsTest {
+
+    private static int peakConcurrency(ExecutorService executorService, int tasks) throws InterruptedException, ExecutionException {
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger peak = new AtomicInteger();
+        List<Future<?>> futures = new ArrayList<>();
+        try {
+            for (int i = 0; i < tasks; ++i) {
+                futures.add(executorService.submit(() -> {
+                    peak.accumulateAndGet(running.incrementAndGet(), Math::max);
+                    try {
+                        TimeUnit.MILLISECONDS.sleep(20);
+                    } catch (InterruptedException interrupted) {
+                        Thread.currentThread().interrupt();
+                    }
+                    running.decrementAndGet();
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executorService.shutdownNow();
+        }
+        return peak.get();
+    }
+
+    @Test
+    void platformThreadsAreLimitedToConcurrency() throws InterruptedException, ExecutionException {
+        TaskExecutors taskExecutors = TaskExecutors.platform();
+
+        assertThat(taskExecutors.isVirtual()).isFalse();
+        assertThat(peakConcurrency(taskExecutors.newExecutor(3), 12)).isLessThanOrEqualTo(3);
+    }
+
+    @Test
+    void virtualThreadsAreLimitedToConcurrency() throws InterruptedException, ExecutionException {
+        assumeTrue(TaskExecutors.virtualThreadsAvailable());
+        TaskExecutors taskExecutors = TaskExecutors.virtual();
+
+        assertThat(taskExecutors.isVirtual()).isTrue();
+        assertThat(peakConcurrency(taskExecutors.newExecutor(3), 50)).isLessThanOrEqualTo(3);
+    }
+
+    @Test
+    void virtualTaskWaitingForAPermitIsCancelledOnShutdown() throws InterruptedException {
+        assumeTrue(TaskExecutors.virtualThreadsAvailable());
+        ExecutorService executorService = TaskExecutors.virtual().newExecutor(1);
+        CountDownLatch started = new CountDownLatch(1);
+        AtomicBoolean ran = new AtomicBoolean();
+
+        Future<?> running = executorService.submit(() -> {
+            started.countDown();
+            try {
+                TimeUnit.MINUTES.sleep(1);
+            } catch (InterruptedException interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        started.await();
+        Future<?> waiting = executorService.submit(() -> ran.set(true));
+        executorService.shutdownNow();
+
+        assertThat(executorService.awaitTermination(10, TimeUnit.SECONDS)).isTrue();
+        assertThat(running.isDone()).isTrue();
+        assertThat(waiting.isCancelled()).isTrue();
+        assertThat(ran.get()).isFalse();
+    }
+
+    @Test
+    void virtualFallsBackToPlatformThreads() {
+        assumeTrue(!TaskExecutors.virtualThreadsAvailable());
+
+        assertThat(TaskExecutors.virtual().isVirtual()).isFalse();
+    }
+}
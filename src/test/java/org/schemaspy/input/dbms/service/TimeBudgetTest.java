@@ -0,0 +1,76 @@
+package org.schemaspy.input.dbms.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.sql.SQLException;
+import java.sql.SQLTimeoutException;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class TimeBudgetTest {
+
+    private static final Instant START = Instant.parse("2020-01-01T00:00:00Z");
+
+    @Test
+    void unlimitedAllowsEverything() {
+        TimeBudget timeBudget = TimeBudget.unlimited();
+        timeBudget.start();
+
+        assertThat(timeBudget.allows(TimeBudget.Detail.ROW_COUNTS)).isTrue();
+        assertThat(timeBudget.getSkipped()).isEmpty();
+    }
+
+    @Test
+    void detailsAreSkippedOnceBudgetIsSpent() {
+        Clock clock = mock(Clock.class);
+        when(clock.instant()).thenReturn(START, START.plusSeconds(30), START.plusSeconds(61));
+        TimeBudget timeBudget = new TimeBudget(clock, Duration.ofMinutes(1));
+        timeBudget.start();
+
+        assertThat(timeBudget.allows(TimeBudget.Detail.ROW_COUNTS)).isTrue();
+        assertThat(timeBudget.allows(TimeBudget.Detail.ROW_COUNTS)).isFalse();
+        assertThat(timeBudget.allows(TimeBudget.Detail.ROW_COUNTS)).isFalse();
+
+        assertThat(timeBudget.getSkipped()).containsExactly("row counts of 2 tables");
+    }
+
+    @Test
+    void timeoutAbandonsOnlyThatDetail() {
+        TimeBudget timeBudget = new TimeBudget(Clock.fixed(START, ZoneOffset.UTC), Duration.ofMinutes(1));
+        timeBudget.start();
+
+        assertThat(timeBudget.timedOut(TimeBudget.Detail.EXPORTED_KEYS, new SQLTimeoutException("too slow"))).isTrue();
+
+        assertThat(timeBudget.allows(TimeBudget.Detail.EXPORTED_KEYS)).isFalse();
+        assertThat(timeBudget.allows(TimeBudget.Detail.ROW_COUNTS)).isTrue();
+        assertThat(timeBudget.getSkipped()).containsExactly("exported keys of 2 tables");
+    }
+
+    @Test
+    void otherFailuresAreNoTimeouts() {
+        TimeBudget timeBudget = TimeBudget.unlimited();
+        timeBudget.start();
+
+        assertThat(timeBudget.timedOut(TimeBudget.Detail.ROUTINES, new SQLException("no access", "42000"))).isFalse();
+        assertThat(timeBudget.timedOut(TimeBudget.Detail.ROUTINES, new SQLException("canceled", "57014"))).isTrue();
+        assertThat(timeBudget.getSkipped()).containsExactly("routines");
+    }
+
+    @Test
+    void startResetsWhatWasSkipped() {
+        TimeBudget timeBudget = TimeBudget.unlimited();
+        timeBudget.start();
+        timeBudget.timedOut(TimeBudget.Detail.VIEW_DEFINITIONS, new SQLTimeoutException());
+
+        timeBudget.start();
+
+        assertThat(timeBudget.allows(TimeBudget.Detail.VIEW_DEFINITIONS)).isTrue();
+        assertThat(timeBudget.getSkipped()).isEmpty();
+    }
+}
@@ -0,0 +1,70 @@
+package org.schemaspy.input.dbms.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.schemaspy.model.Database;
+import org.schemaspy.model.DbmsMeta;
+import org.schemaspy.model.View;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.Properties;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ViewServiceGatherDefinitionsTest {
+
+    private final SqlService sqlService = mock(SqlService.class);
+    private final Properties dbProperties = new Properties();
+    private final ViewService viewService = new ViewService(sqlService, dbProperties, mock(ColumnService.class));
+
+    private Database database;
+    private View first;
+    private View second;
+
+    @BeforeEach
+    void setup() {
+        database = new Database(mock(DbmsMeta.class), "viewServiceTest", "cat", "sch");
+        first = new View(database, "cat", "sch", "first", null, null);
+        second = new View(database, "cat", "sch", "second", null, null);
+    }
+
+    @Test
+    void definitionsAreConcatenatedPerView() throws SQLException {
+        dbProperties.setProperty("selectAllViewDefinitionsSql", "all definitions");
+        dbProperties.setProperty("selectViewSql", "one definition");
+
+        ResultSet definitions = mock(ResultSet.class);
+        when(definitions.next()).thenReturn(true, true, true, true, false);
+        when(definitions.getString("view_name")).thenReturn("FIRST", "FIRST", "second", "unknown");
+        when(definitions.getString("view_definition")).thenReturn("select * ", "from a", "select * from b", "select 1");
+        PreparedStatement statement = mock(PreparedStatement.class);
+        when(statement.executeQuery()).thenReturn(definitions);
+        when(sqlService.prepareStatement("all definitions", database, null)).thenReturn(statement);
+
+        boolean gathered = viewService.gatherViewDefinitions(database, Arrays.asList(first, second));
+        viewService.gatherViewDetails(database, first, true, gathered);
+
+        assertThat(gathered).isTrue();
+        assertThat(first.getViewDefinition()).isEqualTo("select * from a");
+        assertThat(second.getViewDefinition()).isEqualTo("select * from b");
+        verify(sqlService, never()).prepareStatement(anyString(), any(), anyString());
+    }
+
+    @Test
+    void failureLeavesDefinitionsToBeGatheredPerView() throws SQLException {
+        dbProperties.setProperty("selectAllViewDefinitionsSql", "all definitions");
+        when(sqlService.prepareStatement("all definitions", database, null)).thenThrow(new SQLException("no access"));
+
+        assertThat(viewService.gatherViewDefinitions(database, Arrays.asList(first, second))).isFalse();
+        assertThat(first.getViewDefinition()).isNull();
+    }
+}
@@ -0,0 +1,165 @@
+package org.schemaspy.input.dbms.snapshot;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.schemaspy.input.dbms.service.helper.ImportForeignKey;
+import org.schemaspy.model.Database;
+import org.schemaspy.model.DbmsMeta;
+import org.schemaspy.model.Table;
+import org.schemaspy.model.TableColumn;
+import org.schemaspy.model.TableIndex;
+
+import java.io.File;
+import java.util.Collections;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+class SnapshotStoreTest {
+
+    @TempDir
+    private File outputDir;
+
+    private Database database;
+    private Table table;
+
+    @BeforeEach
+    void setup() {
+        database = new Database(mock(DbmsMeta.class), "snapshotTest", "cat", "sch");
+        table = addTable(database);
+    }
+
+    private static Table addTable(Database database) {
+        Table table = new Table(database, "cat", "sch", "person", "people");
+        TableColumn id = new TableColumn(table);
+        id.setName("id");
+        id.setId(0);
+        id.setTypeName("int");
+        id.setIsAutoUpdated(true);
+        table.getColumnsMap().put(id.getName(), id);
+        database.getTablesMap().put(table.getName(), table);
+        return table;
+    }
+
+    @Test
+    void unchangedTableIsReadBackWithItsDetails() {
+        TableIndex index = new TableIndex("person_pk", true);
+        index.addColumn(table.getColumn("id"), "A");
+        index.setIsPrimaryKey(true);
+        table.getIndexesMap().put(index.getName(), index);
+        table.setPrimaryColumn(table.getColumn("id"));
+
+        Snapshot snapshot = Snapshot.empty();
+        assertThat(snapshot.unchanged(table)).isEmpty();
+        snapshot.recordForeignKeys(table, Collections.singletonList(new ImportForeignKey.Builder()
+                .withFkName("person_parent")
+                .withFkColumnName("parent")
+                .withPkTableName("parent")
+                .withPkColumnName("id")
+                .withUpdateRule(0)
+                .withDeleteRule(1)
+                .build()), null);
+        snapshot.capture(database);
+        SnapshotStore store = new SnapshotStore(new File(outputDir, SnapshotStore.FILE_NAME));
+        store.write(database, snapshot);
+
+        Database rerun = new Database(mock(DbmsMeta.class), "snapshotTest", "cat", "sch");
+        Optional<TableSnapshot> unchanged = store.read(rerun).unchanged(addTable(rerun));
+
+        assertThat(unchanged).isPresent();
+        TableSnapshot tableSnapshot = unchanged.get();
+        assertThat(tableSnapshot.getColumns()).extracting(TableSnapshot.ColumnSnapshot::isAutoUpdated).containsExactly(true);
+        assertThat(tableSnapshot.getIndexes()).extracting(TableSnapshot.IndexSnapshot::getName).containsExactly("person_pk");
+        assertThat(tableSnapshot.getPrimaryKey()).containsExactly("id");
+        assertThat(tableSnapshot.hasForeignKeys()).isTrue();
+        assertThat(tableSnapshot.hasExportedKeys()).isFalse();
+        assertThat(tableSnapshot.getImportedKeys()).extracting(ImportForeignKey::getPkTableName).containsExactly("parent");
+    }
+
+    @Test
+    void changedColumnsAreNotReused() {
+        Snapshot snapshot = Snapshot.empty();
+        snapshot.unchanged(table);
+        snapshot.capture(database);
+        SnapshotStore store = new SnapshotStore(new File(outputDir, SnapshotStore.FILE_NAME));
+        store.write(database, snapshot);
+
+        Database rerun = new Database(mock(DbmsMeta.class), "snapshotTest", "cat", "sch");
+        Table changed = addTable(rerun);
+        changed.getColumn("id").setNullable(true);
+
+        assertThat(store.read(rerun).unchanged(changed)).isEmpty();
+    }
+
+    @Test
+    void ddlTimestampDecidesWithoutColumns() {
+        Snapshot snapshot = Snapshot.empty();
+        snapshot.setDdlTimestamps(Collections.singletonMap("PERSON", "2020-01-01 00:00:00"));
+        snapshot.unchanged(table);
+        snapshot.capture(database);
+        SnapshotStore store = new SnapshotStore(new File(outputDir, SnapshotStore.FILE_NAME));
+        store.write(database, snapshot);
+
+        Database rerun = new Database(mock(DbmsMeta.class), "snapshotTest", "cat", "sch");
+        Table withoutColumns = new Table(rerun, "cat", "sch", "person", "people");
+        Snapshot same = store.read(rerun);
+        same.setDdlTimestamps(Collections.singletonMap("person", "2020-01-01 00:00:00"));
+        Snapshot later = store.read(rerun);
+        later.setDdlTimestamps(Collections.singletonMap("person", "2020-01-02 00:00:00"));
+
+        assertThat(same.hasDdlTimestamp(withoutColumns)).isTrue();
+        assertThat(same.unchanged(withoutColumns)).isPresent();
+        assertThat(later.unchanged(withoutColumns)).isEmpty();
+    }
+
+    @Test
+    void onlyDdlTimestampReusesIndexesAndForeignKeys() {
+        Snapshot snapshot = Snapshot.empty();
+        snapshot.setDdlTimestamps(Collections.singletonMap("person", "2020-01-01 00:00:00"));
+        snapshot.unchanged(table);
+        snapshot.capture(database);
+        SnapshotStore store = new SnapshotStore(new File(outputDir, SnapshotStore.FILE_NAME));
+        store.write(database, snapshot);
+        Snapshot columnsOnly = Snapshot.empty();
+        columnsOnly.unchanged(table);
+        columnsOnly.capture(database);
+        SnapshotStore columnsOnlyStore = new SnapshotStore(new File(outputDir, "columns-" + SnapshotStore.FILE_NAME));
+        columnsOnlyStore.write(database, columnsOnly);
+
+        Database rerun = new Database(mock(DbmsMeta.class), "snapshotTest", "cat", "sch");
+        Table sameDdl = addTable(rerun);
+        Snapshot byDdl = store.read(rerun);
+        byDdl.setDdlTimestamps(Collections.singletonMap("person", "2020-01-01 00:00:00"));
+        Table sameColumns = addTable(rerun);
+        Snapshot byColumns = columnsOnlyStore.read(rerun);
+
+        assertThat(byDdl.unchanged(sameDdl)).isPresent();
+        assertThat(byDdl.reused(sameDdl)).isPresent();
+        assertThat(byColumns.unchanged(sameColumns)).isPresent();
+        assertThat(byColumns.reused(sameColumns)).isEmpty();
+    }
+
+    @Test
+    void disabledSnapshotDoesNothing() {
+        Snapshot snapshot = Snapshot.disabled();
+
+        assertThat(snapshot.unchanged(table)).isEmpty();
+        snapshot.capture(database);
+        assertThat(snapshot.getCaptured()).isEmpty();
+    }
+
+    @Test
+    void snapshotOfAnotherSchemaIsIgnored() {
+        Snapshot snapshot = Snapshot.empty();
+        snapshot.unchanged(table);
+        snapshot.capture(database);
+        SnapshotStore store = new SnapshotStore(new File(outputDir, SnapshotStore.FILE_NAME));
+        store.write(database, snapshot);
+
+        Database other = new Database(mock(DbmsMeta.class), "snapshotTest", "cat", "other");
+
+        assertThat(store.read(other).unchanged(addTable(other))).isEmpty();
+    }
+}
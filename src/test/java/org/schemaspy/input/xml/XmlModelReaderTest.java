@@ -0,0 +1,160 @@
+package org.schemaspy.input.xml;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.schemaspy.model.*;
+import org.schemaspy.output.xml.dom.XmlProducerUsingDOM;
+
+import java.io.File;
+import java.util.regex.Pattern;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class XmlModelReaderTest {
+
+    private static final Pattern NOTHING = Pattern.compile("[^.]");
+
+    @TempDir
+    private File outputDir;
+
+    private Database database;
+
+    @BeforeEach
+    void setup() {
+        DbmsMeta dbmsMeta = new DbmsMeta.Builder()
+                .productName("TestDB")
+                .productVersion("1.2")
+                .getDbmsMeta();
+        database = new Database(dbmsMeta, "modelTest", "cat", "sch");
+
+        Table parent = addTable("parent");
+        TableColumn parentId = addColumn(parent, "id", 0);
+        parent.setPrimaryColumn(parentId);
+        TableIndex primaryKey = new TableIndex("parent_pk", true);
+        primaryKey.addColumn(parentId, "A");
+        primaryKey.setIsPrimaryKey(true);
+        parent.getIndexesMap().put(primaryKey.getName(), primaryKey);
+        parent.setNumRows(42);
+
+        Table child = addTable("child");
+        addColumn(child, "id", 0);
+        TableColumn parentRef = addColumn(child, "parent_id", 1);
+        ForeignKeyConstraint foreignKey = new ForeignKeyConstraint(child, "child_parent", 0, 0);
+        foreignKey.addChildColumn(parentRef);
+        foreignKey.addParentColumn(parentId);
+        parentRef.addParent(parentId, foreignKey);
+        parentId.addChild(parentRef, foreignKey);
+        child.getForeignKeysMap().put(foreignKey.getName(), foreignKey);
+        child.addCheckConstraint("positive", "id > 0");
+
+        View view = new View(database, "cat", "sch", "children", "all children", "select * from child");
+        addColumn(view, "id", 0);
+        database.getViewsMap().put(view.getName(), view);
+
+        Routine routine = new Routine("count_children", "FUNCTION", "int", "SQL",
+                "select count(*) from child", true, "READS", "DEFINER", "counts");
+        routine.addParameter(new RoutineParameter("parent", "int", "IN"));
+        database.getRoutinesMap().put(routine.getName(), routine);
+        database.getSequencesMap().put("child_seq", new Sequence("child_seq", 1, 1));
+    }
+
+    private Table addTable(String name) {
+        Table table = new Table(database, "cat", "sch", name, name + " table");
+        database.getTablesMap().put(name, table);
+        return table;
+    }
+
+    private static TableColumn addColumn(Table table, String name, int id) {
+        TableColumn column = new TableColumn(table);
+        column.setName(name);
+        column.setId(id);
+        column.setTypeName("int");
+        column.setType(4);
+        column.setLength(10);
+        table.getColumnsMap().put(name, column);
+        return column;
+    }
+
+    private Database roundTrip() {
+        new XmlProducerUsingDOM().generate(database, outputDir);
+        return new XmlModelReader(NOTHING, NOTHING).read(new File(outputDir, "modelTest.sch.xml"));
+    }
+
+    @Test
+    void tablesAndViewsAreReadBack() {
+        Database read = roundTrip();
+
+        assertThat(read.getName()).isEqualTo("modelTest");
+        assertThat(read.getSchema().getName()).isEqualTo("sch");
+        assertThat(read.getCatalog().getName()).isEqualTo("cat");
+        assertThat(read.getDatabaseProduct()).isEqualTo("TestDB - 1.2");
+        assertThat(read.getTablesMap()).containsOnlyKeys("PARENT", "CHILD");
+        assertThat(read.getViewsMap()).containsOnlyKeys("CHILDREN");
+        assertThat(read.getViewsMap().get("children").getViewDefinition()).isEqualTo("select * from child");
+
+        Table parent = read.getTablesMap().get("parent");
+        assertThat(parent.getNumRows()).isEqualTo(42);
+        assertThat(parent.getComments()).isEqualTo("parent table");
+        assertThat(parent.getPrimaryColumns()).extracting(TableColumn::getName).containsExactly("id");
+        assertThat(parent.getIndex("parent_pk").isPrimaryKey()).isTrue();
+        assertThat(parent.getColumn("id").getId()).isEqualTo(0);
+        assertThat(parent.getColumn("id").getDefaultValue()).isNull();
+        assertThat(read.getTablesMap().get("child").getCheckConstraints()).containsEntry("positive", "id > 0");
+    }
+
+    @Test
+    void relationshipsAreConnected() {
+        Database read = roundTrip();
+
+        Table parent = read.getTablesMap().get("parent");
+        Table child = read.getTablesMap().get("child");
+        assertThat(child.getForeignKeysMap()).containsOnlyKeys("CHILD_PARENT");
+        assertThat(child.getColumn("parent_id").getParents()).containsExactly(parent.getColumn("id"));
+        assertThat(parent.getColumn("id").getChildren()).containsExactly(child.getColumn("parent_id"));
+        assertThat(read.getRemoteTables()).isEmpty();
+    }
+
+    @Test
+    void remoteParentIsAdded() {
+        RemoteTable remote = new RemoteTable(database, "cat", "other", "owner", "sch");
+        TableColumn remoteId = addColumn(remote, "id", 0);
+        database.getRemoteTablesMap().put(database.getRemoteTableKey("cat", "other", "owner"), remote);
+        TableColumn ownerRef = addColumn(database.getTablesMap().get("parent"), "owner_id", 1);
+        ForeignKeyConstraint foreignKey = new ForeignKeyConstraint(ownerRef.getTable(), "parent_owner", 0, 0);
+        foreignKey.addChildColumn(ownerRef);
+        foreignKey.addParentColumn(remoteId);
+        ownerRef.addParent(remoteId, foreignKey);
+        remoteId.addChild(ownerRef, foreignKey);
+        ownerRef.getTable().getForeignKeysMap().put(foreignKey.getName(), foreignKey);
+
+        Database read = roundTrip();
+
+        assertThat(read.getRemoteTables()).extracting(Table::getName).containsExactly("owner");
+        assertThat(read.getTablesMap().get("parent").getColumn("owner_id").getParents())
+                .extracting(TableColumn::getTable)
+                .extracting(Table::getSchema)
+                .containsExactly("other");
+    }
+
+    @Test
+    void routinesAndSequencesAreReadBack() {
+        Database read = roundTrip();
+
+        Routine routine = read.getRoutinesMap().get("count_children");
+        assertThat(routine.getDefinition()).isEqualTo("select count(*) from child");
+        assertThat(routine.getComment()).isEqualTo("counts");
+        assertThat(routine.isDeterministic()).isTrue();
+        assertThat(routine.getParameters()).extracting(RoutineParameter::getName).containsExactly("parent");
+        assertThat(read.getSequencesMap().get("child_seq").getIncrement()).isEqualTo(1);
+    }
+
+    @Test
+    void missingModelIsAConfigurationError() {
+        XmlModelReader reader = new XmlModelReader(NOTHING, NOTHING);
+        File missing = new File(outputDir, "missing.xml");
+
+        assertThatThrownBy(() -> reader.read(missing)).isInstanceOf(InvalidConfigurationException.class);
+    }
+}
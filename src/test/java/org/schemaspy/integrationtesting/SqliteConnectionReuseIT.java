@@ -0,0 +1,95 @@
+package org.schemaspy.integrationtesting;
+
+import org.junit.After;
+import org.junit.Test;
+import org.schemaspy.Config;
+import org.schemaspy.input.dbms.service.SqlService;
+
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.SQLException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class SqliteConnectionReuseIT {
+
+    private static final String[] ARGS = {
+            "-t", "sqlite-xerial",
+            "-db", "src/test/resources/integrationTesting/sqlite/database/chinook.db",
+            "-s", "chinook",
+            "-cat", "chinook",
+            "-o", "target/integrationtesting/sqliteReuse",
+            "-sso"
+    };
+
+    private final SqlService sqlService = new SqlService();
+
+    @After
+    public void close() {
+        sqlService.close();
+    }
+
+    @Test
+    public void connectingAgainToSameDatabaseReusesConnection() throws IOException, SQLException {
+        Config config = new Config(ARGS);
+        sqlService.connect(config);
+        Connection connection = sqlService.getConnection();
+
+        sqlService.connect(new Config(ARGS));
+
+        assertThat(sqlService.getConnection()).isSameAs(connection);
+        assertThat(connection.isClosed()).isFalse();
+    }
+
+    @Test
+    public void sharedServiceHandsConnectionBackOnClose() throws IOException, SQLException {
+        sqlService.connect(new Config(ARGS), 2);
+
+        SqlService shared = sqlService.share(false);
+        Connection borrowed = shared.getConnection();
+        assertThat(shared.getDbmsMeta()).isSameAs(sqlService.getDbmsMeta());
+        shared.close();
+
+        SqlService sharedAgain = sqlService.share(false);
+        assertThat(sharedAgain.getConnection()).isSameAs(borrowed);
+        assertThat(borrowed.isClosed()).isFalse();
+        sharedAgain.close();
+    }
+
+    @Test
+    public void sharedServiceDoesntConnectElsewhere() throws IOException, SQLException {
+        // like -all does for database types whose url names the schema
+        Config config = withoutDb("src/test/resources/integrationTesting/sqlite/database/chinook.db");
+        Config elsewhere = withoutDb("src/test/resources/integrationTesting/sqlite/database/other.db");
+        sqlService.connect(config, 2);
+        assertThat(sqlService.isConnectedTo(withoutDb("src/test/resources/integrationTesting/sqlite/database/chinook.db"))).isTrue();
+        assertThat(sqlService.isConnectedTo(elsewhere)).isFalse();
+
+        SqlService shared = sqlService.share(false);
+        Connection borrowed = shared.getConnection();
+        assertThatThrownBy(() -> shared.connect(elsewhere)).isInstanceOf(IllegalStateException.class);
+        shared.close();
+        shared.close();
+
+        assertThat(borrowed.isClosed()).isFalse();
+        assertThat(sqlService.getConnection().isClosed()).isFalse();
+    }
+
+    private static Config withoutDb(String db) {
+        Config config = new Config("-t", "sqlite-xerial", "-s", "chinook", "-cat", "chinook", "-sso");
+        config.setDb(db);
+        return config;
+    }
+
+    @Test
+    public void closeClosesConnection() throws IOException, SQLException {
+        sqlService.connect(new Config(ARGS));
+        Connection connection = sqlService.getConnection();
+
+        sqlService.close();
+
+        assertThat(connection.isClosed()).isTrue();
+        assertThat(sqlService.getConnection()).isNull();
+    }
+}
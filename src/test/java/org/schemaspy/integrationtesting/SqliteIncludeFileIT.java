@@ -0,0 +1,55 @@
+package org.schemaspy.integrationtesting;
+
+import org.junit.After;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.schemaspy.Config;
+import org.schemaspy.input.dbms.service.DatabaseServiceFactory;
+import org.schemaspy.input.dbms.service.SqlService;
+import org.schemaspy.model.Database;
+import org.schemaspy.model.Tracked;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.sql.SQLException;
+import java.util.Collections;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class SqliteIncludeFileIT {
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private final SqlService sqlService = new SqlService();
+
+    @After
+    public void close() {
+        sqlService.close();
+    }
+
+    @Test
+    public void listedTablesAreIncludedAlongsideThoseMatchingInclusion() throws IOException, SQLException {
+        File names = temporaryFolder.newFile("tables.txt");
+        Files.write(names.toPath(), Collections.singletonList("artists"), StandardCharsets.UTF_8);
+        Config config = new Config(
+                "-t", "sqlite-xerial",
+                "-db", "src/test/resources/integrationTesting/sqlite/database/chinook.db",
+                "-s", "chinook",
+                "-cat", "chinook",
+                "-o", "target/integrationtesting/sqliteIncludeFile",
+                "-sso",
+                "-i", "albums",
+                "-includeFile", names.getPath()
+        );
+        sqlService.connect(config);
+        Database database = new Database(sqlService.getDbmsMeta(), "chinook", "chinook", "chinook");
+
+        new DatabaseServiceFactory(sqlService).simple(config).gatherSchemaDetails(database, null, new Tracked());
+
+        assertThat(database.getTablesMap()).containsOnlyKeys("ALBUMS", "ARTISTS");
+    }
+}
@@ -0,0 +1,66 @@
+package org.schemaspy.validator;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.regex.Pattern;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ExactNamesTest {
+
+    private static final Pattern NOTHING = Pattern.compile("(?!)");
+    private static final Pattern DOLLARS = Pattern.compile(".*\\$.*");
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void readsANamePerLineSkippingBlanksAndComments() throws IOException {
+        Path file = tempDir.resolve("tables.txt");
+        Files.write(file, Arrays.asList("# billing", "orders", "", "  invoices  "), StandardCharsets.UTF_8);
+
+        ExactNames names = ExactNames.read(file, false);
+
+        assertThat(names.size()).isEqualTo(2);
+        assertThat(names.contains("orders")).isTrue();
+        assertThat(names.contains("invoices")).isTrue();
+        assertThat(names.contains("ORDERS")).isFalse();
+        assertThat(names.contains("# billing")).isFalse();
+    }
+
+    @Test
+    void ignoresCaseIfAskedTo() {
+        ExactNames names = ExactNames.of(Arrays.asList("Orders"), true);
+
+        assertThat(names.contains("ORDERS")).isTrue();
+        assertThat(names.contains("orders")).isTrue();
+    }
+
+    @Test
+    void listedNamesAreIncludedWithoutMatchingTheInclusion() {
+        NameValidator validator = new NameValidator("table", NOTHING, DOLLARS,
+                ExactNames.of(Arrays.asList("orders", "bin$orders"), false), ExactNames.none(), new String[]{"TABLE"});
+
+        assertThat(validator.isValid("orders", "TABLE")).isTrue();
+        assertThat(validator.isValid("invoices", "TABLE")).isFalse();
+        assertThat(validator.isValid("orders", "VIEW")).isFalse();
+        assertThat(validator.isValid("bin$orders", "TABLE")).isFalse();
+    }
+
+    @Test
+    void listedExclusionsWin() {
+        NameValidator validator = new NameValidator("table", Pattern.compile(".*"), DOLLARS,
+                ExactNames.of(Arrays.asList("orders"), false), ExactNames.of(Arrays.asList("orders", "audit"), false),
+                new String[]{"TABLE"});
+
+        assertThat(validator.isValid("orders", "TABLE")).isFalse();
+        assertThat(validator.isValid("audit", "TABLE")).isFalse();
+        assertThat(validator.isValid("invoices", "TABLE")).isTrue();
+    }
+}
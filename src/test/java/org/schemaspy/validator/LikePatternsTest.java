@@ -0,0 +1,44 @@
+package org.schemaspy.validator;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.regex.Pattern;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LikePatternsTest {
+
+    @Test
+    void everythingIsEverything() {
+        assertThat(LikePatterns.of(Pattern.compile(".*"))).containsExactly("%");
+    }
+
+    @Test
+    void alternationOfLiteralsAndPrefixes() {
+        assertThat(LikePatterns.of(Pattern.compile("(orders|invoice_.*|audit\\.log)")))
+                .containsExactly("orders", "invoice_%", "audit.log");
+    }
+
+    @Test
+    void anchorsAndNonCapturingGroupAreIgnored() {
+        assertThat(LikePatterns.of(Pattern.compile("^(?:a.|b.+)$"))).containsExactly("a_", "b_%");
+    }
+
+    @Test
+    void anythingElseIsEverything() {
+        assertThat(LikePatterns.of(Pattern.compile("orders|.*"))).containsExactly("%");
+        assertThat(LikePatterns.of(Pattern.compile("order[sz]"))).containsExactly("%");
+        assertThat(LikePatterns.of(Pattern.compile("t\\d+"))).containsExactly("%");
+        assertThat(LikePatterns.of(Pattern.compile("(a|b)_(c|d)"))).containsExactly("%");
+        assertThat(LikePatterns.of(Pattern.compile("orders", Pattern.CASE_INSENSITIVE))).containsExactly("%");
+    }
+
+    @Test
+    void tooManyPatternsIsEverything() {
+        StringBuilder names = new StringBuilder("t0");
+        for (int i = 1; i <= LikePatterns.MAX_PATTERNS; ++i) {
+            names.append("|t").append(i);
+        }
+        assertThat(LikePatterns.of(Pattern.compile(names.toString()))).containsExactly("%");
+    }
+}
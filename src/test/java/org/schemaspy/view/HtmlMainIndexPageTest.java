@@ -87,4 +87,22 @@ public class HtmlMainIndexPageTest {
         assertThat(writer.toString()).contains("<th align=\"right\" valign=\"bottom\">Rows</th>");
     }
 
-}
\ No newline at end of file
+    @Test
+    public void omittedDetailsAreShown() {
+        HtmlConfig htmlConfig = mock(HtmlConfig.class);
+        when(htmlConfig.getTemplateDirectory()).thenReturn("layout");
+        when(htmlConfig.isPaginationEnabled()).thenReturn(true);
+        DataTableConfig dataTableConfig = new DataTableConfig(htmlConfig, new CommandLineArguments());
+        MustacheCompiler mustacheCompiler = new MustacheCompiler("omittedTest", htmlConfig, dataTableConfig);
+        HtmlMainIndexPage htmlMainIndexPage = new HtmlMainIndexPage(mustacheCompiler, null);
+        StringWriter writer = new StringWriter();
+        Database database = mock(Database.class);
+        when(database.getSchema()).thenReturn(new Schema("schema"));
+        when(database.getCatalog()).thenReturn(new Catalog("catalog"));
+        when(database.getOmittedDetails()).thenReturn(Collections.singletonList("row counts of 12 tables"));
+        htmlMainIndexPage.write(database, Collections.emptyList(), Collections.emptyList(), writer);
+
+        assertThat(writer.toString()).contains("Incomplete analysis").contains("<li>row counts of 12 tables</li>");
+    }
+
+}